@@ -1,5 +1,4 @@
 package government;
-import java.util.Random;
 
 // Abstract class to represent a person with basic attributes.
 public abstract class Person {
@@ -12,36 +11,47 @@ public abstract class Person {
     public Person(int age, String name) {
         setAge(age); // Set age using setter to enforce logic.
         setName(name); // Set name using setter.
-        this.SIN = generateSIN(); // Generate SIN via Luhn Algorithm.
+        this.SIN = generateSIN(); // Generate a unique SIN via Luhn Algorithm.
+    }
+
+    // Constructor for people whose SIN was issued earlier, such as people restored from
+    // saved records. The SIN is kept as is (0 for none) and only indexed by claimSIN.
+    protected Person(int age, String name, int sin) {
+        if (sin != 0 && !SinRegistry.isValidSIN(sin)) {
+            throw new IllegalArgumentException("Invalid SIN.");
+        }
+        setAge(age); // Set age using setter to enforce logic.
+        setName(name); // Set name using setter.
+        this.SIN = sin;
+    }
+
+    // Constructor for subclasses that keep their data elsewhere, such as
+    // compact student views. They override the getters and get no SIN.
+    protected Person() {
+        this.SIN = 0;
     }
 
     /* STORAGE METHODS */
-    // Method to generate a valid Canadian SIN using the Luhn Algorithm.
+    // Method to generate a valid, unique Canadian SIN using the Luhn Algorithm.
+    // The SinRegistry draws candidates in batches and indexes this person by SIN.
     private int generateSIN() {
-        Random rand = new Random();
-        int sin = 0;
-        int sum = 0;
-
-        // Generate the first 8 digits.
-        for (int i = 0; i < 8; i++) {
-            int digit = (i == 0) ? rand.nextInt(9) + 1 : rand.nextInt(10); // First digit (1-9), others (0-9).
-            sin = sin * 10 + digit; // Append digit to SIN.
+        return SinRegistry.register(this);
+    }
 
-            // Apply Luhn algorithm: Double every second digit from the left.
-            if (i % 2 == 1) {
-                digit *= 2;
-                if (digit > 9) {
-                    digit -= 9; // Reduce if greater than 9.
-                }
-            }
-            sum += digit; // Add the digit to the sum.
+    // Indexes this person under their SIN once they are back on record, replacing
+    // any earlier copy of the same person, so SinRegistry.findBySIN returns them.
+    protected void claimSIN() {
+        if (SIN != 0) {
+            SinRegistry.claim(SIN, this);
         }
+    }
 
-        // Compute the check digit (modulo 10 rule).
-        int checkDigit = (10 - (sum % 10)) % 10;
-        sin = sin * 10 + checkDigit; // Append check digit to complete SIN.
-
-        return sin; // Return complete SIN.
+    // Gives up this person's SIN once they are removed from their records,
+    // so SinRegistry.findBySIN no longer returns them.
+    protected void releaseSIN() {
+        if (SIN != 0) {
+            SinRegistry.unregister(SIN, this);
+        }
     }
 
     /* LOGIC METHOD(S) */
@@ -59,8 +69,8 @@ public abstract class Person {
         return intAge;
     }
 
-    // Getter for SIN (should be private and immutable after initialization).
-    private int getSIN() {
+    // Getter for SIN, for subclasses that save it with their records.
+    protected int getSIN() {
         return SIN;
     }
 
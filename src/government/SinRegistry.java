@@ -0,0 +1,177 @@
+package government;
+
+import government.school.util.ConcurrentArrayMap;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Registry that hands out unique, Luhn-valid SINs and finds a Person by SIN.
+// People are held weakly, so the registry never keeps a discarded person alive.
+public final class SinRegistry {
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int BATCH_SIZE = 64; // Candidate SINs generated at a time per thread.
+    private static final int FIRST_BODY = 10_000_000; // Smallest 8-digit body (first digit 1).
+    private static final int BODY_RANGE = 90_000_000; // Number of 8-digit bodies.
+
+    // Index from SIN to its owner; striped so concurrent constructors do not contend.
+    private static final ConcurrentArrayMap<Integer, Holder> bySin = new ConcurrentArrayMap<>(0, 64);
+
+    // Holders whose owner was garbage collected, waiting to be dropped from the index.
+    private static final ReferenceQueue<Person> collected = new ReferenceQueue<>();
+
+    // Per-thread batch of candidate SINs, refilled from ThreadLocalRandom.
+    private static final ThreadLocal<Batch> batch = ThreadLocal.withInitial(Batch::new);
+
+    // Buffer of generated SINs and the position of the next unused one.
+    private static final class Batch {
+        final int[] sins = new int[BATCH_SIZE];
+        int position = BATCH_SIZE; // Starts empty so the first use fills it.
+    }
+
+    // Weak reference from the index to a SIN's owner; remembers the SIN so it can be dropped.
+    private static final class Holder extends WeakReference<Person> {
+        final int sin;
+
+        Holder(Person person, int sin) {
+            super(person, collected);
+            this.sin = sin;
+        }
+    }
+
+    /* CONSTRUCTOR(S) */
+    private SinRegistry() {
+    }
+
+    /* LOGIC METHOD(S) */
+    // Assigns a new unique SIN to a person and indexes it. Retries only on a collision.
+    static int register(Person person) {
+        if (person == null) {
+            throw new IllegalArgumentException("Person cannot be null.");
+        }
+        purge();
+        while (true) {
+            int sin = nextCandidate();
+            if (bySin.putIfAbsent(sin, new Holder(person, sin))) {
+                return sin;
+            }
+        }
+    }
+
+    // Issues new unique SINs in a batch for people who are built later with them, such
+    // as imported students. Each SIN stays reserved, found by no one, until its person
+    // claims it; reservations that end up unused must be given back with release.
+    public static void issue(int[] sins, int count) {
+        if (sins == null || count < 0 || count > sins.length) {
+            throw new IllegalArgumentException("SINs must be non-null and hold the given count.");
+        }
+        purge();
+        for (int i = 0; i < count; i++) {
+            int sin;
+            do {
+                sin = nextCandidate();
+            } while (!bySin.putIfAbsent(sin, new Holder(null, sin)));
+            sins[i] = sin;
+        }
+    }
+
+    // Gives back issued SINs that no person claimed. SINs already claimed are kept.
+    public static void release(int[] sins, int from, int count) {
+        if (sins == null || from < 0 || count < 0 || from + count > sins.length) {
+            throw new IllegalArgumentException("SINs must be non-null and hold the given range.");
+        }
+        for (int i = from; i < from + count; i++) {
+            Holder holder = bySin.get(sins[i]);
+            if (holder != null && holder.get() == null) {
+                bySin.remove(sins[i], holder);
+            }
+        }
+    }
+
+    // Indexes a person under a SIN issued earlier, such as one restored from saved
+    // records. The person replaces any earlier holder, which is an older copy of them.
+    static void claim(int sin, Person person) {
+        if (person == null) {
+            throw new IllegalArgumentException("Person cannot be null.");
+        }
+        purge();
+        Holder holder = bySin.get(sin);
+        if (holder == null || holder.get() != person) {
+            bySin.put(sin, new Holder(person, sin));
+        }
+    }
+
+    // Drops a person's SIN from the index, for people removed from their records.
+    static void unregister(int sin, Person person) {
+        Holder holder = bySin.get(sin);
+        if (holder != null && holder.get() == person && bySin.remove(sin, holder)) {
+            holder.clear();
+        }
+    }
+
+    // Drops the SINs of people that have been garbage collected.
+    private static void purge() {
+        for (Reference<? extends Person> ref; (ref = collected.poll()) != null; ) {
+            Holder holder = (Holder) ref;
+            bySin.remove(holder.sin, holder);
+        }
+    }
+
+    // Takes the next candidate from this thread's batch, generating a new batch when empty.
+    private static int nextCandidate() {
+        Batch current = batch.get();
+        if (current.position == BATCH_SIZE) {
+            fillBatch(current.sins);
+            current.position = 0;
+        }
+        return current.sins[current.position++];
+    }
+
+    // Fills a buffer with random Luhn-valid SINs using one shared fast RNG per thread.
+    private static void fillBatch(int[] candidates) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        for (int i = 0; i < candidates.length; i++) {
+            int body = FIRST_BODY + rand.nextInt(BODY_RANGE); // First 8 digits in one draw.
+            candidates[i] = body * 10 + checkDigit(body);
+        }
+    }
+
+    // Computes the Luhn check digit for an 8-digit body, doubling every second digit from the left.
+    private static int checkDigit(int body) {
+        int sum = 0;
+        for (int i = 7; i >= 0; i--) { // i is the digit's position from the left.
+            int digit = body % 10;
+            body /= 10;
+            if (i % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return (10 - (sum % 10)) % 10;
+    }
+
+    // Checks that a number is a 9-digit SIN with a correct Luhn check digit.
+    public static boolean isValidSIN(int sin) {
+        if (sin < 100_000_000 || sin > 999_999_999) {
+            return false;
+        }
+        return checkDigit(sin / 10) == sin % 10;
+    }
+
+    /* GETTER(S) */
+    // Returns the person holding a SIN, or null if the SIN is not assigned.
+    public static Person findBySIN(int sin) {
+        Holder holder = bySin.get(sin);
+        return holder == null ? null : holder.get();
+    }
+
+    // Returns the number of SINs currently assigned, after dropping those of collected people.
+    public static int size() {
+        purge();
+        return bySin.size();
+    }
+}
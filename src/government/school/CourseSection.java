@@ -1,19 +1,25 @@
 package government.school;
 
 import government.school.staff.Teacher;
+import government.school.students.GpaAccumulator;
 import government.school.students.Student;
-import government.school.util.ArrayMap;
+import government.school.util.IntDoubleConsumer;
+import government.school.util.IntDoubleMap;
+import government.school.util.IntIntMap;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class CourseSection extends Course {
 
     private int intSectionNumber;
     private Teacher courseTeacher;
-    private ArrayMap<Integer,Double> grades;
-    private ArrayMap<Integer,Integer> absences;
-    private ArrayMap<Integer,Integer> lates;
+    private IntDoubleMap grades;
+    private IntIntMap absences;
+    private IntIntMap lates;
+    // Guards grades, absences and lates so several staff can edit this section at once
+    private final ReentrantReadWriteLock recordLock = new ReentrantReadWriteLock();
     private ArrayList<Student> studentsEnrolled;
 
     public static ArrayList<CourseSection> courseSections = new ArrayList<CourseSection>();
@@ -25,9 +31,10 @@ public class CourseSection extends Course {
         setSectionNumber(intCourseSection);
         setCourseTeacher(courseTeacher);
 
-        grades = new ArrayMap<Integer,Double>();
-        absences = new ArrayMap<Integer,Integer>();
-        lates = new ArrayMap<Integer,Integer>();
+        /* A section never holds more students than its capacity */
+        grades = new IntDoubleMap(intCourseMaxCapacity);
+        absences = new IntIntMap(intCourseMaxCapacity);
+        lates = new IntIntMap(intCourseMaxCapacity);
         studentsEnrolled = new ArrayList<Student>();
 
         courseSections.add(this);
@@ -51,13 +58,22 @@ public class CourseSection extends Course {
         if (student == null)
             throw new IllegalArgumentException("Student cannot be null");
 
-        if (grade < 0 || grade > 100)
+        if (!(grade >= 0 && grade <= 100))
             throw new IllegalArgumentException("Grade must be between 0 and 100 inclusive");
 
-        if (!grades.containsKey(student.getID()))
-            throw new IllegalArgumentException("No such student exists in this course section");
-
-        grades.put(student.getID(), grade);
+        recordLock.writeLock().lock();
+        try {
+            // Enrollment seeds the absence record; the grade is NaN until the first one is set
+            if (!absences.containsKey(student.getID()))
+                throw new IllegalArgumentException("No such student exists in this course section");
+            double oldGrade = grades.getOrDefault(student.getID(), Double.NaN);
+
+            // Keep the student's running GPA current instead of recomputing it from every section
+            GpaAccumulator.gradeRecorded(student, oldGrade, grade);
+            grades.put(student.getID(), grade);
+        } finally {
+            recordLock.writeLock().unlock();
+        }
     }
 
     public void setAbsences(Student student, int absence) {
@@ -67,10 +83,15 @@ public class CourseSection extends Course {
         if (absence < 0)
             throw new IllegalArgumentException("Absences must be between 0 and X inclusive");
 
-        if (!absences.containsKey(student.getID()))
-            throw new IllegalArgumentException("No such student exists in this course section");
+        recordLock.writeLock().lock();
+        try {
+            if (!absences.containsKey(student.getID()))
+                throw new IllegalArgumentException("No such student exists in this course section");
 
-        absences.put(student.getID(), absence);
+            absences.put(student.getID(), absence);
+        } finally {
+            recordLock.writeLock().unlock();
+        }
 
     }
 
@@ -81,10 +102,15 @@ public class CourseSection extends Course {
         if (late < 0)
             throw new IllegalArgumentException("Lates must be between 0 and X inclusive");
 
-        if (!lates.containsKey(student.getID()))
-            throw new IllegalArgumentException("No such student exists in this course section");
+        recordLock.writeLock().lock();
+        try {
+            if (!lates.containsKey(student.getID()))
+                throw new IllegalArgumentException("No such student exists in this course section");
 
-        lates.put(student.getID(), late);
+            lates.put(student.getID(), late);
+        } finally {
+            recordLock.writeLock().unlock();
+        }
 
     }
 
@@ -93,10 +119,40 @@ public class CourseSection extends Course {
         if (student == null)
             throw new IllegalArgumentException("Student cannot be null");
 
-        if (!grades.containsKey(student.getID()))
+        double grade;
+        recordLock.readLock().lock();
+        try {
+            grade = grades.getOrDefault(student.getID(), Double.NaN);
+        } finally {
+            recordLock.readLock().unlock();
+        }
+        if (Double.isNaN(grade))
             throw new IllegalArgumentException("No grade found for the student in this course section");
 
-        return grades.get(student.getID());
+        return grade;
+    }
+
+    // Grade of the student with this ID, or NaN if none is recorded
+    public double findGrade(int studentID) {
+        recordLock.readLock().lock();
+        try {
+            return grades.getOrDefault(studentID, Double.NaN);
+        } finally {
+            recordLock.readLock().unlock();
+        }
+    }
+
+    // Passes every recorded grade to the action, keyed by student ID
+    public void forEachGrade(IntDoubleConsumer action) {
+        if (action == null)
+            throw new IllegalArgumentException("Action cannot be null");
+
+        recordLock.readLock().lock();
+        try {
+            grades.forEach(action);
+        } finally {
+            recordLock.readLock().unlock();
+        }
     }
 
     // Getter for absences
@@ -104,10 +160,17 @@ public class CourseSection extends Course {
         if (student == null)
             throw new IllegalArgumentException("Student cannot be null");
 
-        if (!absences.containsKey(student.getID()))
+        int absence;
+        recordLock.readLock().lock();
+        try {
+            absence = absences.getOrDefault(student.getID(), -1);
+        } finally {
+            recordLock.readLock().unlock();
+        }
+        if (absence < 0)
             throw new IllegalArgumentException("No absence record found for the student in this course section");
 
-        return absences.get(student.getID());
+        return absence;
     }
 
     // Getter for lates
@@ -115,10 +178,50 @@ public class CourseSection extends Course {
         if (student == null)
             throw new IllegalArgumentException("Student cannot be null");
 
-        if (!lates.containsKey(student.getID()))
+        int late;
+        recordLock.readLock().lock();
+        try {
+            late = lates.getOrDefault(student.getID(), -1);
+        } finally {
+            recordLock.readLock().unlock();
+        }
+        if (late < 0)
             throw new IllegalArgumentException("No late record found for the student in this course section");
 
-        return lates.get(student.getID());
+        return late;
+    }
+
+    // Average of all recorded grades, or 0 if none have been recorded
+    public double getAverageGrade() {
+        recordLock.readLock().lock();
+        try {
+            if (grades.size() == 0)
+                return 0.0;
+
+            return grades.sum() / grades.size();
+        } finally {
+            recordLock.readLock().unlock();
+        }
+    }
+
+    // Total absences recorded across the section
+    public long getTotalAbsences() {
+        recordLock.readLock().lock();
+        try {
+            return absences.sum();
+        } finally {
+            recordLock.readLock().unlock();
+        }
+    }
+
+    // Total lates recorded across the section
+    public long getTotalLates() {
+        recordLock.readLock().lock();
+        try {
+            return lates.sum();
+        } finally {
+            recordLock.readLock().unlock();
+        }
     }
 
     public void setSectionNumber(int intSectionNumber) {
@@ -144,6 +247,17 @@ public class CourseSection extends Course {
             throw new InvalidTimetableOperationException("Course is full. Cannot add more students.");
         }
         studentsEnrolled.add(newStudent);
+
+        // Start the attendance records, which also mark the student as enrolled here
+        recordLock.writeLock().lock();
+        try {
+            if (!absences.containsKey(newStudent.getID()))
+                absences.put(newStudent.getID(), 0);
+            if (!lates.containsKey(newStudent.getID()))
+                lates.put(newStudent.getID(), 0);
+        } finally {
+            recordLock.writeLock().unlock();
+        }
         return true; // Student added successfully
     }
 
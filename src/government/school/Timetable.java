@@ -1,6 +1,7 @@
 package government.school;
 
 import government.school.students.Student;
+import government.school.students.StudentJournal;
 
 import java.sql.Time;
 import java.util.Arrays;
@@ -48,6 +49,7 @@ public class Timetable {
         } else {
             tt[i].removeStudent(student);
             tt[i] = null;
+            StudentJournal.recordTimetable(student);
         }
     }
 
@@ -70,6 +72,7 @@ public class Timetable {
         } else {
             tt[course.getSectionNumber() - 1] = course;
             tt[course.getSectionNumber() - 1].addStudent(student);
+            StudentJournal.recordTimetable(student);
         }
     }
 
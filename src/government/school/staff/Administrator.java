@@ -55,7 +55,6 @@ public class Administrator extends Employee
               intYearsEmployed, dblAnnualSalary, blnStatus);
         setSchoolBudget(dblSchoolBudget);
         setDepartment(strDepartment);
-        setPassword(strPassword);
     }
 
     /**************************************************************************
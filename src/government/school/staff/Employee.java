@@ -16,31 +16,42 @@
 *
 * Concepts:
 * Inheritance, interface implementation, cloning, array copying,
-* and exception handling.
+* exception handling, bit flags, and secondary indexes.
 **************************************************************************/
 
 package government.school.staff;
 
 import government.Person;
 import government.school.util.Auth;
+import government.school.util.CredentialStore;
+import government.school.util.StatusIndex;
 import java.util.ArrayList;
 
 public abstract class Employee extends Person implements Cloneable {
 
     // Fields
     private final int EMPLOYEE_ID;
-    private String strPassword;
     private String strDepartment;
     private String[] strShiftInterval;
     private int intYearsEmployed;
     private double dblAnnualSalary;
-    // Fired, vacation, retired
-    private boolean[] blnStatus;
+    // Fired, vacation, retired (STATUS_FIRED, STATUS_ON_VACATION, STATUS_RETIRED)
+    private int intStatus;
+    // Whether this is the listed employee rather than a clone of it
+    private boolean blnListed;
+
+    // Status flags
+    public static final int STATUS_FIRED = 1;
+    public static final int STATUS_ON_VACATION = 1 << 1;
+    public static final int STATUS_RETIRED = 1 << 2;
+    private static final int STATUS_BITS = 3;
 
     // Static Fields
     private final static String[] departments = {"Math", "Science", "Technology",
         "Art", "Business", "Physical Education", "Guidance"};
     private static ArrayList<Employee> employees;
+    // Listed employees by status flag
+    private static final StatusIndex<Employee> byStatus = new StatusIndex<>(STATUS_BITS);
 
     /**********************************************************************
     * Method name:
@@ -72,14 +83,14 @@ public abstract class Employee extends Person implements Cloneable {
         setYearsEmployed(intYearsEmployed);
         setAnnualSalary(dblAnnualSalary);
         setStatus(blnStatus);
-        setPassword(strPassword);
 
         // Generate a unique employee ID.
         this.EMPLOYEE_ID = Auth.generateID();
-        // Generate a new password if necessary.
-        setPassword();
+        // The password is stored as a hash under the new ID.
+        storePassword(strPassword);
 
         employees.add(this);
+        list(this);
     }
 
     /**********************************************************************
@@ -172,7 +183,8 @@ public abstract class Employee extends Person implements Cloneable {
     * getStatus
     *
     * Description:
-    * Returns a clone of the status array.
+    * Returns the status as a new array (fired, vacation, retired). Use
+    * hasStatus or getStatusFlags to avoid the allocation.
     *
     * Parameters:
     * None.
@@ -181,24 +193,70 @@ public abstract class Employee extends Person implements Cloneable {
     * boolean[] - Status array.
     **********************************************************************/
     public boolean[] getStatus() {
-        return this.blnStatus.clone();
+        boolean[] blnStatus = new boolean[STATUS_BITS];
+        for (int bit = 0; bit < STATUS_BITS; bit++) {
+            blnStatus[bit] = (this.intStatus & (1 << bit)) != 0;
+        }
+        return blnStatus;
     }
 
     /**********************************************************************
     * Method name:
-    * setPassword (no parameter)
+    * getStatusFlags
     *
     * Description:
-    * Sets a new password by generating an 8-character password.
+    * Returns the status as a single flag.
     *
     * Parameters:
     * None.
     *
     * Return:
+    * int - STATUS_FIRED, STATUS_ON_VACATION or STATUS_RETIRED.
+    **********************************************************************/
+    public int getStatusFlags() {
+        return this.intStatus;
+    }
+
+    /**********************************************************************
+    * Method name:
+    * hasStatus
+    *
+    * Description:
+    * Checks one status flag without allocating.
+    *
+    * Parameters:
+    * int - STATUS_FIRED, STATUS_ON_VACATION or STATUS_RETIRED.
+    *
+    * Return:
+    * boolean - True if the flag is set.
+    **********************************************************************/
+    public boolean hasStatus(int intFlag) {
+        return (this.intStatus & intFlag) != 0;
+    }
+
+    /**********************************************************************
+    * Method name:
+    * setPassword (no parameter)
+    *
+    * Description:
+    * Sets a new password by generating an 8-character password. Only a
+    * hash is kept, so the generated password is returned to be handed
+    * to the employee.
+    *
+    * Parameters:
     * None.
+    *
+    * Return:
+    * String - The generated password.
+    *
+    * Restrictions:
+    * Only the listed employee can change its password, not a clone.
     **********************************************************************/
-    public void setPassword() {
-        this.strPassword = Auth.generatePassword(8);
+    public String setPassword() {
+        checkListed();
+        String strGenerated = Auth.generatePassword(8);
+        CredentialStore.getDefault().setPassword(this.EMPLOYEE_ID, strGenerated);
+        return strGenerated;
     }
 
     /**********************************************************************
@@ -206,7 +264,8 @@ public abstract class Employee extends Person implements Cloneable {
     * setPassword
     *
     * Description:
-    * Sets the password if it meets the minimum length.
+    * Sets the password if it meets the minimum length. The password is
+    * stored as a salted hash in the shared CredentialStore.
     *
     * Parameters:
     * String - New password.
@@ -215,12 +274,75 @@ public abstract class Employee extends Person implements Cloneable {
     * None.
     *
     * Restrictions:
-    * Password must be at least 8 characters.
+    * Password must be at least 8 characters. Only the listed employee
+    * can change its password, not a clone.
     **********************************************************************/
     public void setPassword(String strPassword) {
+        checkListed();
+        storePassword(strPassword);
+    }
+
+    /**********************************************************************
+    * Method name:
+    * storePassword
+    *
+    * Description:
+    * Checks a password and stores its hash under the employee's ID.
+    *
+    * Parameters:
+    * String - New password.
+    *
+    * Return:
+    * None.
+    *
+    * Restrictions:
+    * Password must be at least 8 characters.
+    **********************************************************************/
+    private void storePassword(String strPassword) {
         if (strPassword == null || strPassword.length() <= 8)
             throw new IllegalArgumentException("Password must be at least 8 characters");
-        this.strPassword = strPassword;
+        CredentialStore.getDefault().setPassword(this.EMPLOYEE_ID, strPassword);
+    }
+
+    /**********************************************************************
+    * Method name:
+    * checkListed
+    *
+    * Description:
+    * Rejects credential changes made through a clone. Passwords are kept
+    * in the shared CredentialStore under the employee's ID, so a clone
+    * would otherwise change the listed employee's password.
+    *
+    * Parameters:
+    * None.
+    *
+    * Return:
+    * None.
+    *
+    * Restrictions:
+    * Throws IllegalStateException if this is not the listed employee.
+    **********************************************************************/
+    private synchronized void checkListed() {
+        if (!this.blnListed)
+            throw new IllegalStateException("Employee " + this.EMPLOYEE_ID
+                    + " is a copy; change the password on the listed employee");
+    }
+
+    /**********************************************************************
+    * Method name:
+    * authenticate
+    *
+    * Description:
+    * Checks a password against the employee's stored hash.
+    *
+    * Parameters:
+    * String - Password presented at login.
+    *
+    * Return:
+    * boolean - True if the password is correct.
+    **********************************************************************/
+    public boolean authenticate(String strPassword) {
+        return CredentialStore.getDefault().authenticate(this.EMPLOYEE_ID, strPassword);
     }
 
     /**********************************************************************
@@ -326,12 +448,45 @@ public abstract class Employee extends Person implements Cloneable {
     **********************************************************************/
     public void setStatus(boolean[] blnStatus) {
         if (blnStatus != null && blnStatus.length == 3 && validateStatus(blnStatus)) {
-            this.blnStatus = blnStatus.clone();
+            int intFlags = 0;
+            for (int bit = 0; bit < STATUS_BITS; bit++) {
+                if (blnStatus[bit])
+                    intFlags |= 1 << bit;
+            }
+            setStatusFlags(intFlags);
         } else {
             throw new IllegalArgumentException("Status cannot be null.");
         }
     }
 
+    /**********************************************************************
+    * Method name:
+    * setStatusFlags
+    *
+    * Description:
+    * Sets the status without allocating. If this is a listed employee,
+    * the status index is updated to match.
+    *
+    * Parameters:
+    * int - STATUS_FIRED, STATUS_ON_VACATION or STATUS_RETIRED.
+    *
+    * Return:
+    * None.
+    *
+    * Restrictions:
+    * Exactly one known flag must be set.
+    **********************************************************************/
+    public synchronized void setStatusFlags(int intFlags) {
+        if (Integer.bitCount(intFlags) != 1 || intFlags >>> STATUS_BITS != 0) {
+            throw new IllegalArgumentException("Status must be exactly one of fired, vacation or retired.");
+        }
+        int intOld = this.intStatus;
+        this.intStatus = intFlags;
+        if (this.blnListed && intOld != intFlags) {
+            byStatus.transition(this.EMPLOYEE_ID, this, intOld, intFlags);
+        }
+    }
+
     /**********************************************************************
     * Method name:
     * validateDepartment
@@ -406,6 +561,52 @@ public abstract class Employee extends Person implements Cloneable {
         return clonedList;
     }
 
+    /**********************************************************************
+    * Method name:
+    * getEmployeesWithStatus
+    *
+    * Description:
+    * Returns clones of the listed employees that have a status flag,
+    * such as every retired employee, without looking at any other
+    * employee.
+    *
+    * Parameters:
+    * int - STATUS_FIRED, STATUS_ON_VACATION or STATUS_RETIRED.
+    *
+    * Return:
+    * ArrayList<Employee> - Cloned employees with the flag.
+    *
+    * Restrictions:
+    * Exactly one known flag must be given.
+    **********************************************************************/
+    public static ArrayList<Employee> getEmployeesWithStatus(int intFlag) {
+        ArrayList<Employee> clonedList = new ArrayList<>();
+        for (Employee employee : byStatus.list(intFlag)) {
+            clonedList.add(employee.clone());
+        }
+        return clonedList;
+    }
+
+    /**********************************************************************
+    * Method name:
+    * countEmployeesWithStatus
+    *
+    * Description:
+    * Returns how many listed employees have a status flag.
+    *
+    * Parameters:
+    * int - STATUS_FIRED, STATUS_ON_VACATION or STATUS_RETIRED.
+    *
+    * Return:
+    * int - The number of employees with the flag.
+    *
+    * Restrictions:
+    * Exactly one known flag must be given.
+    **********************************************************************/
+    public static int countEmployeesWithStatus(int intFlag) {
+        return byStatus.count(intFlag);
+    }
+
     /**********************************************************************
     * Method name:
     * setEmployees
@@ -427,8 +628,32 @@ public abstract class Employee extends Person implements Cloneable {
             throw new IllegalArgumentException("Employee list cannot be null.");
         }
         employees = new ArrayList<>();
+        byStatus.clear();
         for (Employee employee : newEmployees) {
-            employees.add(employee.clone());
+            Employee clonedEmployee = employee.clone();
+            employees.add(clonedEmployee);
+            list(clonedEmployee);
+        }
+    }
+
+    /**********************************************************************
+    * Method name:
+    * list
+    *
+    * Description:
+    * Marks an employee as the listed one for its ID and indexes it
+    * under its status.
+    *
+    * Parameters:
+    * Employee - The employee just added to the list.
+    *
+    * Return:
+    * None.
+    **********************************************************************/
+    private static void list(Employee employee) {
+        synchronized (employee) {
+            employee.blnListed = true;
+            byStatus.put(employee.EMPLOYEE_ID, employee, employee.intStatus);
         }
     }
 
@@ -458,8 +683,8 @@ public abstract class Employee extends Person implements Cloneable {
             // Deep clone mutable array fields
             clonedEmployee.strShiftInterval = (this.strShiftInterval != null) ?
                 this.strShiftInterval.clone() : null;
-            clonedEmployee.blnStatus = (this.blnStatus != null) ?
-                this.blnStatus.clone() : null;
+            // A clone is a copy, so its status changes are not indexed
+            clonedEmployee.blnListed = false;
             return clonedEmployee;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError("Cloning not supported", e);
@@ -511,8 +736,8 @@ public abstract class Employee extends Person implements Cloneable {
                "\nDepartment: " + this.strDepartment +
                "\nYears Employed: " + this.intYearsEmployed +
                "\nAnnual Salary: $" + this.dblAnnualSalary +
-               "\nFired: " + this.blnStatus[0] +
-               "\nOn Vacation: " + this.blnStatus[1] +
-               "\nRetired: " + this.blnStatus[2];
+               "\nFired: " + hasStatus(STATUS_FIRED) +
+               "\nOn Vacation: " + hasStatus(STATUS_ON_VACATION) +
+               "\nRetired: " + hasStatus(STATUS_RETIRED);
     }
 }
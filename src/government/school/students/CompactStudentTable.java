@@ -0,0 +1,1077 @@
+package government.school.students;
+
+import government.school.CourseSection;
+import government.school.Timetable;
+import government.school.util.ArrayMap;
+import government.school.util.Auth;
+import government.school.util.IntIntMap;
+import government.school.util.IntLongMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**************************************************************************
+ * File name:
+ * CompactStudentTable.java
+ *
+ * Description:
+ * This file contains the CompactStudentTable class, an optional way to
+ * hold a large student body in a fraction of the memory that Student
+ * objects take. Students are stored as rows of parallel primitive arrays
+ * (ID, kind, age, status flags, credits, volunteer hours, GPA and the
+ * running grade totals), the same columns as a StudentFile. Names, COOP
+ * placements and sports are stored once in a string dictionary and
+ * referenced by index. A row costs about 50 bytes plus its ID index
+ * entry, with no per-student objects, no SIN and no timetable object
+ * unless the student has courses.
+ *
+ * get hands out Student, SHSMStudent or HPPStudent views: flyweights
+ * that hold only the table and a row, and read and write that row. A view
+ * is built on demand and can be dropped as soon as it is used. Students
+ * in a table are not registered or journaled; save the table to keep
+ * changes, or check a student out to move it into the StudentRegistry.
+ *
+ * Changes are locked, so views of the same student can be changed from
+ * several threads. Reads are not locked; a view read while another
+ * thread changes the same student may see either value.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Struct of arrays, Flyweights, String dictionaries, Columnar storage
+ **************************************************************************/
+
+public final class CompactStudentTable {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int DEFAULT_CAPACITY = 1024; // Rows allocated by the default constructor
+    private static final byte KIND_CHECKED_OUT = -1; // Kind of a row whose student was checked out
+
+    private final IntIntMap rowsById; // Row of each student ID
+    private int intRows; // Rows in use, including checked-out ones
+    private int intSize; // Students in the table
+
+    private int[] ids; // ID column
+    private int[] sins; // SIN column, 0 for none
+    private byte[] kinds; // StudentFile kind column, or KIND_CHECKED_OUT
+    private byte[] ages; // Age column, unsigned
+    private byte[] flags; // Status flags and COOP completion column, as in StudentFile
+    private int[] credits; // Credits column
+    private int[] hours; // Volunteer hours column
+    private double[] gpas; // GPA column
+    private long[] gradeSums; // Running grade sum column, in Student grade units
+    private int[] gradeCounts; // Running grade count column
+    private int[] names; // Name column, as dictionary indexes
+    private int[] extraStarts; // First extra field of each row, or -1 for none
+    private CourseSection[][] timetables; // Timetable slots of each row, or null for none
+
+    private int[] extras; // COOP placements and sports, teams and positions, as dictionary indexes
+    private int intExtras; // Extra fields in use
+
+    private String[] strings; // Dictionary strings, by index
+    private int intStrings; // Dictionary entries in use
+    private ArrayMap<String, Integer> stringIndexes; // Index of each dictionary string, built on first use
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * CompactStudentTable
+     *
+     * Description:
+     * Creates an empty table.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public CompactStudentTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * CompactStudentTable
+     *
+     * Description:
+     * Creates an empty table with room for a number of students, so it
+     * does not grow while they are added.
+     *
+     * Parameters:
+     * intExpectedSize The number of students expected
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the size is negative.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public CompactStudentTable(int intExpectedSize) {
+        if (intExpectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        int intCapacity = Math.max(intExpectedSize, 1);
+        rowsById = new IntIntMap(intCapacity);
+        ids = new int[intCapacity];
+        sins = new int[intCapacity];
+        kinds = new byte[intCapacity];
+        ages = new byte[intCapacity];
+        flags = new byte[intCapacity];
+        credits = new int[intCapacity];
+        hours = new int[intCapacity];
+        gpas = new double[intCapacity];
+        gradeSums = new long[intCapacity];
+        gradeCounts = new int[intCapacity];
+        names = new int[intCapacity];
+        extraStarts = new int[intCapacity];
+        timetables = new CourseSection[intCapacity][];
+        extras = new int[16];
+        strings = new String[16];
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * load
+     *
+     * Description:
+     * Loads a student file, compressed or not, straight into a new table,
+     * column by column and one row group at a time, without building any
+     * Student objects. The IDs are reserved so new students never reuse
+     * one.
+     *
+     * Parameters:
+     * file The student file
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read, is not a valid
+     * student file, or holds the same ID twice.
+     *
+     * Return:
+     * The loaded table
+     *********************************************************************/
+    public static CompactStudentTable load(Path file) throws IOException {
+        ArrayMap<String, CourseSection[]> byCode = StudentFile.sectionsByCode();
+        try (StudentFile.RowGroups groups = new StudentFile.RowGroups(file)) {
+            CompactStudentTable table = new CompactStudentTable(groups.capacityHint());
+            for (ByteBuffer in = groups.next(); in != null; in = groups.next())
+                table.loadGroup(in, byCode, file);
+            groups.checkCount(table.intRows);
+
+            table.intSize = table.intRows;
+            table.rebuildGPAs(); // Student files hold no running grade totals
+            return table;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * loadGroup
+     *
+     * Description:
+     * Appends the rows of one row group of a student file, column by
+     * column. The first group's dictionary becomes the table's; the
+     * entries of later groups are added to it.
+     *
+     * Parameters:
+     * in     The row group's bytes
+     * byCode Sections by course code, from StudentFile.sectionsByCode
+     * file   The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the group is corrupt or holds an ID the
+     * table already has.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void loadGroup(ByteBuffer in, ArrayMap<String, CourseSection[]> byCode, Path file) throws IOException {
+        StudentFile.Layout layout = StudentFile.Layout.parse(in, file);
+        String[] dictionary = StudentFile.readDictionary(in, layout, file);
+        CourseSection[][] sectionsByCode = StudentFile.indexSections(dictionary, byCode);
+
+        int[] tableIndexes = null; // Table index of each group entry, or null if they match
+        if (intStrings == 0) {
+            strings = dictionary.length == 0 ? new String[16] : dictionary;
+            intStrings = dictionary.length;
+        } else {
+            tableIndexes = new int[dictionary.length];
+            for (int i = 0; i < dictionary.length; i++)
+                tableIndexes[i] = intern(dictionary[i]);
+        }
+
+        int[] cursor = new int[2]; // Next extra field and next timetable reference
+        for (int i = 0; i < layout.intCount; i++) {
+            int intID = in.getInt(layout.intIds + i * Integer.BYTES);
+            byte kind = in.get(layout.intKinds + i);
+            if (kind != StudentFile.KIND_STUDENT && kind != StudentFile.KIND_SHSM && kind != StudentFile.KIND_HPP)
+                throw new IOException("Unknown student kind " + kind + " in student file: " + file);
+            if (rowsById.containsKey(intID))
+                throw new IOException("Student ID " + intID + " appears twice in student file: " + file);
+
+            int intRow = newRow();
+            ids[intRow] = intID;
+            sins[intRow] = StudentFile.readSIN(in, layout, i, file);
+            kinds[intRow] = kind;
+            ages[intRow] = in.get(layout.intAges + i);
+            flags[intRow] = in.get(layout.intFlags + i);
+            credits[intRow] = in.getInt(layout.intCredits + i * Integer.BYTES);
+            hours[intRow] = in.getInt(layout.intHours + i * Integer.BYTES);
+            gpas[intRow] = in.getDouble(layout.intGpas + i * Double.BYTES);
+            names[intRow] = checkReference(in.getInt(layout.intNames + i * Integer.BYTES), layout, tableIndexes, file);
+            timetables[intRow] = StudentFile.decodeSlots(in, layout, in.get(layout.intSlots + i), cursor,
+                    index -> sectionsByCode[index], file);
+
+            int intExtraCount = StudentFile.extrasOf(kind);
+            if (cursor[0] + intExtraCount > layout.intExtras)
+                throw new IOException("Student file is truncated or corrupt: " + file);
+            extraStarts[intRow] = intExtraCount == 0 ? -1 : newExtras(intExtraCount);
+            for (int e = 0; e < intExtraCount; e++, cursor[0]++)
+                extras[extraStarts[intRow] + e] = checkReference(
+                        in.getInt(layout.intExtraRefs + cursor[0] * Integer.BYTES), layout, tableIndexes, file);
+
+            rowsById.put(intID, intRow);
+            Auth.reserveID(intID);
+        }
+        if (cursor[0] != layout.intExtras || cursor[1] != layout.intRefs)
+            throw new IOException("Student file is truncated or corrupt: " + file);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * save
+     *
+     * Description:
+     * Saves every student in the table to a student file, which can be
+     * loaded back into a table or into the StudentRegistry. A view is
+     * built for each student while the file is written.
+     *
+     * Parameters:
+     * file          The file to write
+     * blnCompressed Whether to compress the file
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void save(Path file, boolean blnCompressed) throws IOException {
+        ArrayList<Student> students;
+        synchronized (this) {
+            students = new ArrayList<>(intSize);
+            for (int i = 0; i < intRows; i++) {
+                if (kinds[i] != KIND_CHECKED_OUT)
+                    students.add(view(i));
+            }
+        }
+        StudentFile.write(file, students, blnCompressed);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * add
+     *
+     * Description:
+     * Copies a student into the table. The student itself is left as it
+     * is; remove it from the StudentRegistry to keep only the compact
+     * copy.
+     *
+     * Parameters:
+     * student The student to copy
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the table already holds the ID.
+     *
+     * Return:
+     * A view of the copied student
+     *********************************************************************/
+    public synchronized Student add(Student student) {
+        if (student == null)
+            throw new IllegalArgumentException("Student cannot be null");
+        int intID = student.getID();
+        if (rowsById.containsKey(intID))
+            throw new IllegalStateException("A student with ID " + intID + " is already in the table");
+
+        int intRow = newRow();
+        byte kind = StudentFile.kindOf(student);
+        ids[intRow] = intID;
+        sins[intRow] = student.sinForStorage();
+        kinds[intRow] = kind;
+        ages[intRow] = (byte) student.getAge();
+        flags[intRow] = StudentFile.flagsOf(student);
+        credits[intRow] = student.getCreditsEarned();
+        hours[intRow] = student.getVolunteerHoursCompleted();
+        gpas[intRow] = student.getGPA();
+        gradeSums[intRow] = student.getGradeSum();
+        gradeCounts[intRow] = student.getGradeCount();
+        names[intRow] = intern(student.getName());
+        Timetable timetable = student.timetableForStorage();
+        CourseSection[] slots = timetable == null ? null : timetable.getTt();
+        timetables[intRow] = slots == null ? null : slots.clone();
+
+        extraStarts[intRow] = -1;
+        if (kind == StudentFile.KIND_SHSM) {
+            extraStarts[intRow] = newExtras(1);
+            extras[extraStarts[intRow]] = intern(((SHSMStudent) student).getCOOPPlacement());
+        } else if (kind == StudentFile.KIND_HPP) {
+            HPPStudent hpp = (HPPStudent) student;
+            extraStarts[intRow] = newExtras(3);
+            extras[extraStarts[intRow]] = intern(hpp.getSport());
+            extras[extraStarts[intRow] + 1] = intern(hpp.getTeam());
+            extras[extraStarts[intRow] + 2] = intern(hpp.getPosition());
+        }
+
+        rowsById.put(intID, intRow);
+        intSize++;
+        return view(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * get
+     *
+     * Description:
+     * Returns a view of the student with the given ID.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * A new view of the student, or null if the table does not hold the ID
+     *********************************************************************/
+    public synchronized Student get(int intID) {
+        int intRow = rowsById.getOrDefault(intID, -1);
+        return intRow < 0 ? null : view(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * checkout
+     *
+     * Description:
+     * Moves a student out of the table and into the StudentRegistry as an
+     * ordinary Student object, where it is saved and journaled like any
+     * other. Views of the student that were handed out earlier keep their
+     * last values but are no longer part of the table.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The registered student, or null if the table does not hold the ID
+     *********************************************************************/
+    public synchronized Student checkout(int intID) {
+        int intRow = rowsById.getOrDefault(intID, -1);
+        if (intRow < 0)
+            return null;
+
+        Timetable timetable = getTimetable(intRow);
+        int intStatus = getStatusFlags(intRow);
+        Student student;
+        if (kinds[intRow] == StudentFile.KIND_SHSM)
+            student = new SHSMStudent(intID, sins[intRow], getAge(intRow), getName(intRow), credits[intRow], hours[intRow],
+                    gpas[intRow], timetable, intStatus, getExtra(intRow, 0), hasCompletedCOOP(intRow));
+        else if (kinds[intRow] == StudentFile.KIND_HPP)
+            student = new HPPStudent(intID, sins[intRow], getAge(intRow), getName(intRow), credits[intRow], hours[intRow],
+                    gpas[intRow], timetable, intStatus, getExtra(intRow, 0), getExtra(intRow, 1), getExtra(intRow, 2));
+        else
+            student = new Student(intID, sins[intRow], getAge(intRow), getName(intRow), credits[intRow], hours[intRow],
+                    gpas[intRow], timetable, intStatus);
+        student.restoreGrades(gradeSums[intRow], gradeCounts[intRow]);
+
+        kinds[intRow] = KIND_CHECKED_OUT;
+        rowsById.remove(intID);
+        intSize--;
+        StudentRegistry.put(student);
+        return student;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * rebuildGPAs
+     *
+     * Description:
+     * Recomputes the running grade totals of every student in the table
+     * from the grades of every course section, as Student.rebuildGPAs
+     * does for registered students. load calls this; call it again if
+     * course sections are loaded after the table.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number of students in the table with at least one grade
+     *********************************************************************/
+    public int rebuildGPAs() {
+        IntLongMap sums = new IntLongMap();
+        IntIntMap counts = new IntIntMap();
+        for (CourseSection section : CourseSection.courseSections) {
+            section.forEachGrade((intID, dblGrade) -> {
+                sums.put(intID, sums.getOrDefault(intID, 0L) + Student.toGradeUnits(dblGrade));
+                counts.put(intID, counts.getOrDefault(intID, 0) + 1);
+            });
+        }
+
+        // Grades are collected first so no section lock is held under the table's
+        int intGraded = 0;
+        synchronized (this) {
+            for (int i = 0; i < intRows; i++) {
+                if (kinds[i] == KIND_CHECKED_OUT)
+                    continue;
+                int intCount = counts.getOrDefault(ids[i], 0);
+                gradeSums[i] = sums.getOrDefault(ids[i], 0L);
+                gradeCounts[i] = intCount;
+                if (intCount > 0) {
+                    gpas[i] = Student.gpaOf(gradeSums[i], intCount);
+                    intGraded++;
+                }
+            }
+        }
+        return intGraded;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * contains
+     *
+     * Description:
+     * Checks whether the table holds a student ID.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * True if the table holds the ID
+     *********************************************************************/
+    public synchronized boolean contains(int intID) {
+        return rowsById.containsKey(intID);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * size
+     *
+     * Description:
+     * Returns the number of students in the table.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number of students
+     *********************************************************************/
+    public synchronized int size() {
+        return intSize;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * forEach
+     *
+     * Description:
+     * Passes a view of every student in the table to the given action, in
+     * the order they were added. Students added while this runs may or
+     * may not be passed.
+     *
+     * Parameters:
+     * action The action to run for each student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void forEach(Consumer<? super Student> action) {
+        if (action == null)
+            throw new IllegalArgumentException("Action cannot be null");
+        int intCount;
+        synchronized (this) {
+            intCount = intRows;
+        }
+        for (int i = 0; i < intCount; i++) {
+            Student student;
+            synchronized (this) {
+                student = kinds[i] == KIND_CHECKED_OUT ? null : view(i);
+            }
+            if (student != null)
+                action.accept(student);
+        }
+    }
+
+    /* ROW ACCESS METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * getID
+     *
+     * Description:
+     * Returns a row's student ID.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The student ID
+     *********************************************************************/
+    int getID(int intRow) {
+        return ids[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getSIN
+     *
+     * Description:
+     * Returns a row's SIN.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The SIN, or 0 if the student has none
+     *********************************************************************/
+    int getSIN(int intRow) {
+        return sins[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getAge
+     *
+     * Description:
+     * Returns a row's age.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The age
+     *********************************************************************/
+    int getAge(int intRow) {
+        return ages[intRow] & 0xFF;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getName
+     *
+     * Description:
+     * Returns a row's name.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The name
+     *********************************************************************/
+    String getName(int intRow) {
+        return string(names[intRow]);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getCredits
+     *
+     * Description:
+     * Returns a row's credits earned.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The credits earned
+     *********************************************************************/
+    int getCredits(int intRow) {
+        return credits[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getVolunteerHours
+     *
+     * Description:
+     * Returns a row's volunteer hours.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The volunteer hours completed
+     *********************************************************************/
+    int getVolunteerHours(int intRow) {
+        return hours[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getGPA
+     *
+     * Description:
+     * Returns a row's GPA.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The GPA
+     *********************************************************************/
+    double getGPA(int intRow) {
+        return gpas[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getStatusFlags
+     *
+     * Description:
+     * Returns a row's status flags.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The status flags
+     *********************************************************************/
+    int getStatusFlags(int intRow) {
+        return flags[intRow] & Student.STATUS_MASK;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * hasCompletedCOOP
+     *
+     * Description:
+     * Returns whether a row's SHSM student has completed their COOP.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * True if the COOP is completed
+     *********************************************************************/
+    boolean hasCompletedCOOP(int intRow) {
+        return (flags[intRow] & StudentFile.FLAG_COOP_COMPLETED) != 0;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getExtra
+     *
+     * Description:
+     * Returns one of a row's extra fields: the COOP placement of an SHSM
+     * student, or the sport (0), team (1) or position (2) of an HPP
+     * student.
+     *
+     * Parameters:
+     * intRow   The row
+     * intField The field number
+     *
+     * Return:
+     * The field's value, or null
+     *********************************************************************/
+    String getExtra(int intRow, int intField) {
+        return string(extras[extraStarts[intRow] + intField]);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getTimetable
+     *
+     * Description:
+     * Returns a row's timetable. The timetable shares the row's course
+     * array, so adding or dropping a course through it changes the row.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * A new timetable over the row's courses
+     *********************************************************************/
+    Timetable getTimetable(int intRow) {
+        Timetable timetable = new Timetable();
+        CourseSection[] slots = timetables[intRow];
+        if (slots != null)
+            timetable.setTimetable(slots);
+        return timetable;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getGradeSum
+     *
+     * Description:
+     * Returns a row's running grade sum.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The grade sum, in Student grade units
+     *********************************************************************/
+    long getGradeSum(int intRow) {
+        return gradeSums[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getGradeCount
+     *
+     * Description:
+     * Returns the number of grades in a row's running grade sum.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The grade count
+     *********************************************************************/
+    int getGradeCount(int intRow) {
+        return gradeCounts[intRow];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setAge
+     *
+     * Description:
+     * Sets a row's age. The caller has checked it.
+     *
+     * Parameters:
+     * intRow The row
+     * intAge The new age
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setAge(int intRow, int intAge) {
+        ages[intRow] = (byte) intAge;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setName
+     *
+     * Description:
+     * Sets a row's name. The caller has checked it.
+     *
+     * Parameters:
+     * intRow  The row
+     * strName The new name
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setName(int intRow, String strName) {
+        names[intRow] = intern(strName);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setVolunteerHours
+     *
+     * Description:
+     * Sets a row's volunteer hours. The caller has checked them.
+     *
+     * Parameters:
+     * intRow   The row
+     * intHours The new volunteer hours
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setVolunteerHours(int intRow, int intHours) {
+        hours[intRow] = intHours;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setStatusFlags
+     *
+     * Description:
+     * Sets a row's status flags, keeping its COOP completion flag. The
+     * caller has checked them.
+     *
+     * Parameters:
+     * intRow   The row
+     * intFlags The new status flags
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setStatusFlags(int intRow, int intFlags) {
+        flags[intRow] = (byte) ((flags[intRow] & ~Student.STATUS_MASK) | intFlags);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setCOOPCompleted
+     *
+     * Description:
+     * Sets whether a row's SHSM student has completed their COOP.
+     *
+     * Parameters:
+     * intRow       The row
+     * blnCompleted Whether the COOP is completed
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setCOOPCompleted(int intRow, boolean blnCompleted) {
+        if (blnCompleted)
+            flags[intRow] |= StudentFile.FLAG_COOP_COMPLETED;
+        else
+            flags[intRow] &= ~StudentFile.FLAG_COOP_COMPLETED;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setExtra
+     *
+     * Description:
+     * Sets one of a row's extra fields (see getExtra).
+     *
+     * Parameters:
+     * intRow   The row
+     * intField The field number
+     * strValue The new value, or null
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setExtra(int intRow, int intField, String strValue) {
+        extras[extraStarts[intRow] + intField] = intern(strValue);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setTimetable
+     *
+     * Description:
+     * Replaces a row's courses with a timetable's.
+     *
+     * Parameters:
+     * intRow    The row
+     * timetable The new timetable
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void setTimetable(int intRow, Timetable timetable) {
+        timetables[intRow] = timetable == null ? null : timetable.getTt();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * updateGrade
+     *
+     * Description:
+     * Folds one course grade change into a row's running grade totals
+     * and GPA, as Student.updateGrade does for ordinary students. A row
+     * whose totals are unknown is left alone until rebuildGPAs runs. The
+     * caller has checked the new grade.
+     *
+     * Parameters:
+     * intRow      The row
+     * dblOldGrade The grade being replaced, or NaN for a new course grade
+     * dblNewGrade The new grade
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void updateGrade(int intRow, double dblOldGrade, double dblNewGrade) {
+        if (gradeCounts[intRow] == Student.GRADES_UNKNOWN)
+            return;
+        if (Double.isNaN(dblOldGrade))
+            gradeCounts[intRow]++;
+        else
+            gradeSums[intRow] -= Student.toGradeUnits(dblOldGrade);
+        gradeSums[intRow] += Student.toGradeUnits(dblNewGrade);
+        gpas[intRow] = Student.gpaOf(gradeSums[intRow], gradeCounts[intRow]);
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * view
+     *
+     * Description:
+     * Builds a view of a row of the student's class.
+     *
+     * Parameters:
+     * intRow The row
+     *
+     * Return:
+     * The view
+     *********************************************************************/
+    private Student view(int intRow) {
+        if (kinds[intRow] == StudentFile.KIND_SHSM)
+            return new SHSMStudent(this, intRow);
+        if (kinds[intRow] == StudentFile.KIND_HPP)
+            return new HPPStudent(this, intRow);
+        return new Student(this, intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * newRow
+     *
+     * Description:
+     * Claims the next row, growing every column if they are full.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The new row
+     *********************************************************************/
+    private int newRow() {
+        if (intRows == ids.length) {
+            int intCapacity = ids.length + (ids.length >> 1) + 1;
+            ids = Arrays.copyOf(ids, intCapacity);
+            sins = Arrays.copyOf(sins, intCapacity);
+            kinds = Arrays.copyOf(kinds, intCapacity);
+            ages = Arrays.copyOf(ages, intCapacity);
+            flags = Arrays.copyOf(flags, intCapacity);
+            credits = Arrays.copyOf(credits, intCapacity);
+            hours = Arrays.copyOf(hours, intCapacity);
+            gpas = Arrays.copyOf(gpas, intCapacity);
+            gradeSums = Arrays.copyOf(gradeSums, intCapacity);
+            gradeCounts = Arrays.copyOf(gradeCounts, intCapacity);
+            names = Arrays.copyOf(names, intCapacity);
+            extraStarts = Arrays.copyOf(extraStarts, intCapacity);
+            timetables = Arrays.copyOf(timetables, intCapacity);
+        }
+        return intRows++;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * newExtras
+     *
+     * Description:
+     * Claims room for a row's extra fields.
+     *
+     * Parameters:
+     * intCount The number of fields
+     *
+     * Return:
+     * The index of the first field
+     *********************************************************************/
+    private int newExtras(int intCount) {
+        if (intExtras + intCount > extras.length)
+            extras = Arrays.copyOf(extras, Math.max(extras.length * 2, intExtras + intCount));
+        int intStart = intExtras;
+        intExtras += intCount;
+        return intStart;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * intern
+     *
+     * Description:
+     * Returns a string's dictionary index, adding it if it is new. The
+     * index of dictionary strings is only built the first time a string
+     * is added, so a loaded table that is only read never builds it.
+     *
+     * Parameters:
+     * str The string, or null
+     *
+     * Return:
+     * The string's index, or -1 for null
+     *********************************************************************/
+    private int intern(String str) {
+        if (str == null)
+            return -1;
+        if (stringIndexes == null) {
+            stringIndexes = new ArrayMap<>(intStrings);
+            for (int i = 0; i < intStrings; i++) {
+                if (stringIndexes.get(strings[i]) == null)
+                    stringIndexes.put(strings[i], i);
+            }
+        }
+        Integer index = stringIndexes.get(str);
+        if (index != null)
+            return index;
+        if (intStrings == strings.length)
+            strings = Arrays.copyOf(strings, strings.length * 2);
+        strings[intStrings] = str;
+        stringIndexes.put(str, intStrings);
+        return intStrings++;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * string
+     *
+     * Description:
+     * Returns the dictionary string at an index.
+     *
+     * Parameters:
+     * intIndex The index, or -1 for null
+     *
+     * Return:
+     * The string, or null
+     *********************************************************************/
+    private String string(int intIndex) {
+        return intIndex < 0 ? null : strings[intIndex];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * checkReference
+     *
+     * Description:
+     * Checks a string reference read from a row group of a student file
+     * and converts it to a table dictionary index.
+     *
+     * Parameters:
+     * intIndex     The group dictionary index, or -1 for null
+     * layout       The row group's column offsets
+     * tableIndexes Table index of each group entry, or null if they match
+     * file         The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the reference is out of range.
+     *
+     * Return:
+     * The table index, or -1 for null
+     *********************************************************************/
+    private static int checkReference(int intIndex, StudentFile.Layout layout, int[] tableIndexes, Path file)
+            throws IOException {
+        if (intIndex < -1 || intIndex >= layout.intEntries)
+            throw new IOException("Corrupt string reference in student file: " + file);
+        return intIndex < 0 || tableIndexes == null ? intIndex : tableIndexes[intIndex];
+    }
+
+} /* End of CompactStudentTable class */
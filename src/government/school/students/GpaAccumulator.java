@@ -0,0 +1,78 @@
+package government.school.students;
+
+/**************************************************************************
+ * File name:
+ * GpaAccumulator.java
+ *
+ * Description:
+ * This file contains the GpaAccumulator class, the entry point through
+ * which course sections report grade changes to the students package.
+ * Each change is folded into the student's running grade totals, so a
+ * GPA is kept current without recomputing it from every course section.
+ * Students do not expose their grade totals, so grades can only change
+ * by being recorded in a course section.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Incremental maintenance, Package-private access
+ **************************************************************************/
+
+public final class GpaAccumulator {
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * GpaAccumulator
+     *
+     * Description:
+     * The class only has static methods, so it cannot be instantiated.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private GpaAccumulator() {
+    }
+
+    /* CLASS METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * gradeRecorded
+     *
+     * Description:
+     * Folds a grade a course section is recording into the student's
+     * running grade totals and GPA. CourseSection.setGrade calls this
+     * while holding the section's record lock, just before it stores the
+     * grade.
+     *
+     * Parameters:
+     * student     The student being graded
+     * dblOldGrade The grade being replaced, or NaN for the student's first
+     *             grade in the section
+     * dblNewGrade The new grade, from 0 to 100
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the student is null or the new
+     * grade is out of range.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void gradeRecorded(Student student, double dblOldGrade, double dblNewGrade) {
+        if (student == null)
+            throw new IllegalArgumentException("Student cannot be null");
+        student.updateGrade(dblOldGrade, dblNewGrade);
+    }
+
+} /* End of GpaAccumulator class */
@@ -0,0 +1,494 @@
+package government.school.students;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**************************************************************************
+ * File name:
+ * GraduationAudit.java
+ *
+ * Description:
+ * This file contains the GraduationAudit class, which checks every
+ * registered student against the graduation requirements at once, for
+ * the year-end audit. It also defines the reason codes returned by
+ * Student.checkGraduation, which reports why a student cannot graduate
+ * without throwing an exception.
+ *
+ * The audit splits the registry into ranges that fork-join workers check
+ * in parallel. Each range counts its own results and lists its own
+ * shortfalls, and the ranges are merged as the workers finish, so no two
+ * workers share any state while they run.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Reason codes instead of exceptions, Fork-join parallelism,
+ * Parallel reduction
+ **************************************************************************/
+
+public final class GraduationAudit {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final int ELIGIBLE = 0; // Meets every requirement
+    public static final int SUSPENDED = 1; // Suspended students cannot graduate
+    public static final int ON_VACATION = 2; // Students on vacation cannot graduate
+    public static final int ALREADY_GRADUATED = 3; // Has already graduated
+    public static final int MISSING_CREDITS = 4; // Has too few credits
+    public static final int MISSING_HOURS = 5; // Has too few volunteer hours
+    public static final int MISSING_COOP = 6; // SHSM student has not completed their COOP
+    private static final int REASON_COUNT = 7;
+    private static final String[] DESCRIPTIONS = {"Eligible", "Suspended", "On vacation", "Already graduated",
+            "Not enough credits", "Not enough volunteer hours", "COOP not completed"};
+
+    private static final int LEAF_STUDENTS = 4096; // Students checked by one task without splitting
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * GraduationAudit
+     *
+     * Description:
+     * The class only has static members and is never instantiated.
+     *********************************************************************/
+    private GraduationAudit() {
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * run
+     *
+     * Description:
+     * Audits every registered student using the common fork-join pool.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The audit report
+     *********************************************************************/
+    public static Report run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * run
+     *
+     * Description:
+     * Audits every registered student on the given pool. Students
+     * registered or changed while the audit runs may or may not be
+     * counted.
+     *
+     * Parameters:
+     * pool The pool that checks the students
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The audit report
+     *********************************************************************/
+    public static Report run(ForkJoinPool pool) {
+        if (pool == null)
+            throw new IllegalArgumentException("Pool cannot be null");
+        ArrayList<Student> students = StudentRegistry.list();
+        Report report = pool.invoke(new RangeTask(students, 0, students.size()));
+        report.shortfalls.sort(Comparator.comparingInt(Shortfall::getID));
+        return report;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * describe
+     *
+     * Description:
+     * Returns a short description of a reason code.
+     *
+     * Parameters:
+     * intReason The reason code
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the code is unknown.
+     *
+     * Return:
+     * The description
+     *********************************************************************/
+    public static String describe(int intReason) {
+        if (intReason < 0 || intReason >= REASON_COUNT)
+            throw new IllegalArgumentException("Unknown graduation reason code: " + intReason);
+        return DESCRIPTIONS[intReason];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * isStatusReason
+     *
+     * Description:
+     * Returns whether a reason code comes from the student's status
+     * rather than from an unmet requirement.
+     *
+     * Parameters:
+     * intReason The reason code
+     *
+     * Return:
+     * True for SUSPENDED, ON_VACATION and ALREADY_GRADUATED
+     *********************************************************************/
+    public static boolean isStatusReason(int intReason) {
+        return intReason == SUSPENDED || intReason == ON_VACATION || intReason == ALREADY_GRADUATED;
+    }
+
+    /* *************************************************************************
+     * Public Nested Class: Shortfall
+     *
+     * Description:
+     * This class records why one student cannot graduate and how far
+     * they are from each requirement.
+     *************************************************************************/
+    public static final class Shortfall {
+        private final int intID;
+        private final int intReason;
+        private final int intCreditsShort;
+        private final int intHoursShort;
+        private final boolean blnCOOPMissing;
+
+        Shortfall(int intID, int intReason, int intCreditsShort, int intHoursShort, boolean blnCOOPMissing) {
+            this.intID = intID;
+            this.intReason = intReason;
+            this.intCreditsShort = intCreditsShort;
+            this.intHoursShort = intHoursShort;
+            this.blnCOOPMissing = blnCOOPMissing;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getID
+         *
+         * Description:
+         * Returns the student's ID.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The student ID
+         *********************************************************************/
+        public int getID() {
+            return intID;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getReason
+         *
+         * Description:
+         * Returns the first reason the student cannot graduate.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The reason code
+         *********************************************************************/
+        public int getReason() {
+            return intReason;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getCreditsShort
+         *
+         * Description:
+         * Returns how many more credits the student needs.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The missing credits, or 0 if the student has enough
+         *********************************************************************/
+        public int getCreditsShort() {
+            return intCreditsShort;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getHoursShort
+         *
+         * Description:
+         * Returns how many more volunteer hours the student needs.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The missing hours, or 0 if the student has enough
+         *********************************************************************/
+        public int getHoursShort() {
+            return intHoursShort;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * isCOOPMissing
+         *
+         * Description:
+         * Returns whether the student still needs to complete a COOP.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * True if a required COOP is not completed
+         *********************************************************************/
+        public boolean isCOOPMissing() {
+            return blnCOOPMissing;
+        }
+
+        @Override
+        public String toString() {
+            return "Student " + intID + ": " + describe(intReason) + " (credits short " + intCreditsShort
+                    + ", hours short " + intHoursShort + (blnCOOPMissing ? ", COOP missing)" : ")");
+        }
+    } /* End of Shortfall class */
+
+    /* *************************************************************************
+     * Public Nested Class: Report
+     *
+     * Description:
+     * This class holds the result of an audit: how many students fall
+     * under each reason code, how many miss each requirement, and the
+     * shortfall of every student who cannot graduate, ordered by ID.
+     *************************************************************************/
+    public static final class Report {
+        private final int[] reasonCounts = new int[REASON_COUNT];
+        private int intMissingCredits;
+        private int intMissingHours;
+        private int intMissingCOOP;
+        private final ArrayList<Shortfall> shortfalls = new ArrayList<>();
+
+        Report() {
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getStudentCount
+         *
+         * Description:
+         * Returns the number of students audited.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getStudentCount() {
+            int intTotal = 0;
+            for (int intCount : reasonCounts)
+                intTotal += intCount;
+            return intTotal;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getCount
+         *
+         * Description:
+         * Returns the number of students whose first reason is the given
+         * code, so every student is counted under exactly one code.
+         *
+         * Parameters:
+         * intReason The reason code
+         *
+         * Restrictions:
+         * Throws IllegalArgumentException if the code is unknown.
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getCount(int intReason) {
+            describe(intReason); // Checks the code
+            return reasonCounts[intReason];
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getMissingCreditsCount
+         *
+         * Description:
+         * Returns the number of students without enough credits, whatever
+         * their first reason.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getMissingCreditsCount() {
+            return intMissingCredits;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getMissingHoursCount
+         *
+         * Description:
+         * Returns the number of students without enough volunteer hours,
+         * whatever their first reason.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getMissingHoursCount() {
+            return intMissingHours;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getMissingCOOPCount
+         *
+         * Description:
+         * Returns the number of SHSM students who have not completed their
+         * COOP, whatever their first reason.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getMissingCOOPCount() {
+            return intMissingCOOP;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getShortfalls
+         *
+         * Description:
+         * Returns the shortfall of every student who cannot graduate.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * A read-only list ordered by student ID
+         *********************************************************************/
+        public List<Shortfall> getShortfalls() {
+            return Collections.unmodifiableList(shortfalls);
+        }
+
+        /**********************************************************************
+         * Method name:
+         * add
+         *
+         * Description:
+         * Checks one student and records the result.
+         *
+         * Parameters:
+         * student The student to check
+         *
+         * Return:
+         * None
+         *********************************************************************/
+        private void add(Student student) {
+            int intReason = student.checkGraduation();
+            reasonCounts[intReason]++;
+            int intCreditsShort = Math.max(0, student.getRequiredCredits() - student.getCreditsEarned());
+            int intHoursShort = Math.max(0, Student.MINIMUM_VOLUNTEER_HOURS - student.getVolunteerHoursCompleted());
+            boolean blnCOOPMissing = student.isMissingCOOP();
+            if (intCreditsShort > 0)
+                intMissingCredits++;
+            if (intHoursShort > 0)
+                intMissingHours++;
+            if (blnCOOPMissing)
+                intMissingCOOP++;
+            if (intReason != ELIGIBLE)
+                shortfalls.add(new Shortfall(student.getID(), intReason, intCreditsShort, intHoursShort, blnCOOPMissing));
+        }
+
+        /**********************************************************************
+         * Method name:
+         * merge
+         *
+         * Description:
+         * Adds another report's results to this one.
+         *
+         * Parameters:
+         * other The report to add
+         *
+         * Return:
+         * This report
+         *********************************************************************/
+        private Report merge(Report other) {
+            for (int i = 0; i < REASON_COUNT; i++)
+                reasonCounts[i] += other.reasonCounts[i];
+            intMissingCredits += other.intMissingCredits;
+            intMissingHours += other.intMissingHours;
+            intMissingCOOP += other.intMissingCOOP;
+            shortfalls.addAll(other.shortfalls);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("Audited ").append(getStudentCount()).append(" students");
+            for (int i = 0; i < REASON_COUNT; i++)
+                text.append(", ").append(DESCRIPTIONS[i].toLowerCase()).append(' ').append(reasonCounts[i]);
+            return text.toString();
+        }
+    } /* End of Report class */
+
+    /* *************************************************************************
+     * Private Nested Class: RangeTask
+     *
+     * Description:
+     * This class splits a range of students in half until it is small
+     * enough to check directly, then merges the halves' reports.
+     *************************************************************************/
+    private static final class RangeTask extends RecursiveTask<Report> {
+        private static final long serialVersionUID = 1L;
+        private final List<Student> students;
+        private final int intFrom;
+        private final int intTo;
+
+        RangeTask(List<Student> students, int intFrom, int intTo) {
+            this.students = students;
+            this.intFrom = intFrom;
+            this.intTo = intTo;
+        }
+
+        @Override
+        protected Report compute() {
+            if (intTo - intFrom <= LEAF_STUDENTS) {
+                Report report = new Report();
+                for (int i = intFrom; i < intTo; i++)
+                    report.add(students.get(i));
+                return report;
+            }
+            int intMiddle = (intFrom + intTo) >>> 1;
+            RangeTask right = new RangeTask(students, intMiddle, intTo);
+            right.fork();
+            Report left = new RangeTask(students, intFrom, intMiddle).compute();
+            return left.merge(right.join());
+        }
+    } /* End of RangeTask class */
+
+} /* End of GraduationAudit class */
@@ -70,6 +70,66 @@ public class HPPStudent extends Student {
         setPosition(strPosition);
     }
 
+    /**********************************************************************
+     * Method name:
+     * HPPStudent
+     *
+     * Description:
+     * Restore constructor used by the student file loaders. It keeps the
+     * stored ID and sport fields exactly as saved (the team and position
+     * may be unset) and does not register the student.
+     *
+     * Parameters:
+     * intID             The stored student ID
+     * intSIN            The stored SIN, or 0 for none
+     * intAge            The student's age
+     * strName           The student's name
+     * intCreditsEarned  The number of credits earned by the student
+     * intVolunteerHours The number of volunteer hours completed
+     * dblGPA            The student's grade point average
+     * timetable         The student's class timetable
+     * intStatus         The student's status flags
+     * strSport          The sport the student participates in
+     * strTeam           The team the student is a part of, or null
+     * strPosition       The position the student plays, or null
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    HPPStudent(int intID, int intSIN, int intAge, String strName, int intCreditsEarned, int intVolunteerHours,
+               double dblGPA, Timetable timetable, int intStatus,
+               String strSport, String strTeam, String strPosition) {
+        super(intID, intSIN, intAge, strName, intCreditsEarned, intVolunteerHours, dblGPA, timetable, intStatus);
+        this.strSport = strSport;
+        this.strTeam = strTeam;
+        this.strPosition = strPosition;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * HPPStudent
+     *
+     * Description:
+     * View constructor used by CompactStudentTable. The sport fields are
+     * read from and written to the student's row in the table.
+     *
+     * Parameters:
+     * table  The table holding the student
+     * intRow The student's row in the table
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    HPPStudent(CompactStudentTable table, int intRow) {
+        super(table, intRow);
+    }
+
     /**********************************************************************
      * Method name:
      * HPPStudent
@@ -116,18 +176,37 @@ public class HPPStudent extends Student {
      *********************************************************************/
     @Override
     public void graduate() {
-        if (this.getStatus()[0] || this.getStatus()[1] || this.getStatus()[2]) {
+        int intReason = checkGraduation();
+        if (GraduationAudit.isStatusReason(intReason)) {
             throw new IllegalStateException("Student is not in the right status to graduate.");
         }
 
-        if (this.getCreditsEarned() >= Student.MINIMUM_CREDITS - 10 &&
-                this.getVolunteerHoursCompleted() >= MINIMUM_VOLUNTEER_HOURS) {
-            this.setStatus(new boolean[]{false, false, true}); // Marks student as graduated
+        if (intReason == GraduationAudit.ELIGIBLE) {
+            this.setStatusFlags(STATUS_GRADUATED); // Marks student as graduated
         } else {
             throw new IllegalStateException("HPP Student does not meet graduation requirements.");
         }
     }
 
+    /**********************************************************************
+     * Method name:
+     * getRequiredCredits
+     *
+     * Description:
+     * Returns the number of credits an HPP student needs to graduate,
+     * which is 10 fewer than other students need.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The required credits
+     *********************************************************************/
+    @Override
+    public int getRequiredCredits() {
+        return Student.MINIMUM_CREDITS - 10;
+    }
+
     /* GETTER(S) */
 
     /**********************************************************************
@@ -144,7 +223,7 @@ public class HPPStudent extends Student {
      * The sport the student participates in.
      *********************************************************************/
     public String getSport() {
-        return strSport;
+        return getCompactTable() == null ? strSport : getCompactTable().getExtra(getCompactRow(), 0);
     }
 
     /**********************************************************************
@@ -161,7 +240,7 @@ public class HPPStudent extends Student {
      * The team the student is a part of.
      *********************************************************************/
     public String getTeam() {
-        return strTeam;
+        return getCompactTable() == null ? strTeam : getCompactTable().getExtra(getCompactRow(), 1);
     }
 
     /**********************************************************************
@@ -178,7 +257,7 @@ public class HPPStudent extends Student {
      * The position the student plays in their sport.
      *********************************************************************/
     public String getPosition() {
-        return strPosition;
+        return getCompactTable() == null ? strPosition : getCompactTable().getExtra(getCompactRow(), 2);
     }
 
     /* SETTER(S) */
@@ -200,10 +279,16 @@ public class HPPStudent extends Student {
      * None
      *********************************************************************/
     public void setSport(String strSport) {
+        checkWritable();
         if (strSport == null || strSport.trim().isEmpty()) {
             throw new IllegalArgumentException("Sport cannot be null or empty.");
         }
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 0, strSport);
+            return;
+        }
         this.strSport = strSport;
+        StudentJournal.recordDetails(this);
     }
 
     /**********************************************************************
@@ -223,10 +308,16 @@ public class HPPStudent extends Student {
      * None
      *********************************************************************/
     public void setTeam(String strTeam) {
+        checkWritable();
         if (strTeam == null || strTeam.trim().isEmpty()) {
             throw new IllegalArgumentException("Team cannot be null or empty.");
         }
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 1, strTeam);
+            return;
+        }
         this.strTeam = strTeam;
+        StudentJournal.recordDetails(this);
     }
 
     /**********************************************************************
@@ -246,9 +337,46 @@ public class HPPStudent extends Student {
      * None
      *********************************************************************/
     public void setPosition(String strPosition) {
+        checkWritable();
         if (strPosition == null || strPosition.trim().isEmpty()) {
             throw new IllegalArgumentException("Position cannot be null or empty.");
         }
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 2, strPosition);
+            return;
+        }
+        this.strPosition = strPosition;
+        StudentJournal.recordDetails(this);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * restoreSport
+     *
+     * Description:
+     * Sets the sport fields exactly as saved, without checks or
+     * journaling, for the storage code in this package.
+     *
+     * Parameters:
+     * strSport    The saved sport
+     * strTeam     The saved team, or null
+     * strPosition The saved position, or null
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void restoreSport(String strSport, String strTeam, String strPosition) {
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 0, strSport);
+            getCompactTable().setExtra(getCompactRow(), 1, strTeam);
+            getCompactTable().setExtra(getCompactRow(), 2, strPosition);
+            return;
+        }
+        this.strSport = strSport;
+        this.strTeam = strTeam;
         this.strPosition = strPosition;
     }
 
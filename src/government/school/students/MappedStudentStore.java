@@ -0,0 +1,524 @@
+package government.school.students;
+
+import government.school.CourseSection;
+import government.school.util.ArrayMap;
+import government.school.util.Auth;
+import government.school.util.IntIntMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**************************************************************************
+ * File name:
+ * MappedStudentStore.java
+ *
+ * Description:
+ * This file contains the MappedStudentStore class, which serves students
+ * straight out of a memory-mapped StudentFile instead of loading them all
+ * into the heap first. Opening a store only reads the ID column to build
+ * an ID to row index; a Student object is built from its row the first
+ * time it is asked for and kept in a least-recently-used cache, so only
+ * the working set lives on the heap and the operating system pages the
+ * rest of the file in and out as needed.
+ *
+ * Students handed out by get and forEach are read-only copies: their
+ * setters throw IllegalStateException, since changes could not be written
+ * back to the file. To change a student, check it out, which moves a
+ * fresh copy into the StudentRegistry where it is saved and journaled
+ * like any other student. A checked-out student is returned by get from
+ * then on; read-only copies handed out earlier stay read-only.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Memory-mapped files, Lazy loading, LRU caching, Sparse indexes
+ **************************************************************************/
+
+public final class MappedStudentStore implements Closeable {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final int DEFAULT_CACHE_SIZE = 10_000; // Students kept built by default
+    private static final int CHECKPOINT_ROWS = 64; // Rows between saved extra and timetable positions
+
+    private final Path file; // The mapped student file
+    private final StudentFile.Layout layout; // Where each column starts
+    private final IntIntMap rowsById; // Row of each student ID
+    private final int[] dictionaryStarts; // Text offset of each dictionary entry, plus the end
+    private final int[] extraCheckpoints; // First extra field of every CHECKPOINT_ROWS-th row
+    private final int[] refCheckpoints; // First timetable reference of every CHECKPOINT_ROWS-th row
+    private final ArrayMap<String, CourseSection[]> sectionsByCode; // Existing sections by course code
+    private final IntFunction<String> strings = this::string; // Dictionary lookup for row decoding
+    private final IntFunction<CourseSection[]> sections = this::sections; // Section lookup for row decoding
+    private final LinkedHashMap<Integer, Student> cache; // Built students, least recently used first
+
+    private volatile ByteBuffer in; // The mapped file, or null once closed
+    private long lngHits; // Lookups served from the cache
+    private long lngMisses; // Lookups that built a student
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * MappedStudentStore
+     *
+     * Description:
+     * Maps a student file and indexes it. Use open to create a store.
+     *
+     * Parameters:
+     * file         The student file
+     * intCacheSize Most students kept built at once
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a valid
+     * student file.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private MappedStudentStore(Path file, int intCacheSize) throws IOException {
+        this.file = file;
+        ByteBuffer mapped = StudentFile.map(file);
+        this.layout = StudentFile.Layout.parse(mapped, file);
+
+        /* Dictionary entry offsets, so a string is decoded only when used */
+        dictionaryStarts = new int[layout.intEntries + 1];
+        int intTextPos = layout.intText;
+        for (int i = 0; i < layout.intEntries; i++) {
+            dictionaryStarts[i] = intTextPos;
+            int intLength = mapped.getInt(layout.intLengths + i * Integer.BYTES);
+            if (intLength < 0 || intLength > layout.intIds - intTextPos)
+                throw new IOException("Corrupt student file dictionary: " + file);
+            intTextPos += intLength;
+        }
+        dictionaryStarts[layout.intEntries] = intTextPos;
+
+        /* ID index, and the reserved IDs so new students never reuse one */
+        rowsById = new IntIntMap(layout.intCount);
+        int[] ids = new int[layout.intCount];
+        for (int i = 0; i < layout.intCount; i++) {
+            ids[i] = mapped.getInt(layout.intIds + i * Integer.BYTES);
+            rowsById.put(ids[i], i);
+        }
+        Auth.reserveIDs(ids, ids.length);
+
+        /* Positions of the variable-length fields, every CHECKPOINT_ROWS rows */
+        int intCheckpoints = (layout.intCount + CHECKPOINT_ROWS - 1) / CHECKPOINT_ROWS;
+        extraCheckpoints = new int[intCheckpoints];
+        refCheckpoints = new int[intCheckpoints];
+        int intExtra = 0;
+        int intRef = 0;
+        for (int i = 0; i < layout.intCount; i++) {
+            if (i % CHECKPOINT_ROWS == 0) {
+                extraCheckpoints[i / CHECKPOINT_ROWS] = intExtra;
+                refCheckpoints[i / CHECKPOINT_ROWS] = intRef;
+            }
+            intExtra += StudentFile.extrasOf(mapped.get(layout.intKinds + i));
+            intRef += Math.max(0, mapped.get(layout.intSlots + i));
+        }
+        if (intExtra != layout.intExtras || intRef != layout.intRefs)
+            throw new IOException("Student file is truncated or corrupt: " + file);
+
+        sectionsByCode = StudentFile.sectionsByCode();
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Student> eldest) {
+                return size() > intCacheSize;
+            }
+        };
+        this.in = mapped;
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * open
+     *
+     * Description:
+     * Opens a store over a student file with the default cache size.
+     *
+     * Parameters:
+     * file The student file
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a valid
+     * student file.
+     *
+     * Return:
+     * The open store
+     *********************************************************************/
+    public static MappedStudentStore open(Path file) throws IOException {
+        return open(file, DEFAULT_CACHE_SIZE);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * open
+     *
+     * Description:
+     * Opens a store over a student file written by StudentFile.write or
+     * Student.saveStudentsToFile. Every ID in the file is reserved so new
+     * students never reuse one.
+     *
+     * Parameters:
+     * file         The student file
+     * intCacheSize Most students kept built at once
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a valid
+     * student file.
+     *
+     * Return:
+     * The open store
+     *********************************************************************/
+    public static MappedStudentStore open(Path file, int intCacheSize) throws IOException {
+        if (intCacheSize <= 0)
+            throw new IllegalArgumentException("Cache size must be positive");
+        return new MappedStudentStore(file, intCacheSize);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * checkout
+     *
+     * Description:
+     * Moves a writable copy of a student into the StudentRegistry so it
+     * can be changed, and saved or journaled with the other registered
+     * students. Checking out a student that is already registered returns
+     * the registered one.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the store is closed.
+     *
+     * Return:
+     * The registered student, or null if no student has the ID
+     *********************************************************************/
+    public Student checkout(int intID) {
+        int intRow = rowsById.getOrDefault(intID, -1);
+        synchronized (cache) { // So two checkouts of one student register a single copy
+            Student registered = StudentRegistry.find(intID);
+            if (registered != null || intRow < 0)
+                return registered;
+            cache.remove(intID);
+            Student student = hydrate(intRow);
+            long[] sum = new long[1];
+            int intGrades = Student.collectGrades(intID, sum); // The file holds no running grade totals
+            student.restoreGrades(sum[0], intGrades);
+            StudentRegistry.put(student);
+            return student;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * close
+     *
+     * Description:
+     * Releases the mapping and the cache. The operating system unmaps the
+     * file once the buffer is garbage collected.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    @Override
+    public void close() {
+        in = null;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /* GETTERS */
+
+    /**********************************************************************
+     * Method name:
+     * get
+     *
+     * Description:
+     * Returns a student by ID, building a read-only copy from the file on
+     * first use. A student that was checked out is returned from the
+     * registry.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the store is closed, or if the
+     * student's row is corrupt.
+     *
+     * Return:
+     * The student, or null if no student has the ID
+     *********************************************************************/
+    public Student get(int intID) {
+        Student registered = StudentRegistry.find(intID);
+        if (registered != null)
+            return registered;
+
+        int intRow = rowsById.getOrDefault(intID, -1);
+        if (intRow < 0)
+            return null;
+        synchronized (cache) {
+            Student cached = cache.get(intID);
+            if (cached != null) {
+                lngHits++;
+                return cached;
+            }
+            lngMisses++;
+        }
+
+        Student student = hydrate(intRow); // Built outside the lock so lookups run in parallel
+        student.makeReadOnly();
+        synchronized (cache) {
+            Student raced = cache.putIfAbsent(intID, student);
+            return raced != null ? raced : student;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * contains
+     *
+     * Description:
+     * Checks whether the file holds a student with the given ID, without
+     * building it.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Return:
+     * True if the file holds the ID
+     *********************************************************************/
+    public boolean contains(int intID) {
+        return rowsById.containsKey(intID);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * size
+     *
+     * Description:
+     * Returns the number of students in the file.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of students
+     *********************************************************************/
+    public int size() {
+        return layout.intCount;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * forEach
+     *
+     * Description:
+     * Passes every student in the file to an action, in file order. The
+     * students are built one at a time and not cached, so a full scan does
+     * not push the working set out of the cache. The students are
+     * read-only copies, except that checked-out students are passed as
+     * registered.
+     *
+     * Parameters:
+     * action The action to run for each student
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the store is closed.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void forEach(Consumer<? super Student> action) {
+        if (action == null)
+            throw new IllegalArgumentException("Action cannot be null");
+        ByteBuffer mapped = mapped();
+        int[] cursor = new int[2];
+        for (int i = 0; i < layout.intCount; i++) {
+            Student student;
+            try {
+                student = StudentFile.decodeRow(mapped, layout, i, cursor, strings, sections, file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt student record in " + file, e);
+            }
+            Student registered = StudentRegistry.find(student.getID());
+            if (registered == null)
+                student.makeReadOnly();
+            action.accept(registered != null ? registered : student);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getCachedCount
+     *
+     * Description:
+     * Returns how many students are currently built and cached.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of cached students
+     *********************************************************************/
+    public int getCachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getHitCount
+     *
+     * Description:
+     * Returns how many lookups were served from the cache.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of cache hits
+     *********************************************************************/
+    public long getHitCount() {
+        synchronized (cache) {
+            return lngHits;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getMissCount
+     *
+     * Description:
+     * Returns how many lookups had to build a student from the file.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of cache misses
+     *********************************************************************/
+    public long getMissCount() {
+        synchronized (cache) {
+            return lngMisses;
+        }
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * hydrate
+     *
+     * Description:
+     * Builds the student in one row. The positions of the row's extra
+     * fields and timetable references are found by walking forward from
+     * the nearest checkpoint.
+     *
+     * Parameters:
+     * intRow The row to build
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the store is closed or the row is
+     * corrupt.
+     *
+     * Return:
+     * The student, writable and not registered
+     *********************************************************************/
+    private Student hydrate(int intRow) {
+        ByteBuffer mapped = mapped();
+        int intCheckpoint = intRow / CHECKPOINT_ROWS;
+        int[] cursor = {extraCheckpoints[intCheckpoint], refCheckpoints[intCheckpoint]};
+        for (int i = intCheckpoint * CHECKPOINT_ROWS; i < intRow; i++) {
+            cursor[0] += StudentFile.extrasOf(mapped.get(layout.intKinds + i));
+            cursor[1] += Math.max(0, mapped.get(layout.intSlots + i));
+        }
+        try {
+            return StudentFile.decodeRow(mapped, layout, intRow, cursor, strings, sections, file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt student record in " + file, e);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * string
+     *
+     * Description:
+     * Decodes one dictionary entry from the mapped file.
+     *
+     * Parameters:
+     * intIndex The dictionary index
+     *
+     * Return:
+     * The string
+     *********************************************************************/
+    private String string(int intIndex) {
+        int intStart = dictionaryStarts[intIndex];
+        byte[] bytes = new byte[dictionaryStarts[intIndex + 1] - intStart];
+        mapped().get(intStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * sections
+     *
+     * Description:
+     * Returns the existing sections of the course whose code is stored at
+     * a dictionary index.
+     *
+     * Parameters:
+     * intIndex The dictionary index of the course code
+     *
+     * Return:
+     * The sections indexed by section number - 1, or null if none exist
+     *********************************************************************/
+    private CourseSection[] sections(int intIndex) {
+        return sectionsByCode.get(string(intIndex));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * mapped
+     *
+     * Description:
+     * Returns the mapped file, checking that the store is still open.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the store is closed.
+     *
+     * Return:
+     * The mapped file
+     *********************************************************************/
+    private ByteBuffer mapped() {
+        ByteBuffer mapped = in;
+        if (mapped == null)
+            throw new IllegalStateException("Student store is closed");
+        return mapped;
+    }
+
+} /* End of MappedStudentStore class */
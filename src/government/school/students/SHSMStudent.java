@@ -87,6 +87,64 @@ public class SHSMStudent extends Student {
         setHasCompletedCOOP(blnHasCOOPCompleted);
     }
 
+    /**********************************************************************
+     * Method name:
+     * SHSMStudent
+     *
+     * Description:
+     * Restore constructor used by the student file loaders. It keeps the
+     * stored ID and COOP fields exactly as saved and does not register the
+     * student.
+     *
+     * Parameters:
+     * intID             The stored student ID
+     * intSIN            The stored SIN, or 0 for none
+     * intAge            The student's age
+     * strName           The student's name
+     * intCreditsEarned  The number of credits earned by the student
+     * intVolunteerHours The number of volunteer hours completed
+     * dblGPA            The student's grade point average
+     * timetable         The student's class timetable
+     * intStatus         The student's status flags
+     * strCOOPPlacement  The student's cooperative education placement
+     * blnHasCOOPCompleted Whether the student has completed the COOP
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    SHSMStudent(int intID, int intSIN, int intAge, String strName, int intCreditsEarned, int intVolunteerHours,
+                double dblGPA, Timetable timetable, int intStatus,
+                String strCOOPPlacement, boolean blnHasCOOPCompleted) {
+        super(intID, intSIN, intAge, strName, intCreditsEarned, intVolunteerHours, dblGPA, timetable, intStatus);
+        this.strCOOPPlacement = strCOOPPlacement;
+        this.blnHasCOOPCompleted = blnHasCOOPCompleted;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * SHSMStudent
+     *
+     * Description:
+     * View constructor used by CompactStudentTable. The COOP fields are
+     * read from and written to the student's row in the table.
+     *
+     * Parameters:
+     * table  The table holding the student
+     * intRow The student's row in the table
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    SHSMStudent(CompactStudentTable table, int intRow) {
+        super(table, intRow);
+    }
+
     /* LOGIC METHOD(S) */
 
     /**********************************************************************
@@ -110,19 +168,62 @@ public class SHSMStudent extends Student {
      *********************************************************************/
     @Override
     public void graduate() {
-        if (this.getStatus()[0] || this.getStatus()[1] || this.getStatus()[2]) {
+        int intReason = checkGraduation();
+        if (GraduationAudit.isStatusReason(intReason)) {
             throw new IllegalStateException("Student is not in the right status to graduate.");
         }
 
-        if (this.getCreditsEarned() >= MINIMUM_CREDITS &&
-                this.getVolunteerHoursCompleted() >= MINIMUM_VOLUNTEER_HOURS &&
-                this.hasCompletedCOOP()) {
-            this.setStatus(new boolean[]{false, false, true}); // Marks student as graduated
+        if (intReason == GraduationAudit.ELIGIBLE) {
+            this.setStatusFlags(STATUS_GRADUATED); // Marks student as graduated
         } else {
             throw new IllegalStateException("SHSM Student does not meet graduation requirements.");
         }
     }
 
+    /**********************************************************************
+     * Method name:
+     * checkGraduation
+     *
+     * Description:
+     * Checks whether the SHSM student could graduate now, without
+     * changing anything and without throwing. On top of the usual checks,
+     * the COOP must be completed.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * GraduationAudit.ELIGIBLE, or the code of the first unmet requirement
+     *********************************************************************/
+    @Override
+    public int checkGraduation() {
+        int intReason = super.checkGraduation();
+        if (intReason == GraduationAudit.ELIGIBLE && !hasCompletedCOOP())
+            return GraduationAudit.MISSING_COOP;
+        return intReason;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * isMissingCOOP
+     *
+     * Description:
+     * Returns whether the student has yet to complete their COOP.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * True if the COOP is not completed
+     *********************************************************************/
+    @Override
+    boolean isMissingCOOP() {
+        return !hasCompletedCOOP();
+    }
+
     /**********************************************************************
      * Method name:
      * setCOOPPlacement
@@ -140,10 +241,16 @@ public class SHSMStudent extends Student {
      * None
      *********************************************************************/
     public void setCOOPPlacement(String placement) {
+        checkWritable();
         if (placement == null || placement.trim().isEmpty()) {
             throw new IllegalArgumentException("Student and placement cannot be null or empty.");
         }
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 0, placement);
+            return;
+        }
         strCOOPPlacement = placement;
+        StudentJournal.recordDetails(this);
     }
 
     /**********************************************************************
@@ -164,9 +271,43 @@ public class SHSMStudent extends Student {
      * None
      *********************************************************************/
     public void setHasCompletedCOOP(boolean hasCompleted) {
-        if (strCOOPPlacement.equals("None") && hasCompleted)
+        checkWritable();
+        if (getCOOPPlacement().equals("None") && hasCompleted)
             throw new IllegalStateException("Set COOP Placement first.");
-        
+
+        if (getCompactTable() != null) {
+            getCompactTable().setCOOPCompleted(getCompactRow(), hasCompleted);
+            return;
+        }
+        this.blnHasCOOPCompleted = hasCompleted;
+        StudentJournal.recordDetails(this);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * restoreCOOP
+     *
+     * Description:
+     * Sets the COOP fields exactly as saved, without checks or journaling,
+     * for the storage code in this package.
+     *
+     * Parameters:
+     * placement    The saved COOP placement
+     * hasCompleted The saved COOP completion flag
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void restoreCOOP(String placement, boolean hasCompleted) {
+        if (getCompactTable() != null) {
+            getCompactTable().setExtra(getCompactRow(), 0, placement);
+            getCompactTable().setCOOPCompleted(getCompactRow(), hasCompleted);
+            return;
+        }
+        this.strCOOPPlacement = placement;
         this.blnHasCOOPCompleted = hasCompleted;
     }
 
@@ -186,7 +327,8 @@ public class SHSMStudent extends Student {
      * The COOP placement for the student.
      *********************************************************************/
     public String getCOOPPlacement() {
-        return this.strCOOPPlacement;
+        CompactStudentTable table = getCompactTable();
+        return table == null ? this.strCOOPPlacement : table.getExtra(getCompactRow(), 0);
     }
 
     /**********************************************************************
@@ -203,7 +345,8 @@ public class SHSMStudent extends Student {
      * Boolean indicating if the student has completed their COOP.
      *********************************************************************/
     public boolean hasCompletedCOOP() {
-        return this.blnHasCOOPCompleted;
+        CompactStudentTable table = getCompactTable();
+        return table == null ? this.blnHasCOOPCompleted : table.hasCompletedCOOP(getCompactRow());
     }
 
 } /* End of SHSMStudent class */
@@ -5,9 +5,14 @@ import government.school.Course;
 import government.school.CourseSection;
 import government.school.Timetable;
 import government.school.util.Auth;
+import government.school.util.CredentialStore;
+import government.school.util.IntIntMap;
+import government.school.util.IntLongMap;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**************************************************************************
  * File name:
@@ -34,18 +39,30 @@ public class Student extends Person implements Serializable {
 
     /* INSTANCE AND CLASS FIELD(S) */
     private final int STUDENT_ID; // The student's unique ID
-    private String PASSWORD; // The student's password
 
     private int intCreditsEarned; // The total credits the student has earned
     private int intVolunteerHoursCompleted; // The total volunteer hours completed by the student
-    private boolean[] status; // Array indicating the student's status (suspended, on vacation, graduated)
-    private double dblGPA; // The student's grade point average
+    private int intStatus; // Status flags (STATUS_SUSPENDED, STATUS_ON_VACATION, STATUS_GRADUATED)
+    private volatile double dblGPA; // The student's grade point average
+    private long lngGradeSum; // Sum of the student's course grades, in thousandths of a percent
+    private int intGradeCount; // Number of course grades in lngGradeSum, or GRADES_UNKNOWN
     private Timetable timetable; // The student's class timetable
+    private final transient CompactStudentTable table; // Table holding this student's data, if this is a compact view
+    private final transient int intRow; // This student's row in the table
+    private transient boolean blnReadOnly; // Set on the copies a MappedStudentStore hands out
 
     private static final int MAX_COURSES = 4; // Maximum number of courses the student can take
     public static final int MINIMUM_CREDITS = 30; // Minimum credits required to graduate
     public static final int MINIMUM_VOLUNTEER_HOURS = 40; // Minimum volunteer hours required to graduate
-    private static ArrayList<Student> students = new ArrayList<>(); // List of all student records
+    private static final int GRADE_UNITS = 1000; // Grade sum units per percent
+    private static final double PERCENT_PER_GRADE_POINT = 25.0; // A 100% average is a 4.0 GPA
+    static final int GRADES_UNKNOWN = -1; // Grade count of a loaded student until rebuildGPAs runs
+
+    public static final int STATUS_SUSPENDED = 1; // Status flag: the student is suspended
+    public static final int STATUS_ON_VACATION = 1 << 1; // Status flag: the student is on vacation
+    public static final int STATUS_GRADUATED = 1 << 2; // Status flag: the student has graduated
+    static final int STATUS_BITS = 3; // Number of status flags
+    static final int STATUS_MASK = (1 << STATUS_BITS) - 1; // Every status flag
 
     /* CONSTRUCTORS */
 
@@ -56,6 +73,7 @@ public class Student extends Person implements Serializable {
      * Description:
      * Constructor for creating a Student with minimal attributes. This 
      * constructor initializes default values and generates a unique student ID.
+     * The student has no password, and cannot log in, until one is set.
      *
      * Parameters:
      * intAge   The student's age
@@ -70,15 +88,16 @@ public class Student extends Person implements Serializable {
     public Student(int intAge, String strName) {
         super(intAge, strName);
         this.STUDENT_ID = Auth.generateID();
-        setPassword(Auth.generatePassword(8));
 
         this.intCreditsEarned = 0;
         this.intVolunteerHoursCompleted = 0;
         this.dblGPA = 0.0;
         this.timetable = new Timetable();
-        this.status = new boolean[]{false, false, false}; // Default status: not graduated, not suspended, not on vacation
+        this.intStatus = 0; // Default status: not graduated, not suspended, not on vacation
+        this.table = null;
+        this.intRow = -1;
 
-        students.add(this); // Add the created student to the student list
+        StudentRegistry.register(this); // Add the created student to the student registry
     }
 
     /**********************************************************************
@@ -115,19 +134,115 @@ public class Student extends Person implements Serializable {
         this.intVolunteerHoursCompleted = intVolunteerHours;
         this.dblGPA = dblGPA;
         this.timetable = timetable;
-        this.status = status;
+        this.intStatus = packStatus(status);
+        this.table = null;
+        this.intRow = -1;
+
+        StudentRegistry.register(this); // Add the created student to the student registry
+    }
+
+    /**********************************************************************
+     * Method name:
+     * Student
+     *
+     * Description:
+     * Restore constructor used by the student file loaders. It keeps the
+     * stored ID and leaves the password hash alone, and it does not register
+     * the student; the loader reserves the ID and registers the student.
+     * Saved records hold no running grade totals, so they start unknown
+     * and grade changes leave them alone until rebuildGPAs runs.
+     * The stored SIN is kept, and indexed once the student is registered.
+     *
+     * Parameters:
+     * intID             The stored student ID
+     * intSIN            The stored SIN, or 0 for none
+     * intAge            The student's age
+     * strName           The student's name
+     * intCreditsEarned  The number of credits earned by the student
+     * intVolunteerHours The number of volunteer hours completed
+     * dblGPA            The student's grade point average
+     * timetable         The student's class timetable
+     * intStatus         The student's status flags
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    Student(int intID, int intSIN, int intAge, String strName, int intCreditsEarned, int intVolunteerHours, double dblGPA, Timetable timetable, int intStatus) {
+        super(intAge, strName, intSIN);
+        this.STUDENT_ID = intID;
 
-        students.add(this); // Add the created student to the student list
+        this.intCreditsEarned = intCreditsEarned;
+        this.intVolunteerHoursCompleted = intVolunteerHours;
+        this.dblGPA = dblGPA;
+        this.timetable = timetable;
+        this.intStatus = intStatus & STATUS_MASK;
+        this.intGradeCount = GRADES_UNKNOWN;
+        this.table = null;
+        this.intRow = -1;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * Student
+     *
+     * Description:
+     * View constructor used by CompactStudentTable. A view holds no data
+     * of its own: its getters read the student's row in the table and its
+     * setters write it. Views get no SIN, are not registered and are not
+     * journaled; the table is saved as a whole.
+     *
+     * Parameters:
+     * table  The table holding the student
+     * intRow The student's row in the table
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    Student(CompactStudentTable table, int intRow) {
+        super();
+        this.STUDENT_ID = table.getID(intRow);
+        this.table = table;
+        this.intRow = intRow;
     }
 
     /* SETTERS */
 
+    /**********************************************************************
+     * Method name:
+     * setPassword
+     *
+     * Description:
+     * Sets a new, generated 8-character password. Only a hash is kept,
+     * so the generated password is returned to be handed to the student.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The generated password
+     *********************************************************************/
+    public String setPassword() {
+        String strGenerated = Auth.generatePassword(8);
+        setPassword(strGenerated);
+        return strGenerated;
+    }
+
     /**********************************************************************
      * Method name:
      * setPassword
      *
      * Description:
      * Sets the student's password, ensuring it is not null and has at least 8 characters.
+     * Only a salted hash of the password is kept, in the shared CredentialStore.
      *
      * Parameters:
      * password The student's desired password
@@ -139,9 +254,31 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public void setPassword(String password) {
+        checkWritable();
         if (password == null || password.trim().length() < 8)
             throw new IllegalArgumentException("Password cannot be null or less than 8 characters");
-        this.PASSWORD = password;
+        CredentialStore.getDefault().setPassword(this.STUDENT_ID, password);
+        StudentJournal.recordPassword(this);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * authenticate
+     *
+     * Description:
+     * Checks a password against the student's stored password hash.
+     *
+     * Parameters:
+     * password The password presented at login
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * True if the password is correct, false otherwise
+     *********************************************************************/
+    public boolean authenticate(String password) {
+        return CredentialStore.getDefault().authenticate(this.STUDENT_ID, password);
     }
 
     /**********************************************************************
@@ -161,9 +298,15 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public void setVolunteerHours(int intVolunteerHours) {
+        checkWritable();
         if (intVolunteerHours < 0)
             throw new IllegalArgumentException("Volunteer hours cannot be negative");
+        if (table != null) {
+            table.setVolunteerHours(intRow, intVolunteerHours);
+            return;
+        }
         this.intVolunteerHoursCompleted = intVolunteerHours;
+        StudentJournal.recordVolunteerHours(this);
     }
 
     /**********************************************************************
@@ -183,7 +326,92 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public void setTimetable(Timetable timetable) {
+        checkWritable();
+        if (table != null) {
+            table.setTimetable(intRow, timetable.clone());
+            return;
+        }
         this.timetable = timetable.clone();
+        StudentJournal.recordTimetable(this);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * restoreTimetable
+     *
+     * Description:
+     * Replaces the student's timetable without copying or journaling it,
+     * for the storage code in this package.
+     *
+     * Parameters:
+     * timetable The restored timetable
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void restoreTimetable(Timetable timetable) {
+        if (table != null)
+            table.setTimetable(intRow, timetable);
+        else
+            this.timetable = timetable;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setAge
+     *
+     * Description:
+     * Sets the student's age. A registered student moves to the grade
+     * level of their new age in the GPA ranking.
+     *
+     * Parameters:
+     * age The student's new age
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the age is out of range.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    @Override
+    public void setAge(int age) {
+        checkWritable();
+        if (table != null) {
+            super.setAge(age); // Only checks the age; a view's own field is unused
+            table.setAge(intRow, age);
+            return;
+        }
+        synchronized (this) {
+            super.setAge(age);
+            StudentRegistry.rankingChanged(this);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setName
+     *
+     * Description:
+     * Sets the student's name.
+     *
+     * Parameters:
+     * name The student's new name
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the name is null or empty.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    @Override
+    public void setName(String name) {
+        checkWritable();
+        super.setName(name); // A view's own field is unused, but this checks the name
+        if (table != null)
+            table.setName(intRow, name);
     }
 
     /**********************************************************************
@@ -191,19 +419,55 @@ public class Student extends Person implements Serializable {
      * setStatus
      *
      * Description:
-     * Sets the student's status array, ensuring that the array is cloned.
+     * Sets the student's status from an array of flags (suspended, on
+     * vacation, graduated). Missing entries count as unset.
      *
      * Parameters:
      * status The student's status array
      *
      * Restrictions:
-     * None
+     * Throws IllegalArgumentException if the array is null.
      *
      * Return:
      * None
      *********************************************************************/
     public void setStatus(boolean[] status) {
-        this.status = status.clone();
+        setStatusFlags(packStatus(status));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * setStatusFlags
+     *
+     * Description:
+     * Sets the student's status flags without allocating. If the student
+     * is registered, the registry's status index is updated to match.
+     *
+     * Parameters:
+     * intFlags Any combination of STATUS_SUSPENDED, STATUS_ON_VACATION
+     *          and STATUS_GRADUATED
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if an unknown flag is set.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void setStatusFlags(int intFlags) {
+        checkWritable();
+        if ((intFlags & ~STATUS_MASK) != 0)
+            throw new IllegalArgumentException("Unknown student status flags: " + intFlags);
+        if (table != null) {
+            table.setStatusFlags(intRow, intFlags);
+            return;
+        }
+        synchronized (this) {
+            int intOld = this.intStatus;
+            this.intStatus = intFlags;
+            if (intOld != intFlags)
+                StudentRegistry.statusChanged(this, intOld, intFlags);
+        }
+        StudentJournal.recordStatus(this);
     }
 
     /* GETTERS */
@@ -222,7 +486,7 @@ public class Student extends Person implements Serializable {
      * The total count of students
      *********************************************************************/
     public static int getCount() {
-        return students.size();
+        return StudentRegistry.size();
     }
 
     /**********************************************************************
@@ -256,7 +520,7 @@ public class Student extends Person implements Serializable {
      * The total credits earned
      *********************************************************************/
     public int getCreditsEarned() {
-        return this.intCreditsEarned;
+        return table == null ? this.intCreditsEarned : table.getCredits(intRow);
     }
 
     /**********************************************************************
@@ -264,7 +528,10 @@ public class Student extends Person implements Serializable {
      * getGPA
      *
      * Description:
-     * Returns the student's grade point average (GPA).
+     * Returns the student's grade point average (GPA). Once a course
+     * section has graded the student, this is their average grade on a
+     * 4.0 scale, kept current by updateGrade; until then it is the GPA
+     * the student was created or loaded with.
      *
      * Parameters:
      * None
@@ -273,7 +540,7 @@ public class Student extends Person implements Serializable {
      * The student's GPA
      *********************************************************************/
     public double getGPA() {
-        return this.dblGPA;
+        return table == null ? this.dblGPA : table.getGPA(intRow);
     }
 
     /**********************************************************************
@@ -290,7 +557,7 @@ public class Student extends Person implements Serializable {
      * A clone of the student's timetable
      *********************************************************************/
     public Timetable getTimetable() {
-        return this.timetable.clone();
+        return timetableForStorage().clone();
     }
 
     /**********************************************************************
@@ -298,16 +565,92 @@ public class Student extends Person implements Serializable {
      * getStatus
      *
      * Description:
-     * Returns a clone of the student's status array to avoid external modifications.
+     * Returns the student's status as a new array of flags (suspended, on
+     * vacation, graduated). Use hasStatus or getStatusFlags to avoid the
+     * allocation.
      *
      * Parameters:
      * None
      *
      * Return:
-     * A clone of the student's status array
+     * A new status array
      *********************************************************************/
     public boolean[] getStatus() {
-        return this.status.clone();
+        int intFlags = getStatusFlags();
+        boolean[] status = new boolean[STATUS_BITS];
+        for (int bit = 0; bit < STATUS_BITS; bit++)
+            status[bit] = (intFlags & (1 << bit)) != 0;
+        return status;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getStatusFlags
+     *
+     * Description:
+     * Returns the student's status flags.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The combination of STATUS_SUSPENDED, STATUS_ON_VACATION and
+     * STATUS_GRADUATED flags that are set
+     *********************************************************************/
+    public int getStatusFlags() {
+        return table == null ? this.intStatus : table.getStatusFlags(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * hasStatus
+     *
+     * Description:
+     * Checks one status flag without allocating.
+     *
+     * Parameters:
+     * intFlag STATUS_SUSPENDED, STATUS_ON_VACATION or STATUS_GRADUATED
+     *
+     * Return:
+     * True if the flag is set
+     *********************************************************************/
+    public boolean hasStatus(int intFlag) {
+        return (getStatusFlags() & intFlag) != 0;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * timetableForStorage
+     *
+     * Description:
+     * Returns the student's timetable itself rather than a copy, for the
+     * storage code in this package.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The student's timetable
+     *********************************************************************/
+    Timetable timetableForStorage() {
+        return table == null ? this.timetable : table.getTimetable(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * sinForStorage
+     *
+     * Description:
+     * Returns the student's SIN, for the storage code in this package.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The student's SIN, or 0 if they have none
+     *********************************************************************/
+    int sinForStorage() {
+        return table == null ? getSIN() : table.getSIN(intRow);
     }
 
     /**********************************************************************
@@ -324,7 +667,190 @@ public class Student extends Person implements Serializable {
      * The total volunteer hours completed
      *********************************************************************/
     public int getVolunteerHoursCompleted() {
-        return this.intVolunteerHoursCompleted;
+        return table == null ? this.intVolunteerHoursCompleted : table.getVolunteerHours(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getName
+     *
+     * Description:
+     * Returns the student's name.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The student's name
+     *********************************************************************/
+    @Override
+    public String getName() {
+        return table == null ? super.getName() : table.getName(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getAge
+     *
+     * Description:
+     * Returns the student's age.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The student's age
+     *********************************************************************/
+    @Override
+    public int getAge() {
+        return table == null ? super.getAge() : table.getAge(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getGradeSum
+     *
+     * Description:
+     * Returns the student's running grade sum, for the storage code in
+     * this package.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The sum of the student's grades, in grade units
+     *********************************************************************/
+    synchronized long getGradeSum() {
+        return table == null ? this.lngGradeSum : table.getGradeSum(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getGradeCount
+     *
+     * Description:
+     * Returns the number of grades in the student's running grade sum,
+     * for the storage code in this package.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of grades
+     *********************************************************************/
+    synchronized int getGradeCount() {
+        return table == null ? this.intGradeCount : table.getGradeCount(intRow);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * makeReadOnly
+     *
+     * Description:
+     * Marks the student as a read-only copy, so its setters throw instead
+     * of changing a copy whose changes would be lost. Used by
+     * MappedStudentStore for the students it builds from its file.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void makeReadOnly() {
+        this.blnReadOnly = true;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * checkWritable
+     *
+     * Description:
+     * Checks that the student may be changed, before a setter changes it.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the student is a read-only copy.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void checkWritable() {
+        if (blnReadOnly)
+            throw new IllegalStateException("Student " + STUDENT_ID + " is a read-only copy; check it out of its store to change it");
+    }
+
+    /**********************************************************************
+     * Method name:
+     * retire
+     *
+     * Description:
+     * Gives up the student's SIN when the registry removes or replaces
+     * them, so SinRegistry.findBySIN no longer returns them.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void retire() {
+        releaseSIN();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * activate
+     *
+     * Description:
+     * Indexes the student's SIN when the registry adds them, so a student
+     * restored from storage is found by SinRegistry.findBySIN again.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void activate() {
+        claimSIN();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getCompactTable
+     *
+     * Description:
+     * Returns the table holding this student's data if this is a compact
+     * view, for the subclasses' getters and setters.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The table, or null if the student holds its own data
+     *********************************************************************/
+    CompactStudentTable getCompactTable() {
+        return this.table;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getCompactRow
+     *
+     * Description:
+     * Returns this student's row in its compact table.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The row, or -1 if the student holds its own data
+     *********************************************************************/
+    int getCompactRow() {
+        return this.intRow;
     }
 
     /* LOGIC METHODS */
@@ -348,20 +874,289 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public void graduate() {
-
-        if (this.getStatus()[0] || this.getStatus()[1] || this.getStatus()[2]) {
+        int intReason = checkGraduation();
+        if (GraduationAudit.isStatusReason(intReason)) {
             throw new IllegalStateException("Student is not in the right status to graduate.");
         }
 
-        if (this.getCreditsEarned() >= Student.MINIMUM_CREDITS &&
-                this.getVolunteerHoursCompleted() >= MINIMUM_VOLUNTEER_HOURS) {
-            this.setStatus(new boolean[]{false, true}); // Mark student as graduated
+        if (intReason == GraduationAudit.ELIGIBLE) {
+            this.setStatusFlags(STATUS_GRADUATED); // Mark student as graduated
         } else {
             throw new IllegalStateException("Student does not meet graduation requirements.");
         }
 
     }
 
+    /**********************************************************************
+     * Method name:
+     * checkGraduation
+     *
+     * Description:
+     * Checks whether the student could graduate now, without changing
+     * anything and without throwing. The status is checked first, then
+     * credits, then volunteer hours; subclasses add their own checks.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * GraduationAudit.ELIGIBLE, or the code of the first unmet requirement
+     *********************************************************************/
+    public int checkGraduation() {
+        int intFlags = getStatusFlags();
+        if ((intFlags & STATUS_SUSPENDED) != 0)
+            return GraduationAudit.SUSPENDED;
+        if ((intFlags & STATUS_ON_VACATION) != 0)
+            return GraduationAudit.ON_VACATION;
+        if ((intFlags & STATUS_GRADUATED) != 0)
+            return GraduationAudit.ALREADY_GRADUATED;
+        if (getCreditsEarned() < getRequiredCredits())
+            return GraduationAudit.MISSING_CREDITS;
+        if (getVolunteerHoursCompleted() < MINIMUM_VOLUNTEER_HOURS)
+            return GraduationAudit.MISSING_HOURS;
+        return GraduationAudit.ELIGIBLE;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getRequiredCredits
+     *
+     * Description:
+     * Returns the number of credits the student needs to graduate.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The required credits
+     *********************************************************************/
+    public int getRequiredCredits() {
+        return MINIMUM_CREDITS;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * isMissingCOOP
+     *
+     * Description:
+     * Returns whether the student still needs a COOP to graduate. Only
+     * SHSM students need one.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * True if a required COOP is not completed
+     *********************************************************************/
+    boolean isMissingCOOP() {
+        return false;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * packStatus
+     *
+     * Description:
+     * Packs a status array (suspended, on vacation, graduated) into
+     * status flags. Entries past the end of a short array count as unset.
+     *
+     * Parameters:
+     * status The status array
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the array is null.
+     *
+     * Return:
+     * The status flags
+     *********************************************************************/
+    static int packStatus(boolean[] status) {
+        if (status == null)
+            throw new IllegalArgumentException("Status cannot be null");
+        int intFlags = 0;
+        for (int bit = 0; bit < STATUS_BITS && bit < status.length; bit++) {
+            if (status[bit])
+                intFlags |= 1 << bit;
+        }
+        return intFlags;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * updateGrade
+     *
+     * Description:
+     * Folds one course grade change into the student's running grade sum
+     * and count and recomputes the GPA, so getGPA never has to look at
+     * the course sections. CourseSection records grades through
+     * GpaAccumulator, which calls this. The sum is kept in fixed point, so
+     * replacing a grade many times does not drift. A loaded student's
+     * totals are unknown until rebuildGPAs runs, so they are left alone;
+     * the rebuild counts the grade from the section.
+     *
+     * Parameters:
+     * dblOldGrade The grade being replaced, or NaN for a student's first
+     *             grade in the section
+     * dblNewGrade The new grade, from 0 to 100
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the new grade is out of range.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    void updateGrade(double dblOldGrade, double dblNewGrade) {
+        if (!(dblNewGrade >= 0 && dblNewGrade <= 100))
+            throw new IllegalArgumentException("Grade must be between 0 and 100 inclusive");
+        if (table != null) {
+            table.updateGrade(intRow, dblOldGrade, dblNewGrade);
+            return;
+        }
+        synchronized (this) {
+            if (this.intGradeCount == GRADES_UNKNOWN)
+                return;
+            if (Double.isNaN(dblOldGrade)) {
+                this.intGradeCount++;
+            } else {
+                this.lngGradeSum -= toGradeUnits(dblOldGrade);
+            }
+            this.lngGradeSum += toGradeUnits(dblNewGrade);
+            this.dblGPA = gpaOf(this.lngGradeSum, this.intGradeCount);
+            StudentRegistry.rankingChanged(this);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * collectGrades
+     *
+     * Description:
+     * Adds up one student's grades across every course section, for
+     * rebuilding a single student's running totals when it is checked
+     * out of a MappedStudentStore.
+     *
+     * Parameters:
+     * intID The student ID
+     * sum   Receives the sum of the grades, in grade units, at index 0
+     *
+     * Return:
+     * The number of grades found
+     *********************************************************************/
+    static int collectGrades(int intID, long[] sum) {
+        int intCount = 0;
+        sum[0] = 0;
+        for (CourseSection section : CourseSection.courseSections) {
+            double dblGrade = section.findGrade(intID);
+            if (!Double.isNaN(dblGrade)) {
+                sum[0] += toGradeUnits(dblGrade);
+                intCount++;
+            }
+        }
+        return intCount;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * restoreGrades
+     *
+     * Description:
+     * Replaces the student's running grade sum and count, for the GPA
+     * rebuild and the storage code in this package. With no grades, or
+     * GRADES_UNKNOWN, the GPA the student was created or loaded with is
+     * kept.
+     *
+     * Parameters:
+     * lngGradeSum   The sum of the student's grades, in grade units
+     * intGradeCount The number of grades in the sum
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    synchronized void restoreGrades(long lngGradeSum, int intGradeCount) {
+        this.lngGradeSum = lngGradeSum;
+        this.intGradeCount = intGradeCount;
+        if (intGradeCount > 0) {
+            this.dblGPA = gpaOf(lngGradeSum, intGradeCount);
+            StudentRegistry.rankingChanged(this);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * rebuildGPAs
+     *
+     * Description:
+     * Recomputes the running grade totals of every registered student in
+     * a single pass over the grades of every course section. Call this
+     * after a bulk load replaces students, since loaded students start
+     * without running totals; individual grade changes after that are
+     * kept current by updateGrade.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of registered students with at least one grade
+     *********************************************************************/
+    public static int rebuildGPAs() {
+        IntLongMap sums = new IntLongMap();
+        IntIntMap counts = new IntIntMap();
+        for (CourseSection section : CourseSection.courseSections) {
+            section.forEachGrade((intID, dblGrade) -> {
+                sums.put(intID, sums.getOrDefault(intID, 0L) + toGradeUnits(dblGrade));
+                counts.put(intID, counts.getOrDefault(intID, 0) + 1);
+            });
+        }
+
+        // Work from a copy so no registry lock is held while students are locked
+        int intGraded = 0;
+        for (Student student : StudentRegistry.list()) {
+            int intCount = counts.getOrDefault(student.getID(), 0);
+            student.restoreGrades(sums.getOrDefault(student.getID(), 0L), intCount);
+            if (intCount > 0)
+                intGraded++;
+        }
+        return intGraded;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * toGradeUnits
+     *
+     * Description:
+     * Converts a percentage grade to the fixed-point units of the running
+     * grade sum.
+     *
+     * Parameters:
+     * dblGrade The grade, from 0 to 100
+     *
+     * Return:
+     * The grade in thousandths of a percent
+     *********************************************************************/
+    static long toGradeUnits(double dblGrade) {
+        return Math.round(dblGrade * GRADE_UNITS);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * gpaOf
+     *
+     * Description:
+     * Converts a running grade sum and count to a GPA on a 4.0 scale.
+     *
+     * Parameters:
+     * lngGradeSum   The sum of the grades, in grade units
+     * intGradeCount The number of grades, at least 1
+     *
+     * Return:
+     * The GPA
+     *********************************************************************/
+    static double gpaOf(long lngGradeSum, int intGradeCount) {
+        return (double) lngGradeSum / GRADE_UNITS / intGradeCount / PERCENT_PER_GRADE_POINT;
+    }
+
     /* STORAGE METHODS */
 
     /**********************************************************************
@@ -369,7 +1164,8 @@ public class Student extends Person implements Serializable {
      * saveStudentsToFile
      *
      * Description:
-     * Saves the list of student records to a file.
+     * Saves every registered student to a file in the binary StudentFile
+     * format.
      *
      * Parameters:
      * filename The name of the file where student data will be saved
@@ -381,8 +1177,31 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public static void saveStudentsToFile(String filename) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(students);
+        saveStudentsToFile(filename, false);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * saveStudentsToFile
+     *
+     * Description:
+     * Saves every registered student to a file in the binary StudentFile
+     * format, optionally compressed. Compressed files are smaller and
+     * checksummed, but cannot be opened with MappedStudentStore.
+     *
+     * Parameters:
+     * filename      The name of the file where student data will be saved
+     * blnCompressed Whether to compress the file
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void saveStudentsToFile(String filename, boolean blnCompressed) {
+        try {
+            StudentFile.write(Paths.get(filename), StudentRegistry.list(), blnCompressed);
             System.out.println("Student records have been saved.");
         } catch (IOException e) {
             System.out.println("Error saving student records");
@@ -394,7 +1213,10 @@ public class Student extends Person implements Serializable {
      * loadStudentsFromFile
      *
      * Description:
-     * Loads student records from a file and adds them to the student list.
+     * Loads student records from a file, compressed or not, and adds them
+     * to the student registry. A record whose ID is already registered
+     * replaces the existing one. GPAs are then rebuilt from the grades
+     * held by the course sections.
      *
      * Parameters:
      * filename The name of the file to load student data from
@@ -406,18 +1228,21 @@ public class Student extends Person implements Serializable {
      * None
      *********************************************************************/
     public static void loadStudentsFromFile(String filename) {
-        File file = new File(filename);
-        if (!file.exists()) {
+        Path file = Paths.get(filename);
+        if (!Files.exists(file)) {
             System.out.println("No student records found.");
             return;
         }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            ArrayList<Student> loadedStudents = (ArrayList<Student>) ois.readObject();
-            students.addAll(loadedStudents);
+        try {
+            for (Student student : StudentFile.read(file)) {
+                Auth.reserveID(student.getID()); // Keep new IDs from colliding with loaded ones
+                StudentRegistry.put(student); // Replaces any record already loaded with this ID
+            }
+            rebuildGPAs(); // Loaded students start without running grade totals
             System.out.println("Student records have been loaded.");
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading student records");
+        } catch (IOException e) {
+            System.out.println("Error loading student records: " + e.getMessage());
         }
     }
 
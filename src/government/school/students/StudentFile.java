@@ -0,0 +1,1313 @@
+package government.school.students;
+
+import government.SinRegistry;
+import government.school.CourseSection;
+import government.school.Timetable;
+import government.school.util.ArrayMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**************************************************************************
+ * File name:
+ * StudentFile.java
+ *
+ * Description:
+ * This file contains the StudentFile class, which saves and loads student
+ * records in a compact, versioned binary format. Each field is stored as
+ * its own column (all IDs, then all credits, and so on), so a column is
+ * written and read in one tight loop. Names, COOP placements, sports and
+ * course codes are stored once in a string dictionary and referenced by
+ * index. Timetables are stored as course code and section number pairs
+ * and are linked back to the loaded course sections when the file is read.
+ *
+ * File layout (big-endian):
+ *   Header      magic, version, student count, dictionary entry count,
+ *               dictionary byte count, extra field count, timetable
+ *               reference count (7 ints)
+ *   Dictionary  UTF-8 length of each entry (int), then all the bytes
+ *   Columns     ID (int), SIN (int, 0 for none), kind (byte), age (byte),
+ *               flags (byte), credits (int), volunteer hours (int),
+ *               GPA (double), name (int), timetable length (byte)
+ *   Extras      COOP placement for SHSM students; sport, team and
+ *               position for HPP students (int, in row order)
+ *   Timetable   course code (int) and section number (byte) of every
+ *               timetable slot, in row order
+ *
+ * String references are dictionary indexes, or -1 for null. A timetable
+ * length of -1 means the timetable has no course array yet.
+ *
+ * Files can optionally be saved compressed. The rows are then cut into
+ * row groups of about 256 KB, each saved as a complete layout of its own
+ * (header, dictionary and columns, as above, for just its rows) and
+ * compressed on its own with Deflater as one block:
+ *   Header      magic, version, block count, student count (4 ints)
+ *   Blocks      uncompressed length, stored length and CRC32C of the
+ *               stored bytes (3 ints), then the stored bytes
+ * Blocks are checked, inflated and decoded one at a time as they are
+ * read, so only one row group is held uncompressed at once, and a
+ * damaged block is reported by number and file offset. Compressed files
+ * are read with read or loaded into a CompactStudentTable, but cannot be
+ * memory-mapped. An uncompressed file is a single row group.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Columnar storage, String dictionaries, NIO channels, Memory-mapped files,
+ * Atomic file replacement, Block compression, Row groups, Checksums
+ **************************************************************************/
+
+public final class StudentFile {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int FILE_MAGIC = 0x4A535446; // "JSTF"
+    private static final int FILE_VERSION = 2; // Current layout version
+    private static final int HEADER_BYTES = 7 * Integer.BYTES; // Size of the header
+    private static final int BUFFER_BYTES = 1 << 16; // Write buffer size
+
+    private static final int COMPRESSED_MAGIC = 0x4A53545A; // "JSTZ"
+    private static final int COMPRESSED_VERSION = 2; // Current compressed container version
+    private static final int COMPRESSED_HEADER_BYTES = 4 * Integer.BYTES; // Size of the container header
+    private static final int BLOCK_HEADER_BYTES = 3 * Integer.BYTES; // Size of each block header
+    private static final int BLOCK_BYTES = 1 << 18; // Uncompressed bytes a row group is cut at
+    private static final int MAX_BLOCK_BYTES = 1 << 24; // Largest block size a reader accepts
+    private static final int ROW_BYTES = 5 * Integer.BYTES + 4 * Byte.BYTES + Double.BYTES; // Column bytes per row
+
+    static final byte KIND_STUDENT = 0; // Row holds a plain Student
+    static final byte KIND_SHSM = 1; // Row holds an SHSMStudent
+    static final byte KIND_HPP = 2; // Row holds an HPPStudent
+
+    static final int FLAG_COOP_COMPLETED = 1 << 3; // SHSM COOP completion flag
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentFile
+     *
+     * Description:
+     * The file format only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentFile() {
+    }
+
+    /* STORAGE METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * write
+     *
+     * Description:
+     * Saves the given students to an uncompressed file, which can be
+     * memory-mapped. See the other write method.
+     *
+     * Parameters:
+     * file     The file to write
+     * students The students to save
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void write(Path file, Collection<? extends Student> students) throws IOException {
+        write(file, students, false);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * write
+     *
+     * Description:
+     * Saves the given students to a file, optionally in compressed,
+     * checksummed blocks. The data is written to a temporary file first
+     * and then moved into place, so a failed save never leaves a
+     * half-written file behind.
+     *
+     * Parameters:
+     * file          The file to write
+     * students      The students to save
+     * blnCompressed Whether to compress the file
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written. Only the first
+     * three status flags of each student are saved.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void write(Path file, Collection<? extends Student> students, boolean blnCompressed) throws IOException {
+        if (file == null || students == null)
+            throw new IllegalArgumentException("File and students cannot be null");
+
+        /* Snapshot every row once, reading each student's fields a single time, so
+           students changed by other threads while the file is written still produce
+           a file whose header and columns agree */
+        Rows rows = new Rows(students.toArray(new Student[0]));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ColumnWriter out = new ColumnWriter(channel, blnCompressed ? new Deflater() : null);
+            RowGroup group = new RowGroup(rows);
+            do {
+                group.fill(blnCompressed);
+                group.writeTo(out);
+                out.endBlock(group.intTo - group.intFrom);
+            } while (group.intTo < rows.intCount);
+            out.finish();
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * read
+     *
+     * Description:
+     * Loads every student from a file written by write, compressed or
+     * not. The students are not registered and their IDs are not
+     * reserved; the caller decides what to do with them. Timetable slots
+     * are linked to the course section with the same course code and
+     * section number, or left empty if no such section exists. A
+     * compressed file is read one row group at a time.
+     *
+     * Parameters:
+     * file The file to read
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read, is not a student
+     * file, has an unsupported version, is truncated, or has a damaged
+     * block.
+     *
+     * Return:
+     * The loaded students, in the order they were saved
+     *********************************************************************/
+    public static ArrayList<Student> read(Path file) throws IOException {
+        ArrayMap<String, CourseSection[]> byCode = sectionsByCode();
+        try (RowGroups groups = new RowGroups(file)) {
+            ArrayList<Student> students = new ArrayList<>(groups.capacityHint());
+            for (ByteBuffer in = groups.next(); in != null; in = groups.next()) {
+                Layout layout = Layout.parse(in, file);
+                String[] strings = readDictionary(in, layout, file);
+
+                CourseSection[][] sectionsByIndex = indexSections(strings, byCode);
+                IntFunction<String> dictionary = index -> strings[index];
+                IntFunction<CourseSection[]> sections = index -> sectionsByIndex[index];
+
+                int[] cursor = new int[2]; // Next extra field and next timetable reference
+                for (int i = 0; i < layout.intCount; i++)
+                    students.add(decodeRow(in, layout, i, cursor, dictionary, sections, file));
+            }
+            groups.checkCount(students.size());
+            return students;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * readDictionary
+     *
+     * Description:
+     * Decodes every entry of a student file's string dictionary.
+     *
+     * Parameters:
+     * in     The row group's bytes
+     * layout The row group's column offsets
+     * file   The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the dictionary is corrupt.
+     *
+     * Return:
+     * The dictionary strings, by index
+     *********************************************************************/
+    static String[] readDictionary(ByteBuffer in, Layout layout, Path file) throws IOException {
+        String[] strings = new String[layout.intEntries];
+        byte[] text = new byte[layout.intDictionaryBytes];
+        in.get(layout.intText, text);
+        int intTextPos = 0;
+        for (int i = 0; i < layout.intEntries; i++) {
+            int intLength = in.getInt(layout.intLengths + i * Integer.BYTES);
+            if (intLength < 0 || intLength > layout.intDictionaryBytes - intTextPos)
+                throw new IOException("Corrupt student file dictionary: " + file);
+            strings[i] = new String(text, intTextPos, intLength, StandardCharsets.UTF_8);
+            intTextPos += intLength;
+        }
+        return strings;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * map
+     *
+     * Description:
+     * Maps a student file into memory, read-only.
+     *
+     * Parameters:
+     * file The file to map
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is too large to
+     * map in one piece.
+     *
+     * Return:
+     * The mapped file
+     *********************************************************************/
+    static MappedByteBuffer map(Path file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long lngSize = channel.size();
+            if (lngSize > Integer.MAX_VALUE)
+                throw new IOException("Student file is too large: " + file);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, lngSize);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * isCompressed
+     *
+     * Description:
+     * Checks whether a file was saved compressed.
+     *
+     * Parameters:
+     * file The file to check
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read.
+     *
+     * Return:
+     * True if the file starts with the compressed container header
+     *********************************************************************/
+    public static boolean isCompressed(Path file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            return readFully(channel, magic) && magic.getInt(0) == COMPRESSED_MAGIC;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * verify
+     *
+     * Description:
+     * Checks every block of a compressed file, and the row group layout
+     * inside it, without decoding any students, and reports which blocks
+     * are damaged. A block whose header is damaged hides where the
+     * following blocks start, so it and every block after it are
+     * reported.
+     *
+     * Parameters:
+     * file The compressed file to check
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a
+     * compressed student file.
+     *
+     * Return:
+     * The numbers of the damaged blocks, in order; empty if none
+     *********************************************************************/
+    public static int[] verify(Path file) throws IOException {
+        try (BlockReader blocks = new BlockReader(file)) {
+            int[] damaged = new int[16];
+            int intDamaged = 0;
+            int intLost = blocks.intBlockCount; // First block whose start is unknown
+            for (int b = 0; b < intLost; b++) {
+                try {
+                    Layout.parse(blocks.next(), file);
+                } catch (IOException e) {
+                    if (!blocks.blnInSync) {
+                        intLost = b;
+                    } else {
+                        if (intDamaged == damaged.length)
+                            damaged = Arrays.copyOf(damaged, damaged.length * 2);
+                        damaged[intDamaged++] = b;
+                    }
+                }
+            }
+            damaged = Arrays.copyOf(damaged, intDamaged + blocks.intBlockCount - intLost);
+            for (int b = intLost; b < blocks.intBlockCount; b++)
+                damaged[intDamaged++] = b;
+            return damaged;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * readFully
+     *
+     * Description:
+     * Fills a buffer from a channel.
+     *
+     * Parameters:
+     * channel The channel to read
+     * buffer  The buffer to fill
+     *
+     * Restrictions:
+     * Throws IOException if the channel cannot be read.
+     *
+     * Return:
+     * True if the buffer was filled, false if the channel ended first
+     *********************************************************************/
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * decodeRow
+     *
+     * Description:
+     * Builds the student stored in one row. Extra fields and timetable
+     * references are stored in row order without per-row offsets, so the
+     * caller passes where this row's values start and gets back where the
+     * next row's start.
+     *
+     * Parameters:
+     * in       The row group's bytes
+     * layout   The row group's column offsets
+     * intRow   The row to decode
+     * cursor   Index of this row's first extra field and first timetable
+     *          reference; advanced past them on return
+     * strings  Dictionary string for each index
+     * sections Existing course sections for each course code index,
+     *          indexed by section number - 1 (entries may be null)
+     * file     The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the row is corrupt.
+     *
+     * Return:
+     * The student, not registered
+     *********************************************************************/
+    static Student decodeRow(ByteBuffer in, Layout layout, int intRow, int[] cursor,
+                             IntFunction<String> strings, IntFunction<CourseSection[]> sections,
+                             Path file) throws IOException {
+        int intID = in.getInt(layout.intIds + intRow * Integer.BYTES);
+        int intSIN = readSIN(in, layout, intRow, file);
+        byte kind = in.get(layout.intKinds + intRow);
+        int intAge = in.get(layout.intAges + intRow) & 0xFF;
+        int intFlags = in.get(layout.intFlags + intRow);
+        int intCredits = in.getInt(layout.intCredits + intRow * Integer.BYTES);
+        int intHours = in.getInt(layout.intHours + intRow * Integer.BYTES);
+        double dblGPA = in.getDouble(layout.intGpas + intRow * Double.BYTES);
+        String strName = lookup(strings, in.getInt(layout.intNames + intRow * Integer.BYTES), layout, file);
+        int intSlots = in.get(layout.intSlots + intRow);
+
+        Timetable timetable = new Timetable();
+        CourseSection[] slots = decodeSlots(in, layout, intSlots, cursor, sections, file);
+        if (slots != null)
+            timetable.setTimetable(slots);
+
+        int intExtra = cursor[0];
+        if (intExtra + extrasOf(kind) > layout.intExtras)
+            throw new IOException("Student file is truncated or corrupt: " + file);
+        cursor[0] = intExtra + extrasOf(kind);
+        if (kind == KIND_SHSM) {
+            String strPlacement = lookup(strings, in.getInt(layout.intExtraRefs + intExtra * Integer.BYTES), layout, file);
+            return new SHSMStudent(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA, timetable, intFlags & Student.STATUS_MASK,
+                    strPlacement, (intFlags & FLAG_COOP_COMPLETED) != 0);
+        }
+        if (kind == KIND_HPP) {
+            String strSport = lookup(strings, in.getInt(layout.intExtraRefs + intExtra * Integer.BYTES), layout, file);
+            String strTeam = lookup(strings, in.getInt(layout.intExtraRefs + (intExtra + 1) * Integer.BYTES), layout, file);
+            String strPosition = lookup(strings, in.getInt(layout.intExtraRefs + (intExtra + 2) * Integer.BYTES), layout, file);
+            return new HPPStudent(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA, timetable, intFlags & Student.STATUS_MASK,
+                    strSport, strTeam, strPosition);
+        }
+        if (kind == KIND_STUDENT)
+            return new Student(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA, timetable, intFlags & Student.STATUS_MASK);
+        throw new IOException("Unknown student kind " + kind + " in student file: " + file);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * readSIN
+     *
+     * Description:
+     * Reads and checks one row's SIN.
+     *
+     * Parameters:
+     * in     The row group's bytes
+     * layout The row group's column offsets
+     * intRow The row to read
+     * file   The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the SIN is neither 0 nor a valid SIN.
+     *
+     * Return:
+     * The SIN, or 0 if the student has none
+     *********************************************************************/
+    static int readSIN(ByteBuffer in, Layout layout, int intRow, Path file) throws IOException {
+        int intSIN = in.getInt(layout.intSins + intRow * Integer.BYTES);
+        if (intSIN != 0 && !SinRegistry.isValidSIN(intSIN))
+            throw new IOException("Corrupt SIN in student file: " + file);
+        return intSIN;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * decodeSlots
+     *
+     * Description:
+     * Decodes one row's timetable references and links them back to the
+     * loaded course sections. A slot whose section no longer exists is
+     * left empty.
+     *
+     * Parameters:
+     * in       The row group's bytes
+     * layout   The row group's column offsets
+     * intSlots The row's timetable length, or -1 for no course array
+     * cursor   Index of this row's first extra field and first timetable
+     *          reference; the reference index is advanced on return
+     * sections Existing course sections for each course code index,
+     *          indexed by section number - 1 (entries may be null)
+     * file     The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the references are corrupt.
+     *
+     * Return:
+     * The timetable slots, or null if the row has no course array
+     *********************************************************************/
+    static CourseSection[] decodeSlots(ByteBuffer in, Layout layout, int intSlots, int[] cursor,
+                                       IntFunction<CourseSection[]> sections, Path file) throws IOException {
+        if (intSlots < 0)
+            return null;
+        int intRef = cursor[1];
+        if (intRef + intSlots > layout.intRefs)
+            throw new IOException("Student file is truncated or corrupt: " + file);
+        CourseSection[] slots = new CourseSection[intSlots];
+        for (int s = 0; s < intSlots; s++, intRef++) {
+            int intCode = in.getInt(layout.intRefCodes + intRef * Integer.BYTES);
+            int intSection = in.get(layout.intRefSections + intRef);
+            if (intCode < 0)
+                continue;
+            if (intCode >= layout.intEntries)
+                throw new IOException("Corrupt string reference in student file: " + file);
+            CourseSection[] byNumber = sections.apply(intCode);
+            if (byNumber != null && intSection >= 1 && intSection <= byNumber.length)
+                slots[s] = byNumber[intSection - 1];
+        }
+        cursor[1] = intRef;
+        return slots;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * extrasOf
+     *
+     * Description:
+     * Returns how many extra string fields a row of the given kind has.
+     *
+     * Parameters:
+     * kind The row's kind code
+     *
+     * Return:
+     * 1 for SHSM students, 3 for HPP students, otherwise 0
+     *********************************************************************/
+    static int extrasOf(byte kind) {
+        if (kind == KIND_SHSM)
+            return 1;
+        if (kind == KIND_HPP)
+            return 3;
+        return 0;
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * intern
+     *
+     * Description:
+     * Adds a string to the dictionary if it is not there yet. Null is
+     * never added; it is stored as index -1.
+     *
+     * Parameters:
+     * str        The string to add
+     * dictionary Index of each string already added
+     * entries    The strings in index order
+     *
+     * Return:
+     * The string's dictionary index, or -1 for null
+     *********************************************************************/
+    private static int intern(String str, ArrayMap<String, Integer> dictionary, ArrayList<String> entries) {
+        if (str == null)
+            return -1;
+        Integer index = dictionary.get(str);
+        if (index != null)
+            return index;
+        dictionary.put(str, entries.size());
+        entries.add(str);
+        return entries.size() - 1;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * lookup
+     *
+     * Description:
+     * Returns the dictionary string for an index, or null for -1.
+     *
+     * Parameters:
+     * strings  Dictionary string for each index
+     * intIndex The index to look up
+     * layout   The file's layout
+     * file     The file being read, for error messages
+     *
+     * Restrictions:
+     * Throws IOException if the index is out of range.
+     *
+     * Return:
+     * The string, or null
+     *********************************************************************/
+    private static String lookup(IntFunction<String> strings, int intIndex, Layout layout, Path file) throws IOException {
+        if (intIndex == -1)
+            return null;
+        if (intIndex < 0 || intIndex >= layout.intEntries)
+            throw new IOException("Corrupt string reference in student file: " + file);
+        return strings.apply(intIndex);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * indexSections
+     *
+     * Description:
+     * Looks up the existing course sections for each entry of a
+     * dictionary, so each timetable slot is resolved with two array
+     * lookups.
+     *
+     * Parameters:
+     * strings The decoded dictionary
+     * byCode  Sections by course code, from sectionsByCode
+     *
+     * Return:
+     * Sections indexed by course code index and then section number - 1
+     *********************************************************************/
+    static CourseSection[][] indexSections(String[] strings, ArrayMap<String, CourseSection[]> byCode) {
+        CourseSection[][] sectionsByIndex = new CourseSection[strings.length][];
+        for (int i = 0; i < strings.length; i++)
+            sectionsByIndex[i] = byCode.get(strings[i]);
+        return sectionsByIndex;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * sectionsByCode
+     *
+     * Description:
+     * Groups the existing course sections by course code and section
+     * number, for linking stored timetable slots back to them.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * Sections by course code, indexed by section number - 1
+     *********************************************************************/
+    static ArrayMap<String, CourseSection[]> sectionsByCode() {
+        ArrayMap<String, CourseSection[]> sections = new ArrayMap<>();
+        for (CourseSection section : CourseSection.courseSections) {
+            CourseSection[] byNumber = sections.get(section.getCourseCode());
+            if (byNumber == null) {
+                byNumber = new CourseSection[Byte.MAX_VALUE];
+                sections.put(section.getCourseCode(), byNumber);
+            }
+            int intSection = section.getSectionNumber();
+            if (intSection >= 1 && intSection <= Byte.MAX_VALUE)
+                byNumber[intSection - 1] = section;
+        }
+        return sections;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * kindOf
+     *
+     * Description:
+     * Returns the kind code saved for a student's class.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Return:
+     * KIND_SHSM, KIND_HPP or KIND_STUDENT
+     *********************************************************************/
+    static byte kindOf(Student student) {
+        if (student instanceof SHSMStudent)
+            return KIND_SHSM;
+        if (student instanceof HPPStudent)
+            return KIND_HPP;
+        return KIND_STUDENT;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * flagsOf
+     *
+     * Description:
+     * Packs a student's status flags and COOP completion into one byte.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Return:
+     * The packed flags
+     *********************************************************************/
+    static byte flagsOf(Student student) {
+        int intFlags = student.getStatusFlags();
+        if (student instanceof SHSMStudent && ((SHSMStudent) student).hasCompletedCOOP())
+            intFlags |= FLAG_COOP_COMPLETED;
+        return (byte) intFlags;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * sectionsOf
+     *
+     * Description:
+     * Returns the course array of a student's timetable without copying
+     * it.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Return:
+     * The timetable slots, or null if there are none
+     *********************************************************************/
+    private static CourseSection[] sectionsOf(Student student) {
+        Timetable timetable = student.timetableForStorage();
+        return timetable == null ? null : timetable.getTt();
+    }
+
+    /* *************************************************************************
+     * Nested Class: Layout
+     *
+     * Description:
+     * This class reads a row group's header, checks it, and works out
+     * where each section and column starts.
+     *************************************************************************/
+    static final class Layout {
+        final int intCount; // Number of students
+        final int intEntries; // Number of dictionary entries
+        final int intDictionaryBytes; // Size of the dictionary text
+        final int intExtras; // Number of extra string fields
+        final int intRefs; // Number of timetable references
+
+        final int intLengths; // Dictionary entry lengths
+        final int intText; // Dictionary text
+        final int intIds; // ID column
+        final int intSins; // SIN column
+        final int intKinds; // Kind column
+        final int intAges; // Age column
+        final int intFlags; // Flags column
+        final int intCredits; // Credits column
+        final int intHours; // Volunteer hours column
+        final int intGpas; // GPA column
+        final int intNames; // Name column
+        final int intSlots; // Timetable length column
+        final int intExtraRefs; // Extra string fields
+        final int intRefCodes; // Timetable course codes
+        final int intRefSections; // Timetable section numbers
+
+        private Layout(ByteBuffer in, Path file) throws IOException {
+            if (in.capacity() >= Integer.BYTES && in.getInt(0) == COMPRESSED_MAGIC)
+                throw new IOException("Compressed student files cannot be memory-mapped: " + file);
+            if (in.capacity() < HEADER_BYTES || in.getInt(0) != FILE_MAGIC)
+                throw new IOException("Not a student file: " + file);
+            int intVersion = in.getInt(4);
+            if (intVersion != FILE_VERSION)
+                throw new IOException("Unsupported student file version " + intVersion + ": " + file);
+            intCount = in.getInt(8);
+            intEntries = in.getInt(12);
+            intDictionaryBytes = in.getInt(16);
+            intExtras = in.getInt(20);
+            intRefs = in.getInt(24);
+            if (intCount < 0 || intEntries < 0 || intDictionaryBytes < 0 || intExtras < 0 || intRefs < 0)
+                throw new IOException("Corrupt student file header: " + file);
+
+            /* Computed in long so a corrupt header cannot overflow */
+            long lngLengths = HEADER_BYTES;
+            long lngText = lngLengths + (long) intEntries * Integer.BYTES;
+            long lngIds = lngText + intDictionaryBytes;
+            long lngSins = lngIds + (long) intCount * Integer.BYTES;
+            long lngKinds = lngSins + (long) intCount * Integer.BYTES;
+            long lngAges = lngKinds + intCount;
+            long lngFlags = lngAges + intCount;
+            long lngCredits = lngFlags + intCount;
+            long lngHours = lngCredits + (long) intCount * Integer.BYTES;
+            long lngGpas = lngHours + (long) intCount * Integer.BYTES;
+            long lngNames = lngGpas + (long) intCount * Double.BYTES;
+            long lngSlots = lngNames + (long) intCount * Integer.BYTES;
+            long lngExtras = lngSlots + intCount;
+            long lngRefCodes = lngExtras + (long) intExtras * Integer.BYTES;
+            long lngRefSections = lngRefCodes + (long) intRefs * Integer.BYTES;
+            long lngEnd = lngRefSections + intRefs;
+            if (lngEnd != in.capacity())
+                throw new IOException("Student file is truncated or corrupt: " + file);
+
+            intLengths = (int) lngLengths;
+            intText = (int) lngText;
+            intIds = (int) lngIds;
+            intSins = (int) lngSins;
+            intKinds = (int) lngKinds;
+            intAges = (int) lngAges;
+            intFlags = (int) lngFlags;
+            intCredits = (int) lngCredits;
+            intHours = (int) lngHours;
+            intGpas = (int) lngGpas;
+            intNames = (int) lngNames;
+            intSlots = (int) lngSlots;
+            intExtraRefs = (int) lngExtras;
+            intRefCodes = (int) lngRefCodes;
+            intRefSections = (int) lngRefSections;
+        }
+
+        static Layout parse(ByteBuffer in, Path file) throws IOException {
+            return new Layout(in, file);
+        }
+    } /* End of Layout class */
+
+    /* *************************************************************************
+     * Private Nested Class: Rows
+     *
+     * Description:
+     * This class is a snapshot of the students being saved, one array per
+     * column. Strings are interned into one dictionary for the whole save;
+     * each row group then keeps only the entries its rows use.
+     *************************************************************************/
+    private static final class Rows {
+        final int intCount; // Number of students
+        final int[] ids;
+        final int[] sins;
+        final byte[] kinds;
+        final byte[] ages;
+        final byte[] flags;
+        final int[] credits;
+        final int[] hours;
+        final double[] gpas;
+        final int[] names;
+        final byte[] slotCounts;
+        int[] extras = new int[16]; // Extra string fields, in row order
+        int[] refCodes = new int[16]; // Course code of each timetable slot, in row order
+        byte[] refSections = new byte[16]; // Section number of each timetable slot
+        final byte[][] encoded; // UTF-8 bytes of each dictionary entry
+
+        Rows(Student[] students) {
+            intCount = students.length;
+            ids = new int[intCount];
+            sins = new int[intCount];
+            kinds = new byte[intCount];
+            ages = new byte[intCount];
+            flags = new byte[intCount];
+            credits = new int[intCount];
+            hours = new int[intCount];
+            gpas = new double[intCount];
+            names = new int[intCount];
+            slotCounts = new byte[intCount];
+
+            ArrayMap<String, Integer> dictionary = new ArrayMap<>();
+            ArrayList<String> entries = new ArrayList<>();
+            int intExtras = 0;
+            int intRefs = 0;
+            for (int i = 0; i < intCount; i++) {
+                Student student = students[i];
+                ids[i] = student.getID();
+                sins[i] = student.sinForStorage();
+                kinds[i] = kindOf(student);
+                ages[i] = (byte) student.getAge();
+                flags[i] = flagsOf(student);
+                credits[i] = student.getCreditsEarned();
+                hours[i] = student.getVolunteerHoursCompleted();
+                gpas[i] = student.getGPA();
+                names[i] = intern(student.getName(), dictionary, entries);
+
+                if (intExtras + 3 > extras.length)
+                    extras = Arrays.copyOf(extras, extras.length * 2);
+                if (student instanceof SHSMStudent) {
+                    extras[intExtras++] = intern(((SHSMStudent) student).getCOOPPlacement(), dictionary, entries);
+                } else if (student instanceof HPPStudent) {
+                    HPPStudent hpp = (HPPStudent) student;
+                    extras[intExtras++] = intern(hpp.getSport(), dictionary, entries);
+                    extras[intExtras++] = intern(hpp.getTeam(), dictionary, entries);
+                    extras[intExtras++] = intern(hpp.getPosition(), dictionary, entries);
+                }
+
+                CourseSection[] slots = sectionsOf(student);
+                if (slots == null) {
+                    slotCounts[i] = -1;
+                    continue;
+                }
+                slots = slots.clone(); // The live array may be changed while it is copied out
+                if (slots.length > Byte.MAX_VALUE)
+                    throw new IllegalArgumentException("Timetable of student " + ids[i] + " is too long to save");
+                slotCounts[i] = (byte) slots.length;
+                if (intRefs + slots.length > refCodes.length) {
+                    int intCapacity = Math.max(refCodes.length * 2, intRefs + slots.length);
+                    refCodes = Arrays.copyOf(refCodes, intCapacity);
+                    refSections = Arrays.copyOf(refSections, intCapacity);
+                }
+                for (CourseSection section : slots) {
+                    refCodes[intRefs] = section == null ? -1 : intern(section.getCourseCode(), dictionary, entries);
+                    refSections[intRefs++] = (byte) (section == null ? 0 : section.getSectionNumber());
+                }
+            }
+
+            encoded = new byte[entries.size()][];
+            for (int i = 0; i < encoded.length; i++)
+                encoded[i] = entries.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+    } /* End of Rows class */
+
+    /* *************************************************************************
+     * Private Nested Class: RowGroup
+     *
+     * Description:
+     * This class picks the next run of rows to save together and writes
+     * them as one complete layout: header, dictionary and columns. An
+     * uncompressed file is a single group holding every row. A compressed
+     * file is cut into groups of about BLOCK_BYTES, each compressed as one
+     * block, so a reader can decode a block without the ones after it.
+     *************************************************************************/
+    private static final class RowGroup {
+        private final Rows rows;
+        private final int[] localIndexes; // Group dictionary index of each entry, or -1
+        private int[] entries = new int[16]; // Save dictionary index of each group entry
+        private int intEntries;
+        private long lngDictionaryBytes;
+        int intFrom; // First row of the group
+        int intTo; // Row after the group
+        private int intExtraFrom, intExtraTo; // Extra fields of the group
+        private int intRefFrom, intRefTo; // Timetable references of the group
+
+        RowGroup(Rows rows) {
+            this.rows = rows;
+            this.localIndexes = new int[rows.encoded.length];
+            Arrays.fill(localIndexes, -1);
+        }
+
+        /* Takes the rows after the previous group, as many as fit in one block
+           when blnBlock is set, otherwise all of them */
+        void fill(boolean blnBlock) {
+            for (int e = 0; e < intEntries; e++)
+                localIndexes[entries[e]] = -1;
+            intEntries = 0;
+            lngDictionaryBytes = 0;
+            intFrom = intTo;
+            intExtraFrom = intExtraTo;
+            intRefFrom = intRefTo;
+
+            long lngBytes = HEADER_BYTES;
+            while (intTo < rows.intCount) {
+                int intRow = intTo;
+                int intMark = intEntries;
+                long lngMarkBytes = lngDictionaryBytes;
+                int intExtraCount = extrasOf(rows.kinds[intRow]);
+                int intSlotCount = Math.max(rows.slotCounts[intRow], 0);
+
+                use(rows.names[intRow]);
+                for (int e = 0; e < intExtraCount; e++)
+                    use(rows.extras[intExtraTo + e]);
+                for (int r = 0; r < intSlotCount; r++)
+                    use(rows.refCodes[intRefTo + r]);
+
+                long lngRow = ROW_BYTES + (long) intExtraCount * Integer.BYTES
+                        + (long) intSlotCount * (Integer.BYTES + Byte.BYTES)
+                        + (long) (intEntries - intMark) * Integer.BYTES + (lngDictionaryBytes - lngMarkBytes);
+                if (blnBlock && lngBytes + lngRow > BLOCK_BYTES && intRow > intFrom) {
+                    while (intEntries > intMark)
+                        localIndexes[entries[--intEntries]] = -1;
+                    lngDictionaryBytes = lngMarkBytes;
+                    break;
+                }
+                if (blnBlock && lngBytes + lngRow > MAX_BLOCK_BYTES)
+                    throw new IllegalArgumentException("Student " + rows.ids[intRow] + " is too large to save compressed");
+                lngBytes += lngRow;
+                intExtraTo += intExtraCount;
+                intRefTo += intSlotCount;
+                intTo++;
+            }
+            if (lngDictionaryBytes > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Too much text to save in one student file");
+        }
+
+        /* Adds a save dictionary entry to the group's dictionary */
+        private void use(int intIndex) {
+            if (intIndex < 0 || localIndexes[intIndex] >= 0)
+                return;
+            if (intEntries == entries.length)
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            localIndexes[intIndex] = intEntries;
+            entries[intEntries++] = intIndex;
+            lngDictionaryBytes += rows.encoded[intIndex].length;
+        }
+
+        /* Returns the group dictionary index of a save dictionary index */
+        private int local(int intIndex) {
+            return intIndex < 0 ? -1 : localIndexes[intIndex];
+        }
+
+        void writeTo(ColumnWriter out) throws IOException {
+            out.putInt(FILE_MAGIC);
+            out.putInt(FILE_VERSION);
+            out.putInt(intTo - intFrom);
+            out.putInt(intEntries);
+            out.putInt((int) lngDictionaryBytes);
+            out.putInt(intExtraTo - intExtraFrom);
+            out.putInt(intRefTo - intRefFrom);
+
+            for (int e = 0; e < intEntries; e++)
+                out.putInt(rows.encoded[entries[e]].length);
+            for (int e = 0; e < intEntries; e++)
+                out.putBytes(rows.encoded[entries[e]]);
+
+            for (int i = intFrom; i < intTo; i++)
+                out.putInt(rows.ids[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putInt(rows.sins[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putByte(rows.kinds[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putByte(rows.ages[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putByte(rows.flags[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putInt(rows.credits[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putInt(rows.hours[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putDouble(rows.gpas[i]);
+            for (int i = intFrom; i < intTo; i++)
+                out.putInt(local(rows.names[i]));
+            for (int i = intFrom; i < intTo; i++)
+                out.putByte(rows.slotCounts[i]);
+
+            for (int i = intExtraFrom; i < intExtraTo; i++)
+                out.putInt(local(rows.extras[i]));
+            for (int i = intRefFrom; i < intRefTo; i++)
+                out.putInt(local(rows.refCodes[i]));
+            for (int i = intRefFrom; i < intRefTo; i++)
+                out.putByte(rows.refSections[i]);
+        }
+    } /* End of RowGroup class */
+
+    /* *************************************************************************
+     * Private Nested Class: ColumnWriter
+     *
+     * Description:
+     * This class buffers primitive values and writes them to a channel.
+     * Uncompressed, it flushes whenever the buffer fills, so memory use
+     * stays the same however many students are saved. Given a Deflater,
+     * it holds one whole row group, then compresses it as one block with
+     * a block header and checksum behind a container header.
+     *************************************************************************/
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+        private final Deflater deflater; // Null when writing uncompressed
+        private final CRC32C crc = new CRC32C();
+        private byte[] stored = new byte[0]; // Compressed output of one block
+        private int intBlockCount; // Blocks written so far
+        private int intStudentCount; // Rows written so far
+
+        ColumnWriter(FileChannel channel, Deflater deflater) throws IOException {
+            this.channel = channel;
+            this.deflater = deflater;
+            if (deflater == null) {
+                this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            } else {
+                this.buffer = ByteBuffer.allocate(BLOCK_BYTES);
+                writeHeader(); // Rewritten with the real counts by finish
+            }
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int intOffset = 0;
+            while (intOffset < bytes.length) {
+                ensure(1);
+                int intChunk = Math.min(buffer.remaining(), bytes.length - intOffset);
+                buffer.put(bytes, intOffset, intChunk);
+                intOffset += intChunk;
+            }
+        }
+
+        /* Ends a row group; compressed, the group becomes one block */
+        void endBlock(int intRows) throws IOException {
+            intStudentCount += intRows;
+            if (deflater != null)
+                flush();
+        }
+
+        void finish() throws IOException {
+            if (deflater == null) {
+                flush();
+            } else {
+                deflater.end();
+                channel.position(0);
+                writeHeader();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            if (deflater == null) {
+                write(buffer);
+            } else {
+                int intRaw = buffer.remaining();
+                deflater.reset();
+                deflater.setInput(buffer);
+                deflater.finish();
+                int intStored = 0;
+                while (!deflater.finished()) {
+                    if (intStored == stored.length)
+                        stored = Arrays.copyOf(stored, Math.max(intRaw + 64, stored.length * 2));
+                    intStored += deflater.deflate(stored, intStored, stored.length - intStored);
+                }
+                crc.reset();
+                crc.update(stored, 0, intStored);
+
+                ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+                header.putInt(intRaw).putInt(intStored).putInt((int) crc.getValue()).flip();
+                write(header);
+                write(ByteBuffer.wrap(stored, 0, intStored));
+                intBlockCount++;
+            }
+            buffer.clear();
+        }
+
+        private void writeHeader() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(COMPRESSED_HEADER_BYTES);
+            header.putInt(COMPRESSED_MAGIC).putInt(COMPRESSED_VERSION).putInt(intBlockCount)
+                  .putInt(intStudentCount).flip();
+            write(header);
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+        }
+
+        /* Uncompressed, flushes a full buffer; compressed, grows it to hold the group */
+        private void ensure(int intBytes) throws IOException {
+            if (buffer.remaining() >= intBytes)
+                return;
+            if (deflater == null) {
+                flush();
+            } else {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + intBytes));
+                buffer.flip();
+                buffer = grown.put(buffer);
+            }
+        }
+    } /* End of ColumnWriter class */
+
+    /* *************************************************************************
+     * Private Nested Class: BlockReader
+     *
+     * Description:
+     * This class reads a compressed file's container header and then its
+     * blocks one at a time, checking each block's checksum and inflating
+     * it into a reused array. Each block holds one row group.
+     *************************************************************************/
+    private static final class BlockReader implements AutoCloseable {
+        private final Path file;
+        private final FileChannel channel;
+        private final Inflater inflater = new Inflater();
+        private final CRC32C crc = new CRC32C();
+        private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        private ByteBuffer stored = ByteBuffer.allocate(0);
+        private byte[] raw = new byte[0]; // Inflated row group of the last block
+        private long lngPosition = COMPRESSED_HEADER_BYTES; // File offset of the next block
+        private int intBlock; // Number of the next block
+        final int intBlockCount;
+        final int intStudentCount;
+        boolean blnInSync = true; // False once a block header is unreadable
+
+        BlockReader(Path file) throws IOException {
+            if (file == null)
+                throw new IllegalArgumentException("File cannot be null");
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer container = ByteBuffer.allocate(COMPRESSED_HEADER_BYTES);
+                if (!readFully(channel, container) || container.getInt(0) != COMPRESSED_MAGIC)
+                    throw new IOException("Not a compressed student file: " + file);
+                int intVersion = container.getInt(4);
+                if (intVersion != COMPRESSED_VERSION)
+                    throw new IOException("Unsupported compressed student file version " + intVersion + ": " + file);
+                intBlockCount = container.getInt(8);
+                intStudentCount = container.getInt(12);
+                if (intBlockCount < 0 || intStudentCount < 0)
+                    throw new IOException("Corrupt compressed student file header: " + file);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /* Checks and inflates the next block; the result is valid until the next call */
+        ByteBuffer next() throws IOException {
+            int intNumber = intBlock++;
+            long lngStart = lngPosition;
+            header.clear();
+            if (!blnInSync || !readFully(channel, header)) {
+                blnInSync = false;
+                throw damaged(intNumber, lngStart, "the file ends early");
+            }
+            int intRaw = header.getInt(0);
+            int intStored = header.getInt(4);
+            int intChecksum = header.getInt(8);
+            if (intRaw <= 0 || intRaw > MAX_BLOCK_BYTES || intStored <= 0 || intStored > intRaw + (intRaw >> 3) + 64) {
+                blnInSync = false;
+                throw damaged(intNumber, lngStart, "its header is corrupt");
+            }
+            lngPosition += BLOCK_HEADER_BYTES + intStored;
+
+            if (stored.capacity() < intStored)
+                stored = ByteBuffer.allocate(intStored);
+            stored.clear().limit(intStored);
+            if (!readFully(channel, stored)) {
+                blnInSync = false;
+                throw damaged(intNumber, lngStart, "the file ends early");
+            }
+            crc.reset();
+            crc.update(stored.array(), 0, intStored);
+            if ((int) crc.getValue() != intChecksum)
+                throw damaged(intNumber, lngStart, "its checksum does not match");
+
+            if (raw.length < intRaw)
+                raw = new byte[Math.max(intRaw, BLOCK_BYTES)];
+            inflater.reset();
+            inflater.setInput(stored.array(), 0, intStored);
+            int intInflated = 0;
+            try {
+                while (intInflated < intRaw && !inflater.finished()) {
+                    int intCount = inflater.inflate(raw, intInflated, intRaw - intInflated);
+                    if (intCount == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                        break;
+                    intInflated += intCount;
+                }
+            } catch (DataFormatException e) {
+                throw damaged(intNumber, lngStart, "it cannot be inflated");
+            }
+            if (intInflated != intRaw || !inflater.finished())
+                throw damaged(intNumber, lngStart, "it inflates to the wrong size");
+            return ByteBuffer.wrap(raw, 0, intRaw).slice();
+        }
+
+        private IOException damaged(int intNumber, long lngStart, String strReason) {
+            return new IOException("Block " + intNumber + " of student file " + file + " (at byte "
+                    + lngStart + ") is damaged: " + strReason);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    } /* End of BlockReader class */
+
+    /* *************************************************************************
+     * Nested Class: RowGroups
+     *
+     * Description:
+     * This class hands out a student file's row groups in order: the
+     * whole file, mapped, if it was saved uncompressed, or each block,
+     * checked and inflated only when it is reached, if it was saved
+     * compressed. Readers decode one group before asking for the next.
+     *************************************************************************/
+    static final class RowGroups implements AutoCloseable {
+        private static final int MAX_HINT = 1 << 16; // Largest row count trusted before blocks are read
+        private final Path file;
+        private final BlockReader blocks; // Null for an uncompressed file
+        private ByteBuffer whole; // The uncompressed file, until it is handed out
+        private int intGroup; // Number of the next group
+        final int intStudentCount; // Rows the file says it holds
+
+        RowGroups(Path file) throws IOException {
+            this.file = file;
+            if (isCompressed(file)) {
+                blocks = new BlockReader(file);
+                intStudentCount = blocks.intStudentCount;
+            } else {
+                blocks = null;
+                whole = map(file);
+                intStudentCount = Layout.parse(whole, file).intCount;
+            }
+        }
+
+        /* Returns the next row group, or null after the last one */
+        ByteBuffer next() throws IOException {
+            if (blocks == null) {
+                ByteBuffer in = whole;
+                whole = null;
+                return in;
+            }
+            return intGroup++ < blocks.intBlockCount ? blocks.next() : null;
+        }
+
+        /* Initial capacity for the rows; a compressed header is only checked once every block is read */
+        int capacityHint() {
+            return blocks == null ? intStudentCount : Math.min(intStudentCount, MAX_HINT);
+        }
+
+        /* Checks that the groups held as many rows as the file says */
+        void checkCount(int intRows) throws IOException {
+            if (intRows != intStudentCount)
+                throw new IOException("Student file is truncated or corrupt: " + file);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (blocks != null)
+                blocks.close();
+        }
+    } /* End of RowGroups class */
+
+} /* End of StudentFile class */
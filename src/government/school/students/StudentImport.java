@@ -0,0 +1,1172 @@
+package government.school.students;
+
+import government.SinRegistry;
+import government.school.Timetable;
+import government.school.util.Auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**************************************************************************
+ * File name:
+ * StudentImport.java
+ *
+ * Description:
+ * This file contains the StudentImport class, which imports a roster of
+ * students from a CSV file and registers them. It is built for ministry
+ * exports of hundreds of thousands of rows.
+ *
+ * The import is a pipeline. The calling thread reads the file into
+ * fixed-size byte batches that end on a line boundary. Pool workers take
+ * whole batches and check every row, reading numbers straight from the
+ * bytes; only the text fields a student keeps become Strings. Each worker
+ * then reserves the batch's given IDs in one step, draws the missing IDs
+ * from an ID lease, issues every new student a SIN in one batch, and
+ * registers the batch stripe by stripe. Batches are
+ * reused once a worker is done with them, so memory use depends on the
+ * pool size and not on the size of the file.
+ *
+ * File layout:
+ *   The first line names the columns, in any order and any case. The
+ *   type, name and age columns are required; any of id, password,
+ *   credits, hours, gpa, placement, coop_completed, sport, team and
+ *   position may follow. Other columns are ignored.
+ *
+ *   type            student, shsm or hpp
+ *   id              The student ID, or blank to have one generated
+ *   password        At least 8 characters, or blank to set one later
+ *   placement       SHSM COOP placement
+ *   coop_completed  SHSM: true/false, yes/no or 1/0 (needs a placement)
+ *   sport           HPP sport (required for HPP students)
+ *   team, position  HPP team and position
+ *
+ * Fields may be quoted with double quotes, and a quote inside a quoted
+ * field is written twice. A row that fails any check is skipped and
+ * reported with its line number and column; the other rows are still
+ * imported. A row whose ID is already in use is rejected, so an import
+ * never replaces a registered student. Generated IDs are spread over the
+ * whole ID range and can take an ID that a later row gives, so a roster
+ * should give an ID on every row or on none.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Streaming input, Pipelines, Fork-join parallelism, Buffer reuse,
+ * Bounded memory, Batch ID reservation
+ **************************************************************************/
+
+public final class StudentImport {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int BATCH_BYTES = 1 << 20; // Bytes read into one batch; also the longest allowed line
+    private static final int MAX_ERRORS = 1000; // Row errors kept in a report
+
+    private static final int COLUMN_TYPE = 0;
+    private static final int COLUMN_ID = 1;
+    private static final int COLUMN_AGE = 2;
+    private static final int COLUMN_NAME = 3;
+    private static final int COLUMN_PASSWORD = 4;
+    private static final int COLUMN_CREDITS = 5;
+    private static final int COLUMN_HOURS = 6;
+    private static final int COLUMN_GPA = 7;
+    private static final int COLUMN_PLACEMENT = 8;
+    private static final int COLUMN_COOP = 9;
+    private static final int COLUMN_SPORT = 10;
+    private static final int COLUMN_TEAM = 11;
+    private static final int COLUMN_POSITION = 12;
+    private static final String[] COLUMN_NAMES = {"type", "id", "age", "name", "password", "credits", "hours",
+            "gpa", "placement", "coop_completed", "sport", "team", "position"};
+
+    private static final byte[] TYPE_STUDENT = bytes("student");
+    private static final byte[] TYPE_SHSM = bytes("shsm");
+    private static final byte[] TYPE_HPP = bytes("hpp");
+    private static final byte[][] TRUE_WORDS = {bytes("true"), bytes("yes"), bytes("y"), bytes("1")};
+    private static final byte[][] FALSE_WORDS = {bytes("false"), bytes("no"), bytes("n"), bytes("0")};
+
+    private static final long INVALID = Long.MIN_VALUE; // Returned by parseInt for a malformed number
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentImport
+     *
+     * Description:
+     * The class only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentImport() {
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * importFile
+     *
+     * Description:
+     * Imports a CSV roster using the common fork-join pool.
+     *
+     * Parameters:
+     * file The CSV file to import
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or has no valid
+     * header line.
+     *
+     * Return:
+     * A report of the rows imported and rejected
+     *********************************************************************/
+    public static Report importFile(Path file) throws IOException {
+        return importFile(file, ForkJoinPool.commonPool());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * importFile
+     *
+     * Description:
+     * Imports a CSV roster, checking and registering batches of rows on
+     * the given pool.
+     *
+     * Parameters:
+     * file The CSV file to import
+     * pool The pool that checks and registers the rows
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or has no valid
+     * header line.
+     *
+     * Return:
+     * A report of the rows imported and rejected
+     *********************************************************************/
+    public static Report importFile(Path file, ForkJoinPool pool) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null");
+        try (InputStream in = Files.newInputStream(file)) {
+            return importStream(in, pool);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * importStream
+     *
+     * Description:
+     * Imports a CSV roster from a stream, which is read to its end but
+     * not closed. Students from rows that pass every check are registered
+     * as their batch finishes, so if the import fails part way the
+     * students from finished batches stay registered.
+     *
+     * Parameters:
+     * in   The UTF-8 CSV data
+     * pool The pool that checks and registers the rows
+     *
+     * Restrictions:
+     * Throws IOException if the stream cannot be read or has no valid
+     * header line, and InterruptedIOException if the thread is
+     * interrupted while waiting for a batch.
+     *
+     * Return:
+     * A report of the rows imported and rejected
+     *********************************************************************/
+    public static Report importStream(InputStream in, ForkJoinPool pool) throws IOException {
+        if (in == null || pool == null)
+            throw new IllegalArgumentException("Stream and pool cannot be null");
+
+        Report report = new Report();
+        int intMaxBatches = Math.max(2, pool.getParallelism() * 2);
+        ArrayBlockingQueue<Batch> free = new ArrayBlockingQueue<>(intMaxBatches);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int intBatches = 0;
+
+        int[] columns = null; // Field index of each known column, or -1
+        int intFields = 0; // Number of fields in the header
+        byte[] carry = new byte[BATCH_BYTES]; // Unfinished line from the previous read
+        int intCarry = 0;
+        int intLine = 1; // Number of the next line to end
+        boolean blnSkipping = false; // Inside a line that is too long
+        boolean blnEnd = false;
+
+        try {
+            while (!blnEnd && failure.get() == null) {
+                Batch batch = free.poll();
+                if (batch == null && intBatches < intMaxBatches) {
+                    batch = new Batch();
+                    intBatches++;
+                } else if (batch == null) {
+                    batch = free.take();
+                }
+
+                byte[] data = batch.data;
+                System.arraycopy(carry, 0, data, 0, intCarry);
+                int intLength = intCarry;
+                intCarry = 0;
+                while (intLength < data.length) {
+                    int intRead = in.read(data, intLength, data.length - intLength);
+                    if (intRead < 0) {
+                        blnEnd = true;
+                        break;
+                    }
+                    intLength += intRead;
+                }
+
+                batch.clear();
+                int intStart = 0;
+                for (int i = 0; i < intLength; i++) {
+                    if (data[i] != '\n')
+                        continue;
+                    if (blnSkipping) {
+                        blnSkipping = false;
+                    } else if (columns == null) {
+                        intFields = countFields(data, intStart, trimLineEnd(data, intStart, i));
+                        columns = parseHeader(data, intStart, trimLineEnd(data, intStart, i), intFields);
+                    } else {
+                        batch.addLine(intStart, trimLineEnd(data, intStart, i), intLine);
+                    }
+                    intLine++;
+                    intStart = i + 1;
+                }
+
+                if (blnEnd) {
+                    if (intStart < intLength && !blnSkipping) {
+                        if (columns == null) {
+                            intFields = countFields(data, intStart, trimLineEnd(data, intStart, intLength));
+                            columns = parseHeader(data, intStart, trimLineEnd(data, intStart, intLength), intFields);
+                        } else {
+                            batch.addLine(intStart, trimLineEnd(data, intStart, intLength), intLine);
+                        }
+                    }
+                } else if (intStart == 0) {
+                    if (!blnSkipping) { // A whole batch without a line end
+                        if (columns == null)
+                            throw new IOException("Roster header line is too long");
+                        report.addError(new RowError(intLine, null, "Line is longer than " + BATCH_BYTES + " bytes"));
+                        report.rows.incrementAndGet();
+                        blnSkipping = true;
+                    }
+                } else {
+                    intCarry = intLength - intStart;
+                    System.arraycopy(data, intStart, carry, 0, intCarry);
+                }
+
+                if (batch.intLines == 0) {
+                    free.add(batch);
+                    continue;
+                }
+                Batch job = batch;
+                int[] jobColumns = columns;
+                int intJobFields = intFields;
+                pool.execute(() -> {
+                    try {
+                        process(job, jobColumns, intJobFields, report);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        free.add(job);
+                    }
+                });
+            }
+
+            /* Every batch is back in the queue once every worker is done */
+            for (int i = 0; i < intBatches; i++)
+                free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing students");
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException)
+            throw (RuntimeException) error;
+        if (error instanceof Error)
+            throw (Error) error;
+        if (columns == null)
+            throw new IOException("Roster is empty");
+        return report;
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * process
+     *
+     * Description:
+     * Checks every row of a batch, gives each valid row its ID and a new
+     * SIN, and registers the resulting students. The SINs are issued for
+     * the whole batch at once, and those of rejected rows are given back. Rows that fail are added to the
+     * report.
+     *
+     * Parameters:
+     * batch     The batch of lines
+     * columns   Field index of each known column, or -1
+     * intFields Number of fields in each row
+     * report    The report to update
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void process(Batch batch, int[] columns, int intFields, Report report) {
+        ArrayList<RowError> errors = new ArrayList<>();
+        batch.prepare(intFields);
+        int intValid = 0;
+        for (int r = 0; r < batch.intLines; r++) {
+            RowError error = parseRow(batch, r, columns, intFields, intValid);
+            if (error == null)
+                intValid++;
+            else
+                errors.add(error);
+        }
+
+        /* Reserve every given ID in one step; a taken ID rejects its row */
+        int intGiven = 0;
+        for (int v = 0; v < intValid; v++) {
+            if (batch.ids[v] != 0)
+                batch.given[intGiven++] = batch.ids[v];
+        }
+        Auth.reserveIDs(batch.given, intGiven, batch.fresh);
+
+        /* Draw the missing IDs from a lease sized to the batch */
+        int intMissing = intValid - intGiven;
+        boolean blnLeased = false;
+        if (intMissing > 0) {
+            try {
+                Auth.openIDLease(intMissing);
+                blnLeased = true;
+            } catch (IllegalStateException e) {
+                // This thread already holds a lease, which generateID uses
+            }
+        }
+
+        /* Issue a new SIN for every row in one step; unused ones are given back */
+        SinRegistry.issue(batch.sins, intValid);
+        int intStripes = StudentRegistry.stripeCount();
+        int[] stripeSizes = new int[intStripes];
+        int intBuilt = 0;
+        int intGivenIndex = 0;
+        boolean blnRegistered = false;
+        try {
+            try {
+                for (int v = 0; v < intValid; v++) {
+                    int intID = batch.ids[v];
+                    if (intID != 0) {
+                        if (!batch.fresh[intGivenIndex++]) {
+                            errors.add(new RowError(batch.rowLines[v], "id", "ID " + intID + " is already in use"));
+                            continue;
+                        }
+                    } else {
+                        try {
+                            intID = Auth.generateID();
+                        } catch (IllegalStateException e) {
+                            errors.add(new RowError(batch.rowLines[v], "id", "No student IDs are left"));
+                            continue;
+                        }
+                    }
+
+                    Student student;
+                    if (batch.kinds[v] == StudentFile.KIND_SHSM)
+                        student = new SHSMStudent(intID, batch.sins[intBuilt], batch.ages[v], batch.names[v], batch.credits[v], batch.hours[v],
+                                batch.gpas[v], new Timetable(), 0, batch.texts[v][0], batch.coop[v]);
+                    else if (batch.kinds[v] == StudentFile.KIND_HPP)
+                        student = new HPPStudent(intID, batch.sins[intBuilt], batch.ages[v], batch.names[v], batch.credits[v], batch.hours[v],
+                                batch.gpas[v], new Timetable(), 0, batch.texts[v][0], batch.texts[v][1], batch.texts[v][2]);
+                    else
+                        student = new Student(intID, batch.sins[intBuilt], batch.ages[v], batch.names[v], batch.credits[v], batch.hours[v],
+                                batch.gpas[v], new Timetable(), 0);
+                    batch.students[intBuilt] = student;
+                    batch.passwords[intBuilt] = batch.rowPasswords[v];
+                    batch.stripes[intBuilt] = StudentRegistry.stripeOf(intID);
+                    stripeSizes[batch.stripes[intBuilt]]++;
+                    intBuilt++;
+                }
+            } finally {
+                if (blnLeased)
+                    Auth.closeIDLease();
+            }
+
+            /* Register stripe by stripe, one lock acquisition per stripe */
+            int[] stripeStarts = new int[intStripes + 1];
+            for (int s = 0; s < intStripes; s++)
+                stripeStarts[s + 1] = stripeStarts[s] + stripeSizes[s];
+            int[] next = Arrays.copyOf(stripeStarts, intStripes);
+            for (int b = 0; b < intBuilt; b++)
+                batch.grouped[next[batch.stripes[b]]++] = batch.students[b];
+            for (int s = 0; s < intStripes; s++) {
+                if (stripeSizes[s] > 0)
+                    StudentRegistry.putAll(s, Arrays.copyOfRange(batch.grouped, stripeStarts[s], stripeStarts[s + 1]),
+                            stripeSizes[s]);
+            }
+            blnRegistered = true;
+        } finally {
+            // Registered students have claimed their SINs, which release keeps
+            int intUnused = blnRegistered ? intBuilt : 0;
+            SinRegistry.release(batch.sins, intUnused, intValid - intUnused);
+        }
+
+        /* Passwords are hashed after registration so the journal sees the student first */
+        for (int b = 0; b < intBuilt; b++) {
+            if (batch.passwords[b] != null)
+                batch.students[b].setPassword(batch.passwords[b]);
+        }
+
+        report.rows.addAndGet(batch.intLines);
+        report.imported.addAndGet(intBuilt);
+        report.addErrors(errors);
+        Arrays.fill(batch.students, 0, intBuilt, null);
+        Arrays.fill(batch.grouped, 0, intBuilt, null);
+        Arrays.fill(batch.passwords, 0, intBuilt, null);
+        Arrays.fill(batch.rowPasswords, 0, intValid, null);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * parseRow
+     *
+     * Description:
+     * Splits one line into fields and checks them, storing the values in
+     * the batch's row arrays at the given slot.
+     *
+     * Parameters:
+     * batch     The batch holding the line
+     * intRow    The line's index in the batch
+     * columns   Field index of each known column, or -1
+     * intFields Number of fields in each row
+     * intSlot   Where to store the row's values
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * Null if the row is valid, otherwise the error
+     *********************************************************************/
+    private static RowError parseRow(Batch batch, int intRow, int[] columns, int intFields, int intSlot) {
+        int intLine = batch.lines[intRow];
+        int intFound = split(batch, batch.starts[intRow], batch.ends[intRow], intFields);
+        if (intFound == -1)
+            return new RowError(intLine, null, "A quoted field is not closed properly");
+        if (intFound != intFields)
+            return new RowError(intLine, null, "Expected " + intFields + " fields but found " + intFound);
+
+        byte kind;
+        if (matches(batch, columns[COLUMN_TYPE], TYPE_STUDENT))
+            kind = StudentFile.KIND_STUDENT;
+        else if (matches(batch, columns[COLUMN_TYPE], TYPE_SHSM))
+            kind = StudentFile.KIND_SHSM;
+        else if (matches(batch, columns[COLUMN_TYPE], TYPE_HPP))
+            kind = StudentFile.KIND_HPP;
+        else
+            return new RowError(intLine, "type", "Type must be student, shsm or hpp");
+
+        long lngID = parseInt(batch, columns[COLUMN_ID], 0);
+        if (lngID != 0 && (lngID < Auth.MIN_ID || lngID > Auth.MAX_ID))
+            return new RowError(intLine, "id", "ID must be blank or between " + Auth.MIN_ID + " and " + Auth.MAX_ID);
+        long lngAge = parseInt(batch, columns[COLUMN_AGE], INVALID);
+        if (lngAge <= 0 || lngAge > 150)
+            return new RowError(intLine, "age", "Age must be a whole number from 1 to 150");
+        long lngCredits = parseInt(batch, columns[COLUMN_CREDITS], 0);
+        if (lngCredits < 0 || lngCredits > Integer.MAX_VALUE)
+            return new RowError(intLine, "credits", "Credits must be a whole number of at least 0");
+        long lngHours = parseInt(batch, columns[COLUMN_HOURS], 0);
+        if (lngHours < 0 || lngHours > Integer.MAX_VALUE)
+            return new RowError(intLine, "hours", "Volunteer hours must be a whole number of at least 0");
+        double dblGPA = parseDecimal(batch, columns[COLUMN_GPA]);
+        if (!(dblGPA >= 0))
+            return new RowError(intLine, "gpa", "GPA must be a number of at least 0");
+
+        String strName = text(batch, columns[COLUMN_NAME]);
+        if (strName == null || strName.trim().isEmpty())
+            return new RowError(intLine, "name", "Name cannot be empty");
+        String strPassword = text(batch, columns[COLUMN_PASSWORD]);
+        if (strPassword != null && strPassword.trim().length() < 8)
+            return new RowError(intLine, "password", "Password must be blank or at least 8 characters");
+
+        String[] texts = batch.texts[intSlot];
+        boolean blnCoop = false;
+        if (kind == StudentFile.KIND_SHSM) {
+            texts[0] = text(batch, columns[COLUMN_PLACEMENT]);
+            int intCoop = parseBoolean(batch, columns[COLUMN_COOP]);
+            if (intCoop < 0)
+                return new RowError(intLine, "coop_completed", "COOP completed must be true or false");
+            blnCoop = intCoop == 1;
+            if (blnCoop && texts[0] == null)
+                return new RowError(intLine, "placement", "A completed COOP needs a placement");
+        } else if (kind == StudentFile.KIND_HPP) {
+            texts[0] = text(batch, columns[COLUMN_SPORT]);
+            texts[1] = text(batch, columns[COLUMN_TEAM]);
+            texts[2] = text(batch, columns[COLUMN_POSITION]);
+            if (texts[0] == null)
+                return new RowError(intLine, "sport", "HPP students need a sport");
+        }
+
+        batch.kinds[intSlot] = kind;
+        batch.ids[intSlot] = (int) lngID;
+        batch.ages[intSlot] = (int) lngAge;
+        batch.credits[intSlot] = (int) lngCredits;
+        batch.hours[intSlot] = (int) lngHours;
+        batch.gpas[intSlot] = dblGPA;
+        batch.names[intSlot] = strName;
+        batch.rowPasswords[intSlot] = strPassword;
+        batch.coop[intSlot] = blnCoop;
+        batch.rowLines[intSlot] = intLine;
+        return null;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * split
+     *
+     * Description:
+     * Finds the fields of a line and records where each starts and ends
+     * in the batch's field arrays, without copying any bytes. Quotes are
+     * not included in a quoted field's range, and spaces around an
+     * unquoted field are dropped.
+     *
+     * Parameters:
+     * batch     The batch holding the line
+     * intStart  The first byte of the line
+     * intEnd    The end of the line, exclusive
+     * intFields Room in the field arrays
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number of fields, or -1 if a quoted field is malformed
+     *********************************************************************/
+    private static int split(Batch batch, int intStart, int intEnd, int intFields) {
+        byte[] data = batch.data;
+        int intCount = 0;
+        int i = intStart;
+        while (true) {
+            int intFieldStart;
+            int intFieldEnd;
+            boolean blnEscaped = false;
+            if (i < intEnd && data[i] == '"') {
+                intFieldStart = ++i;
+                while (true) {
+                    if (i >= intEnd)
+                        return -1;
+                    if (data[i] == '"') {
+                        if (i + 1 < intEnd && data[i + 1] == '"') {
+                            blnEscaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                intFieldEnd = i++;
+                if (i < intEnd && data[i] != ',')
+                    return -1;
+            } else {
+                intFieldStart = i;
+                while (i < intEnd && data[i] != ',')
+                    i++;
+                intFieldEnd = i;
+                while (intFieldStart < intFieldEnd && data[intFieldStart] == ' ')
+                    intFieldStart++;
+                while (intFieldEnd > intFieldStart && data[intFieldEnd - 1] == ' ')
+                    intFieldEnd--;
+            }
+            if (intCount < intFields) {
+                batch.fieldStarts[intCount] = intFieldStart;
+                batch.fieldEnds[intCount] = intFieldEnd;
+                batch.escaped[intCount] = blnEscaped;
+            }
+            intCount++;
+            if (i >= intEnd)
+                return intCount;
+            i++; // Skip the comma
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * countFields
+     *
+     * Description:
+     * Counts the fields of the header line, which may contain quoted
+     * fields.
+     *
+     * Parameters:
+     * data     The bytes holding the line
+     * intStart The first byte of the line
+     * intEnd   The end of the line, exclusive
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number of fields
+     *********************************************************************/
+    private static int countFields(byte[] data, int intStart, int intEnd) {
+        int intCount = 1;
+        boolean blnQuoted = false;
+        for (int i = intStart; i < intEnd; i++) {
+            if (data[i] == '"')
+                blnQuoted = !blnQuoted;
+            else if (data[i] == ',' && !blnQuoted)
+                intCount++;
+        }
+        return intCount;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * parseHeader
+     *
+     * Description:
+     * Matches the header's column names to the known columns.
+     *
+     * Parameters:
+     * data      The bytes holding the header line
+     * intStart  The first byte of the line
+     * intEnd    The end of the line, exclusive
+     * intFields The number of fields in the header
+     *
+     * Restrictions:
+     * Throws IOException if a required column is missing, a known column
+     * appears twice, or the header is malformed.
+     *
+     * Return:
+     * The field index of each known column, or -1 if it is absent
+     *********************************************************************/
+    private static int[] parseHeader(byte[] data, int intStart, int intEnd, int intFields) throws IOException {
+        if (intEnd - intStart >= 3 && (data[intStart] & 0xFF) == 0xEF && (data[intStart + 1] & 0xFF) == 0xBB
+                && (data[intStart + 2] & 0xFF) == 0xBF)
+            intStart += 3; // Skip a UTF-8 byte order mark
+
+        Batch header = new Batch(data, intFields);
+        if (split(header, intStart, intEnd, intFields) != intFields)
+            throw new IOException("Roster header line is malformed");
+        int[] columns = new int[COLUMN_NAMES.length];
+        Arrays.fill(columns, -1);
+        for (int f = 0; f < intFields; f++) {
+            String strName = text(header, f);
+            for (int c = 0; strName != null && c < COLUMN_NAMES.length; c++) {
+                if (COLUMN_NAMES[c].equalsIgnoreCase(strName.trim())) {
+                    if (columns[c] >= 0)
+                        throw new IOException("Roster header names the " + COLUMN_NAMES[c] + " column twice");
+                    columns[c] = f;
+                }
+            }
+        }
+        for (int c : new int[]{COLUMN_TYPE, COLUMN_NAME, COLUMN_AGE}) {
+            if (columns[c] < 0)
+                throw new IOException("Roster header has no " + COLUMN_NAMES[c] + " column");
+        }
+        return columns;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * trimLineEnd
+     *
+     * Description:
+     * Drops a carriage return from the end of a line.
+     *
+     * Parameters:
+     * data     The bytes holding the line
+     * intStart The first byte of the line
+     * intEnd   The end of the line, exclusive
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The end of the line without the carriage return
+     *********************************************************************/
+    private static int trimLineEnd(byte[] data, int intStart, int intEnd) {
+        return intEnd > intStart && data[intEnd - 1] == '\r' ? intEnd - 1 : intEnd;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * parseInt
+     *
+     * Description:
+     * Reads a whole number from a field's bytes.
+     *
+     * Parameters:
+     * batch      The batch holding the split line
+     * intField   The field index, or -1 if the column is absent
+     * lngDefault The value for an absent or blank field
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number, or INVALID if the field is not a whole number
+     *********************************************************************/
+    private static long parseInt(Batch batch, int intField, long lngDefault) {
+        if (intField < 0 || batch.fieldStarts[intField] == batch.fieldEnds[intField])
+            return lngDefault;
+        int i = batch.fieldStarts[intField];
+        int intEnd = batch.fieldEnds[intField];
+        boolean blnNegative = batch.data[i] == '-';
+        if (blnNegative || batch.data[i] == '+')
+            i++;
+        if (i == intEnd || intEnd - i > 10)
+            return INVALID;
+        long lngValue = 0;
+        for (; i < intEnd; i++) {
+            int intDigit = batch.data[i] - '0';
+            if (intDigit < 0 || intDigit > 9)
+                return INVALID;
+            lngValue = lngValue * 10 + intDigit;
+        }
+        return blnNegative ? -lngValue : lngValue;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * parseDecimal
+     *
+     * Description:
+     * Reads a decimal number such as 3.75 from a field's bytes.
+     *
+     * Parameters:
+     * batch    The batch holding the split line
+     * intField The field index, or -1 if the column is absent
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The number, 0 for an absent or blank field, or NaN if the field
+     * is not a decimal number
+     *********************************************************************/
+    private static double parseDecimal(Batch batch, int intField) {
+        if (intField < 0 || batch.fieldStarts[intField] == batch.fieldEnds[intField])
+            return 0;
+        int i = batch.fieldStarts[intField];
+        int intEnd = batch.fieldEnds[intField];
+        boolean blnNegative = batch.data[i] == '-';
+        if (blnNegative || batch.data[i] == '+')
+            i++;
+        long lngDigits = 0;
+        int intScale = -1; // Digits after the point, or -1 before it
+        int intCount = 0;
+        for (; i < intEnd; i++) {
+            byte b = batch.data[i];
+            if (b == '.' && intScale < 0) {
+                intScale = 0;
+            } else if (b >= '0' && b <= '9' && intCount < 15) {
+                lngDigits = lngDigits * 10 + (b - '0');
+                intCount++;
+                if (intScale >= 0)
+                    intScale++;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (intCount == 0)
+            return Double.NaN;
+        double dblValue = intScale > 0 ? lngDigits / Math.pow(10, intScale) : lngDigits;
+        return blnNegative ? -dblValue : dblValue;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * parseBoolean
+     *
+     * Description:
+     * Reads true/false, yes/no, y/n or 1/0 from a field, ignoring case.
+     *
+     * Parameters:
+     * batch    The batch holding the split line
+     * intField The field index, or -1 if the column is absent
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * 1 for true, 0 for false or blank, -1 for anything else
+     *********************************************************************/
+    private static int parseBoolean(Batch batch, int intField) {
+        if (intField < 0 || batch.fieldStarts[intField] == batch.fieldEnds[intField])
+            return 0;
+        for (byte[] word : TRUE_WORDS) {
+            if (matches(batch, intField, word))
+                return 1;
+        }
+        for (byte[] word : FALSE_WORDS) {
+            if (matches(batch, intField, word))
+                return 0;
+        }
+        return -1;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * matches
+     *
+     * Description:
+     * Compares a field with a lower-case ASCII word, ignoring case.
+     *
+     * Parameters:
+     * batch    The batch holding the split line
+     * intField The field index, or -1 if the column is absent
+     * word     The lower-case word
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * True if the field holds the word
+     *********************************************************************/
+    private static boolean matches(Batch batch, int intField, byte[] word) {
+        if (intField < 0 || batch.fieldEnds[intField] - batch.fieldStarts[intField] != word.length)
+            return false;
+        int intStart = batch.fieldStarts[intField];
+        for (int i = 0; i < word.length; i++) {
+            if ((batch.data[intStart + i] | 0x20) != word[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * text
+     *
+     * Description:
+     * Decodes a field as UTF-8 text, turning doubled quotes back into
+     * single ones.
+     *
+     * Parameters:
+     * batch    The batch holding the split line
+     * intField The field index, or -1 if the column is absent
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The text, or null if the column is absent or the field is blank
+     *********************************************************************/
+    private static String text(Batch batch, int intField) {
+        if (intField < 0 || batch.fieldStarts[intField] == batch.fieldEnds[intField])
+            return null;
+        int intStart = batch.fieldStarts[intField];
+        int intLength = batch.fieldEnds[intField] - intStart;
+        if (!batch.escaped[intField])
+            return new String(batch.data, intStart, intLength, StandardCharsets.UTF_8);
+
+        byte[] unescaped = new byte[intLength];
+        int intOut = 0;
+        for (int i = intStart; i < intStart + intLength; i++) {
+            unescaped[intOut++] = batch.data[i];
+            if (batch.data[i] == '"')
+                i++; // Skip the second quote of the pair
+        }
+        return new String(unescaped, 0, intOut, StandardCharsets.UTF_8);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * bytes
+     *
+     * Description:
+     * Encodes a constant word as ASCII bytes.
+     *
+     * Parameters:
+     * strWord The word
+     *
+     * Return:
+     * The bytes
+     *********************************************************************/
+    private static byte[] bytes(String strWord) {
+        return strWord.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /* *************************************************************************
+     * Nested Class: RowError
+     *
+     * Description:
+     * This class describes one rejected row.
+     *************************************************************************/
+    public static final class RowError {
+        private final int intLine;
+        private final String strColumn;
+        private final String strMessage;
+
+        RowError(int intLine, String strColumn, String strMessage) {
+            this.intLine = intLine;
+            this.strColumn = strColumn;
+            this.strMessage = strMessage;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getLine
+         *
+         * Description:
+         * Returns the line number of the row, counting the header as line 1.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The line number
+         *********************************************************************/
+        public int getLine() {
+            return intLine;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getColumn
+         *
+         * Description:
+         * Returns the name of the column at fault.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The column name, or null if the whole row is at fault
+         *********************************************************************/
+        public String getColumn() {
+            return strColumn;
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getMessage
+         *
+         * Description:
+         * Returns what is wrong with the row.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The error message
+         *********************************************************************/
+        public String getMessage() {
+            return strMessage;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + intLine + (strColumn == null ? "" : " (" + strColumn + ")") + ": " + strMessage;
+        }
+    } /* End of RowError class */
+
+    /* *************************************************************************
+     * Nested Class: Report
+     *
+     * Description:
+     * This class counts the rows an import read, imported and rejected,
+     * and keeps the errors for the first rejected rows by line number.
+     *************************************************************************/
+    public static final class Report {
+        private final AtomicInteger rows = new AtomicInteger(); // Non-blank rows read
+        private final AtomicInteger imported = new AtomicInteger(); // Students registered
+        private final AtomicInteger rejected = new AtomicInteger(); // Rows skipped with an error
+        private final PriorityQueue<RowError> errors =
+                new PriorityQueue<>(Comparator.comparingInt(RowError::getLine).reversed()); // Latest line first
+
+        Report() {
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getRowCount
+         *
+         * Description:
+         * Returns the number of non-blank rows read, not counting the header.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of rows
+         *********************************************************************/
+        public int getRowCount() {
+            return rows.get();
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getImportedCount
+         *
+         * Description:
+         * Returns the number of students imported.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of students
+         *********************************************************************/
+        public int getImportedCount() {
+            return imported.get();
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getRejectedCount
+         *
+         * Description:
+         * Returns the number of rows rejected.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The number of rows
+         *********************************************************************/
+        public int getRejectedCount() {
+            return rejected.get();
+        }
+
+        /**********************************************************************
+         * Method name:
+         * getErrors
+         *
+         * Description:
+         * Returns the errors for the first rejected rows, up to 1000 of them.
+         *
+         * Parameters:
+         * None
+         *
+         * Return:
+         * The errors, in line order
+         *********************************************************************/
+        public synchronized List<RowError> getErrors() {
+            ArrayList<RowError> sorted = new ArrayList<>(errors);
+            sorted.sort(Comparator.comparingInt(RowError::getLine));
+            return Collections.unmodifiableList(sorted);
+        }
+
+        private void addError(RowError error) {
+            addErrors(Collections.singletonList(error));
+        }
+
+        private synchronized void addErrors(List<RowError> batch) {
+            rejected.addAndGet(batch.size());
+            for (RowError error : batch) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(error);
+                } else if (error.getLine() < errors.peek().getLine()) {
+                    errors.poll();
+                    errors.add(error);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Read " + getRowCount() + " rows, imported " + getImportedCount() + ", rejected " + getRejectedCount();
+        }
+    } /* End of Report class */
+
+    /* *************************************************************************
+     * Private Nested Class: Batch
+     *
+     * Description:
+     * This class holds one read buffer of whole lines and the working
+     * arrays a worker needs to check and register them. Batches are
+     * reused, so the arrays only grow to the largest batch seen.
+     *************************************************************************/
+    private static final class Batch {
+        final byte[] data;
+        int intLines;
+        int[] starts = new int[1024]; // First byte of each line
+        int[] ends = new int[1024]; // End of each line, exclusive
+        int[] lines = new int[1024]; // Line number of each line
+
+        int[] fieldStarts = new int[0];
+        int[] fieldEnds = new int[0];
+        boolean[] escaped = new boolean[0]; // Whether a quoted field holds doubled quotes
+
+        byte[] kinds = new byte[0]; // Values of the valid rows, packed to the front
+        int[] ids, ages, credits, hours, rowLines, given, stripes, sins;
+        double[] gpas;
+        boolean[] coop, fresh;
+        String[] names, rowPasswords, passwords;
+        String[][] texts;
+        Student[] students, grouped;
+
+        Batch() {
+            this.data = new byte[BATCH_BYTES];
+        }
+
+        Batch(byte[] data, int intFields) {
+            this.data = data;
+            fieldStarts = new int[intFields];
+            fieldEnds = new int[intFields];
+            escaped = new boolean[intFields];
+        }
+
+        void clear() {
+            intLines = 0;
+        }
+
+        void addLine(int intStart, int intEnd, int intLine) {
+            if (intStart == intEnd)
+                return; // Blank line
+            if (intLines == starts.length) {
+                starts = Arrays.copyOf(starts, intLines * 2);
+                ends = Arrays.copyOf(ends, intLines * 2);
+                lines = Arrays.copyOf(lines, intLines * 2);
+            }
+            starts[intLines] = intStart;
+            ends[intLines] = intEnd;
+            lines[intLines] = intLine;
+            intLines++;
+        }
+
+        void prepare(int intFields) {
+            if (fieldStarts.length < intFields) {
+                fieldStarts = new int[intFields];
+                fieldEnds = new int[intFields];
+                escaped = new boolean[intFields];
+            }
+            if (kinds.length < intLines) {
+                int n = Math.max(intLines, kinds.length * 2);
+                kinds = new byte[n];
+                ids = new int[n];
+                ages = new int[n];
+                credits = new int[n];
+                hours = new int[n];
+                rowLines = new int[n];
+                given = new int[n];
+                stripes = new int[n];
+                sins = new int[n];
+                gpas = new double[n];
+                coop = new boolean[n];
+                fresh = new boolean[n];
+                names = new String[n];
+                rowPasswords = new String[n];
+                passwords = new String[n];
+                texts = new String[n][3];
+                students = new Student[n];
+                grouped = new Student[n];
+            }
+        }
+    } /* End of Batch class */
+
+} /* End of StudentImport class */
@@ -0,0 +1,1247 @@
+package government.school.students;
+
+import government.school.CourseSection;
+import government.school.Timetable;
+import government.school.util.ArrayMap;
+import government.school.util.Auth;
+import government.school.util.CredentialStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.zip.CRC32C;
+
+/**************************************************************************
+ * File name:
+ * StudentJournal.java
+ *
+ * Description:
+ * This file contains the StudentJournal class, which makes student saves
+ * incremental. While a journal is open, every change to a student (new
+ * and removed students, volunteer hours, status, password, timetable and
+ * program details) is appended to a journal file as a small record, so
+ * the cost of saving is proportional to what changed rather than to the
+ * number of students.
+ *
+ * Records are buffered in memory and written in groups: a background
+ * thread writes and syncs everything appended during the last few
+ * milliseconds with a single fsync, and sync() lets a caller wait until
+ * its changes are on disk. When the journal grows past a limit, it is
+ * compacted: all students are written to a snapshot (StudentFile format),
+ * password hashes to a credential snapshot, and the old journal files are
+ * deleted. Opening a journal loads the snapshots and replays the journal
+ * files on top of them.
+ *
+ * Directory layout:
+ *   students.snapshot     Students at the last compaction
+ *   credentials.snapshot  Password hashes at the last compaction
+ *   journal-NNNNNNNN.log  Changes since then, oldest generation first
+ *
+ * Journal file layout (big-endian): magic, version and generation (3
+ * ints), then records of [body length (int)][body][CRC32C of body (int)].
+ * A body is a record type (byte), a student ID (int) and the new value.
+ * Every record holds an absolute value rather than a difference, so
+ * replaying a record that a snapshot already contains does no harm. A
+ * torn record at the end of a file, left by a crash, is discarded.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Write-ahead logging, Group commit, Log compaction, Crash recovery,
+ * Checksums
+ **************************************************************************/
+
+public final class StudentJournal implements Closeable {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final long DEFAULT_FLUSH_MILLIS = 10; // Longest time a change waits to be written
+    public static final long DEFAULT_COMPACT_BYTES = 64L << 20; // Journal size that triggers compaction
+
+    private static final int FILE_MAGIC = 0x4A534A4C; // "JSJL"
+    private static final int FILE_VERSION = 2; // Current journal layout version
+    private static final int HEADER_BYTES = 3 * Integer.BYTES; // Size of the journal file header
+    private static final int INITIAL_BUFFER_BYTES = 1 << 16; // Starting size of the record buffers
+    private static final int FLUSH_BYTES = 1 << 20; // Buffered bytes that wake the flusher early
+    private static final int MAX_PENDING_BYTES = 8 << 20; // Buffered bytes that make writers wait
+
+    private static final String SNAPSHOT_FILE = "students.snapshot";
+    private static final String CREDENTIALS_FILE = "credentials.snapshot";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private static final byte RECORD_ADD = 1; // Whole student
+    private static final byte RECORD_REMOVE = 2; // No value
+    private static final byte RECORD_VOLUNTEER_HOURS = 3; // Hours (int)
+    private static final byte RECORD_STATUS = 4; // Packed status flags (byte)
+    private static final byte RECORD_PASSWORD = 5; // Encoded password hash
+    private static final byte RECORD_TIMETABLE = 6; // Timetable slots
+    private static final byte RECORD_DETAILS = 7; // SHSM or HPP program fields
+
+    private static volatile StudentJournal active; // The open journal, or null
+    private static final ThreadLocal<RecordBuffer> scratch = ThreadLocal.withInitial(RecordBuffer::new);
+
+    private final Path directory; // Where the snapshots and journal files live
+    private final long lngFlushMillis; // Group commit interval
+    private final long lngCompactBytes; // Journal size that triggers compaction
+    private final Object lock = new Object(); // Guards every field below
+    private final Object compactLock = new Object(); // Lets one compaction run at a time
+    private final Thread flusher; // Writes buffered records in the background
+
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // Records not written yet
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // Swapped in while pending is written
+    private FileChannel channel; // The current journal file
+    private int intGeneration; // Generation of the current journal file
+    private long lngAppended; // Bytes appended since the journal was opened
+    private long lngDurable; // Bytes appended and synced to disk
+    private long lngGenerationBytes; // Bytes in the current journal file
+    private boolean blnFlushing; // A thread is writing to the channel
+    private boolean blnCompacting; // A background compaction is running
+    private boolean blnClosed; // The journal has been closed
+    private IOException failure; // The first write error, after which the journal stops
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentJournal
+     *
+     * Description:
+     * Creates a journal appending to a new journal file of the given
+     * generation and starts its flusher thread. Use open to create one.
+     *
+     * Parameters:
+     * directory       Where the snapshots and journal files live
+     * lngFlushMillis  Group commit interval
+     * lngCompactBytes Journal size that triggers compaction
+     * intGeneration   Generation of the first journal file
+     *
+     * Restrictions:
+     * Throws IOException if the journal file cannot be created.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private StudentJournal(Path directory, long lngFlushMillis, long lngCompactBytes, int intGeneration) throws IOException {
+        this.directory = directory;
+        this.lngFlushMillis = lngFlushMillis;
+        this.lngCompactBytes = lngCompactBytes;
+        this.intGeneration = intGeneration;
+        this.channel = createJournal(directory, intGeneration);
+
+        this.flusher = new Thread(this::runFlusher, "student-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * open
+     *
+     * Description:
+     * Opens a journal in a directory with the default flush interval and
+     * compaction size. See the other open method.
+     *
+     * Parameters:
+     * directory Where the snapshots and journal files live
+     *
+     * Restrictions:
+     * Throws IOException if the directory cannot be read or written.
+     *
+     * Return:
+     * The open journal
+     *********************************************************************/
+    public static StudentJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_FLUSH_MILLIS, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * open
+     *
+     * Description:
+     * Loads the snapshots in a directory, replays its journal files on
+     * top of them, and starts journaling every later student change to a
+     * new journal file. Only one journal can be open at a time.
+     *
+     * Parameters:
+     * directory       Where the snapshots and journal files live
+     * lngFlushMillis  Longest time a change waits before it is written
+     * lngCompactBytes Journal size that triggers compaction
+     *
+     * Restrictions:
+     * Throws IllegalStateException if a journal is already open, and
+     * IOException if the directory cannot be read or written or holds a
+     * file that is not a snapshot or journal.
+     *
+     * Return:
+     * The open journal
+     *********************************************************************/
+    public static StudentJournal open(Path directory, long lngFlushMillis, long lngCompactBytes) throws IOException {
+        if (directory == null)
+            throw new IllegalArgumentException("Directory cannot be null");
+        if (lngFlushMillis <= 0 || lngCompactBytes <= 0)
+            throw new IllegalArgumentException("Flush interval and compaction size must be positive");
+
+        synchronized (StudentJournal.class) {
+            if (active != null)
+                throw new IllegalStateException("A student journal is already open");
+
+            Files.createDirectories(directory);
+            Path credentials = directory.resolve(CREDENTIALS_FILE);
+            if (Files.exists(credentials))
+                CredentialStore.getDefault().load(credentials);
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                for (Student student : StudentFile.read(snapshot)) {
+                    Auth.reserveID(student.getID());
+                    StudentRegistry.put(student);
+                }
+            }
+
+            ArrayList<Integer> generations = listGenerations(directory);
+            ArrayMap<String, CourseSection[]> sections = StudentFile.sectionsByCode();
+            for (int intGeneration : generations)
+                replay(journalFile(directory, intGeneration), sections);
+            Student.rebuildGPAs(); // Loaded students start without running grade totals
+
+            int intNext = generations.isEmpty() ? 1 : generations.get(generations.size() - 1) + 1;
+            StudentJournal journal = new StudentJournal(directory, lngFlushMillis, lngCompactBytes, intNext);
+            active = journal;
+            return journal;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * sync
+     *
+     * Description:
+     * Waits until every change recorded before the call is on disk.
+     * Callers that sync at the same time share one write and one fsync.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the journal could not be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void sync() throws IOException {
+        long lngTarget;
+        synchronized (lock) {
+            lngTarget = lngAppended;
+        }
+        while (true) {
+            synchronized (lock) {
+                if (failure != null)
+                    throw failure;
+                if (lngDurable >= lngTarget)
+                    return;
+                if (blnFlushing) {
+                    awaitChange();
+                    continue;
+                }
+            }
+            flush();
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * compact
+     *
+     * Description:
+     * Folds the journal into the snapshots. New changes are switched to a
+     * fresh journal file first, so students can keep changing while the
+     * snapshot is written; the older journal files are deleted once both
+     * snapshots are safely on disk.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the journal or a snapshot cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            int intOldGeneration = rotate();
+            StudentFile.write(directory.resolve(SNAPSHOT_FILE), StudentRegistry.list());
+            CredentialStore.getDefault().save(directory.resolve(CREDENTIALS_FILE));
+            for (int intGeneration : listGenerations(directory)) {
+                if (intGeneration <= intOldGeneration)
+                    Files.deleteIfExists(journalFile(directory, intGeneration));
+            }
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * close
+     *
+     * Description:
+     * Stops journaling, writes and syncs every buffered change, and
+     * closes the journal file. Later student changes are not journaled.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the remaining changes cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    @Override
+    public void close() throws IOException {
+        synchronized (StudentJournal.class) {
+            if (active == this)
+                active = null;
+        }
+        synchronized (lock) {
+            if (blnClosed)
+                return;
+        }
+        try {
+            sync();
+        } finally {
+            synchronized (lock) {
+                blnClosed = true;
+                lock.notifyAll();
+                while (blnFlushing)
+                    awaitUninterruptibly();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    /* GETTERS */
+
+    /**********************************************************************
+     * Method name:
+     * getActive
+     *
+     * Description:
+     * Returns the journal that is currently recording student changes.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The open journal, or null if none is open
+     *********************************************************************/
+    public static StudentJournal getActive() {
+        return active;
+    }
+
+    /* RECORDING METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * recordAdd
+     *
+     * Description:
+     * Records a student that was added to the registry, with all of its
+     * fields, including the SIN.
+     *
+     * Parameters:
+     * student The added student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordAdd(Student student) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_ADD, student.getID());
+        record.putByte(StudentFile.kindOf(student));
+        record.putInt(student.sinForStorage());
+        record.putByte((byte) student.getAge());
+        record.putByte((byte) student.getStatusFlags());
+        record.putInt(student.getCreditsEarned());
+        record.putInt(student.getVolunteerHoursCompleted());
+        record.putDouble(student.getGPA());
+        record.putString(student.getName());
+        putDetails(record, student);
+        putTimetable(record, student);
+        journal.append(record.finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordRemove
+     *
+     * Description:
+     * Records that a student was removed from the registry.
+     *
+     * Parameters:
+     * intID The removed student's ID
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordRemove(int intID) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        journal.append(scratch.get().begin(RECORD_REMOVE, intID).finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordVolunteerHours
+     *
+     * Description:
+     * Records a student's new volunteer hour count.
+     *
+     * Parameters:
+     * student The changed student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordVolunteerHours(Student student) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_VOLUNTEER_HOURS, student.getID());
+        record.putInt(student.getVolunteerHoursCompleted());
+        journal.append(record.finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordStatus
+     *
+     * Description:
+     * Records a student's new status flags.
+     *
+     * Parameters:
+     * student The changed student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordStatus(Student student) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_STATUS, student.getID());
+        record.putByte((byte) student.getStatusFlags());
+        journal.append(record.finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordPassword
+     *
+     * Description:
+     * Records a student's new password hash. The password itself is never
+     * written to the journal.
+     *
+     * Parameters:
+     * student The changed student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordPassword(Student student) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        byte[] credential = CredentialStore.getDefault().exportCredential(student.getID());
+        if (credential == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_PASSWORD, student.getID());
+        record.putBytes(credential);
+        journal.append(record.finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordTimetable
+     *
+     * Description:
+     * Records a student's timetable after a course was added or removed.
+     *
+     * Parameters:
+     * student The changed student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void recordTimetable(Student student) {
+        StudentJournal journal = active;
+        if (journal == null || student == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_TIMETABLE, student.getID());
+        putTimetable(record, student);
+        journal.append(record.finish());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * recordDetails
+     *
+     * Description:
+     * Records the program fields of an SHSM or HPP student (COOP
+     * placement and completion, or sport, team and position).
+     *
+     * Parameters:
+     * student The changed student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void recordDetails(Student student) {
+        StudentJournal journal = active;
+        if (journal == null)
+            return;
+        RecordBuffer record = scratch.get().begin(RECORD_DETAILS, student.getID());
+        record.putByte(StudentFile.kindOf(student));
+        putDetails(record, student);
+        journal.append(record.finish());
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * append
+     *
+     * Description:
+     * Adds an encoded record to the write buffer. If the flusher has
+     * fallen far behind, the caller waits for it to catch up so the buffer
+     * stays bounded.
+     *
+     * Parameters:
+     * record The encoded record, ready to read
+     *
+     * Restrictions:
+     * Throws IllegalStateException if the journal is closed or failed.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void append(ByteBuffer record) {
+        synchronized (lock) {
+            while (failure == null && !blnClosed && pending.position() >= MAX_PENDING_BYTES) {
+                lock.notifyAll();
+                awaitUninterruptibly();
+            }
+            if (blnClosed)
+                throw new IllegalStateException("Student journal is closed");
+            if (failure != null)
+                throw new IllegalStateException("Student journal could not be written", failure);
+
+            if (pending.remaining() < record.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.remaining()));
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            lngAppended += record.remaining();
+            pending.put(record);
+            if (pending.position() >= FLUSH_BYTES)
+                lock.notifyAll();
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * flush
+     *
+     * Description:
+     * Writes and syncs everything buffered so far. Only one thread writes
+     * at a time; records appended meanwhile go into the other buffer and
+     * are written by the next flush.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the journal cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void flush() throws IOException {
+        ByteBuffer out;
+        FileChannel target;
+        long lngTarget;
+        synchronized (lock) {
+            while (blnFlushing)
+                awaitChange();
+            if (failure != null)
+                throw failure;
+            if (pending.position() == 0)
+                return;
+            blnFlushing = true;
+            out = pending;
+            pending = spare;
+            spare = null;
+            target = channel;
+            lngTarget = lngAppended;
+        }
+
+        IOException error = null;
+        long lngWritten = out.position();
+        try {
+            out.flip();
+            while (out.hasRemaining())
+                target.write(out);
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        boolean blnCompactNow = false;
+        synchronized (lock) {
+            out.clear();
+            spare = out;
+            blnFlushing = false;
+            if (error != null) {
+                failure = error;
+            } else {
+                lngDurable = lngTarget;
+                lngGenerationBytes += lngWritten;
+                if (lngGenerationBytes >= lngCompactBytes && !blnCompacting && !blnClosed) {
+                    blnCompacting = true;
+                    blnCompactNow = true;
+                }
+            }
+            lock.notifyAll();
+        }
+        if (error != null)
+            throw error;
+        if (blnCompactNow)
+            startCompaction();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * rotate
+     *
+     * Description:
+     * Writes everything buffered so far to the current journal file,
+     * closes it, and switches to a new file one generation later.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if either file cannot be written.
+     *
+     * Return:
+     * The generation of the closed journal file
+     *********************************************************************/
+    private int rotate() throws IOException {
+        ByteBuffer out;
+        FileChannel previous;
+        int intPrevious;
+        long lngTarget;
+        synchronized (lock) {
+            while (blnFlushing)
+                awaitChange();
+            if (failure != null)
+                throw failure;
+            if (blnClosed)
+                throw new IllegalStateException("Student journal is closed");
+            blnFlushing = true;
+            out = pending;
+            pending = spare;
+            spare = null;
+            previous = channel;
+            intPrevious = intGeneration;
+            lngTarget = lngAppended;
+        }
+
+        IOException error = null;
+        FileChannel next = null;
+        try {
+            out.flip();
+            while (out.hasRemaining())
+                previous.write(out);
+            previous.force(false);
+            previous.close();
+            next = createJournal(directory, intPrevious + 1);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            out.clear();
+            spare = out;
+            blnFlushing = false;
+            if (error != null) {
+                failure = error;
+            } else {
+                lngDurable = lngTarget;
+                channel = next;
+                intGeneration = intPrevious + 1;
+                lngGenerationBytes = 0;
+            }
+            lock.notifyAll();
+        }
+        if (error != null)
+            throw error;
+        return intPrevious;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * startCompaction
+     *
+     * Description:
+     * Compacts the journal on a background thread, so the flusher keeps
+     * writing while the snapshot is saved.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void startCompaction() {
+        Thread compactor = new Thread(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                // The journal still holds every record, so nothing is lost; report the cause
+                System.err.println("Error compacting the student journal: " + e);
+                e.printStackTrace();
+            } finally {
+                synchronized (lock) {
+                    blnCompacting = false;
+                }
+            }
+        }, "student-journal-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * runFlusher
+     *
+     * Description:
+     * Body of the flusher thread: every flush interval, or sooner when a
+     * lot has been buffered, writes and syncs all buffered records at
+     * once. Stops when the journal is closed or a write fails.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void runFlusher() {
+        while (true) {
+            synchronized (lock) {
+                if (blnClosed)
+                    return;
+                try {
+                    lock.wait(lngFlushMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (blnClosed)
+                    return;
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                return; // Recorded in failure and reported to later callers
+            }
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * awaitChange
+     *
+     * Description:
+     * Waits on the lock for another thread to finish a flush. Must be
+     * called while holding the lock.
+     *
+     * Parameters:
+     * None
+     *
+     * Restrictions:
+     * Throws InterruptedIOException if the thread is interrupted.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void awaitChange() throws InterruptedIOException {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the student journal");
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * awaitUninterruptibly
+     *
+     * Description:
+     * Waits on the lock, keeping the interrupt flag set for later instead
+     * of giving up. Used where the caller cannot report an error. Must be
+     * called while holding the lock.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private void awaitUninterruptibly() {
+        try {
+            lock.wait(lngFlushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * createJournal
+     *
+     * Description:
+     * Creates an empty journal file with its header written and synced.
+     *
+     * Parameters:
+     * directory     The journal directory
+     * intGeneration The generation of the new file
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be created.
+     *
+     * Return:
+     * A channel positioned after the header
+     *********************************************************************/
+    private static FileChannel createJournal(Path directory, int intGeneration) throws IOException {
+        FileChannel created = FileChannel.open(journalFile(directory, intGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(intGeneration).flip();
+            while (header.hasRemaining())
+                created.write(header);
+            created.force(true);
+            return created;
+        } catch (IOException e) {
+            created.close();
+            throw e;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * journalFile
+     *
+     * Description:
+     * Returns the path of the journal file for a generation.
+     *
+     * Parameters:
+     * directory     The journal directory
+     * intGeneration The generation
+     *
+     * Return:
+     * The journal file path
+     *********************************************************************/
+    private static Path journalFile(Path directory, int intGeneration) {
+        return directory.resolve(String.format("%s%08d%s", JOURNAL_PREFIX, intGeneration, JOURNAL_SUFFIX));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * listGenerations
+     *
+     * Description:
+     * Finds the journal files in a directory.
+     *
+     * Parameters:
+     * directory The journal directory
+     *
+     * Restrictions:
+     * Throws IOException if the directory cannot be listed.
+     *
+     * Return:
+     * The generations found, oldest first
+     *********************************************************************/
+    private static ArrayList<Integer> listGenerations(Path directory) throws IOException {
+        ArrayList<Integer> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path file : files) {
+                String strName = file.getFileName().toString();
+                String strNumber = strName.substring(JOURNAL_PREFIX.length(), strName.length() - JOURNAL_SUFFIX.length());
+                try {
+                    generations.add(Integer.parseInt(strNumber));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * replay
+     *
+     * Description:
+     * Applies every complete record in a journal file, in order. A torn
+     * or corrupt record ends the replay, and it and anything after it are
+     * cut off the file.
+     *
+     * Parameters:
+     * file     The journal file
+     * sections Existing course sections by course code
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a journal.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void replay(Path file, ArrayMap<String, CourseSection[]> sections) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long lngSize = in.size();
+            if (lngSize > Integer.MAX_VALUE)
+                throw new IOException("Student journal is too large: " + file);
+            ByteBuffer data = ByteBuffer.allocate((int) lngSize);
+            while (data.hasRemaining() && in.read(data) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            data.flip();
+
+            if (data.remaining() < HEADER_BYTES || data.getInt() != FILE_MAGIC)
+                throw new IOException("Not a student journal: " + file);
+            int intVersion = data.getInt();
+            if (intVersion != FILE_VERSION)
+                throw new IOException("Unsupported student journal version " + intVersion + ": " + file);
+            data.getInt(); // Generation, implied by the file name
+
+            CRC32C crc = new CRC32C();
+            int intGood = data.position();
+            while (data.remaining() >= Integer.BYTES) {
+                int intLength = data.getInt(intGood);
+                if (intLength <= 0 || intLength > data.remaining() - 2 * Integer.BYTES)
+                    break;
+                int intBody = intGood + Integer.BYTES;
+                crc.reset();
+                crc.update(data.array(), intBody, intLength);
+                if ((int) crc.getValue() != data.getInt(intBody + intLength))
+                    break;
+                apply(data.slice(intBody, intLength), sections);
+                intGood = intBody + intLength + Integer.BYTES;
+                data.position(intGood);
+            }
+            if (intGood < lngSize)
+                in.truncate(intGood);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * apply
+     *
+     * Description:
+     * Applies one record body to the registry or the credential store.
+     * Changes to students that no longer exist are skipped.
+     *
+     * Parameters:
+     * body     The record body
+     * sections Existing course sections by course code
+     *
+     * Restrictions:
+     * Throws IOException if the record type is unknown.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void apply(ByteBuffer body, ArrayMap<String, CourseSection[]> sections) throws IOException {
+        byte type = body.get();
+        int intID = body.getInt();
+        if (type == RECORD_ADD) {
+            byte kind = body.get();
+            int intSIN = body.getInt();
+            int intAge = body.get() & 0xFF;
+            int intStatus = body.get() & Student.STATUS_MASK;
+            int intCredits = body.getInt();
+            int intHours = body.getInt();
+            double dblGPA = body.getDouble();
+            String strName = getString(body);
+            Student student;
+            if (kind == StudentFile.KIND_SHSM) {
+                String strPlacement = getString(body);
+                boolean blnCompleted = body.get() != 0;
+                student = new SHSMStudent(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA,
+                        getTimetable(body, sections), intStatus, strPlacement, blnCompleted);
+            } else if (kind == StudentFile.KIND_HPP) {
+                String strSport = getString(body);
+                String strTeam = getString(body);
+                String strPosition = getString(body);
+                student = new HPPStudent(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA,
+                        getTimetable(body, sections), intStatus, strSport, strTeam, strPosition);
+            } else {
+                student = new Student(intID, intSIN, intAge, strName, intCredits, intHours, dblGPA,
+                        getTimetable(body, sections), intStatus);
+            }
+            Auth.reserveID(intID);
+            StudentRegistry.put(student);
+            return;
+        }
+        if (type == RECORD_REMOVE) {
+            StudentRegistry.remove(intID);
+            return;
+        }
+        if (type == RECORD_PASSWORD) {
+            byte[] credential = new byte[body.remaining()];
+            body.get(credential);
+            CredentialStore.getDefault().importCredential(intID, credential);
+            return;
+        }
+
+        Student student = StudentRegistry.find(intID);
+        switch (type) {
+            case RECORD_VOLUNTEER_HOURS:
+                if (student != null)
+                    student.setVolunteerHours(body.getInt());
+                break;
+            case RECORD_STATUS:
+                if (student != null)
+                    student.setStatusFlags(body.get() & Student.STATUS_MASK);
+                break;
+            case RECORD_TIMETABLE:
+                if (student != null)
+                    student.restoreTimetable(getTimetable(body, sections));
+                break;
+            case RECORD_DETAILS:
+                byte kind = body.get();
+                if (kind == StudentFile.KIND_SHSM && student instanceof SHSMStudent) {
+                    String strPlacement = getString(body);
+                    ((SHSMStudent) student).restoreCOOP(strPlacement, body.get() != 0);
+                } else if (kind == StudentFile.KIND_HPP && student instanceof HPPStudent) {
+                    String strSport = getString(body);
+                    String strTeam = getString(body);
+                    ((HPPStudent) student).restoreSport(strSport, strTeam, getString(body));
+                }
+                break;
+            default:
+                throw new IOException("Unknown student journal record type " + type);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * putDetails
+     *
+     * Description:
+     * Encodes the program fields of an SHSM or HPP student. Plain students
+     * have none.
+     *
+     * Parameters:
+     * record  The record being encoded
+     * student The student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void putDetails(RecordBuffer record, Student student) {
+        if (student instanceof SHSMStudent) {
+            SHSMStudent shsm = (SHSMStudent) student;
+            record.putString(shsm.getCOOPPlacement());
+            record.putByte((byte) (shsm.hasCompletedCOOP() ? 1 : 0));
+        } else if (student instanceof HPPStudent) {
+            HPPStudent hpp = (HPPStudent) student;
+            record.putString(hpp.getSport());
+            record.putString(hpp.getTeam());
+            record.putString(hpp.getPosition());
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * putTimetable
+     *
+     * Description:
+     * Encodes a student's timetable as its slot count (-1 if it has no
+     * course array) and the course code and section number of each slot.
+     *
+     * Parameters:
+     * record  The record being encoded
+     * student The student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void putTimetable(RecordBuffer record, Student student) {
+        Timetable timetable = student.timetableForStorage();
+        CourseSection[] slots = timetable == null ? null : timetable.getTt();
+        if (slots == null) {
+            record.putByte((byte) -1);
+            return;
+        }
+        if (slots.length > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Timetable of student " + student.getID() + " is too long to journal");
+        record.putByte((byte) slots.length);
+        for (CourseSection section : slots) {
+            record.putString(section == null ? null : section.getCourseCode());
+            record.putByte((byte) (section == null ? 0 : section.getSectionNumber()));
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getTimetable
+     *
+     * Description:
+     * Decodes a timetable written by putTimetable, linking each slot to
+     * the existing course section, or leaving it empty if there is none.
+     *
+     * Parameters:
+     * body     The record body
+     * sections Existing course sections by course code
+     *
+     * Return:
+     * The decoded timetable
+     *********************************************************************/
+    private static Timetable getTimetable(ByteBuffer body, ArrayMap<String, CourseSection[]> sections) {
+        Timetable timetable = new Timetable();
+        int intSlots = body.get();
+        if (intSlots < 0)
+            return timetable;
+        CourseSection[] slots = new CourseSection[intSlots];
+        for (int i = 0; i < intSlots; i++) {
+            String strCode = getString(body);
+            int intSection = body.get();
+            CourseSection[] byNumber = strCode == null ? null : sections.get(strCode);
+            if (byNumber != null && intSection >= 1 && intSection <= byNumber.length)
+                slots[i] = byNumber[intSection - 1];
+        }
+        timetable.setTimetable(slots);
+        return timetable;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * getString
+     *
+     * Description:
+     * Decodes a string written by RecordBuffer.putString.
+     *
+     * Parameters:
+     * body The record body
+     *
+     * Return:
+     * The string, or null
+     *********************************************************************/
+    private static String getString(ByteBuffer body) {
+        int intLength = body.getInt();
+        if (intLength < 0)
+            return null;
+        String str = new String(body.array(), body.arrayOffset() + body.position(), intLength, StandardCharsets.UTF_8);
+        body.position(body.position() + intLength);
+        return str;
+    }
+
+    /* *************************************************************************
+     * Private Nested Class: RecordBuffer
+     *
+     * Description:
+     * This class encodes one record at a time into a reusable per-thread
+     * buffer, so recording a change allocates nothing in the common case
+     * and the checksum is computed outside the journal lock.
+     *************************************************************************/
+    private static final class RecordBuffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+        private final CRC32C crc = new CRC32C();
+
+        RecordBuffer begin(byte type, int intID) {
+            buffer.clear();
+            buffer.putInt(0); // Body length, filled in by finish
+            buffer.put(type);
+            buffer.putInt(intID);
+            return this;
+        }
+
+        void putByte(byte value) {
+            ensure(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putString(String str) {
+            if (str == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        ByteBuffer finish() {
+            int intLength = buffer.position() - Integer.BYTES;
+            buffer.putInt(0, intLength);
+            crc.reset();
+            crc.update(buffer.array(), Integer.BYTES, intLength);
+            putInt((int) crc.getValue());
+            buffer.flip();
+            return buffer;
+        }
+
+        private void ensure(int intBytes) {
+            if (buffer.remaining() >= intBytes)
+                return;
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + intBytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    } /* End of RecordBuffer class */
+
+} /* End of StudentJournal class */
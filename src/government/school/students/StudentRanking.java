@@ -0,0 +1,619 @@
+package government.school.students;
+
+import government.school.util.IntLongMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**************************************************************************
+ * File name:
+ * StudentRanking.java
+ *
+ * Description:
+ * This file contains the StudentRanking class, an order-statistics index
+ * of registered students by GPA that answers class rank, percentile and
+ * top-K queries within a program (regular, SHSM or HPP), a grade level,
+ * both, or the whole school, without sorting any students.
+ *
+ * GPAs are ranked to the nearest thousandth, so the index counts students
+ * in 4,001 GPA buckets. Each cohort (every program and grade combination,
+ * with "all" allowed for either) keeps a Fenwick tree of its bucket
+ * counts, highest GPA first, so the number of students above a GPA is a
+ * prefix sum that takes O(log n) time to read or update. Each program and
+ * grade also lists the students in each bucket, so the top K students are
+ * read bucket by bucket, from the highest, without looking at the rest.
+ *
+ * The school does not record grade levels, so a student's grade is taken
+ * from their age: students start grade 9 the year they turn 14, and the
+ * grade is kept between 9 and 12. The registry keeps the index current
+ * as students are registered, removed, regraded or have their age
+ * changed.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Order statistics, Fenwick (binary indexed) trees, Bucketing,
+ * Incremental maintenance
+ **************************************************************************/
+
+public final class StudentRanking {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final int ALL = -1; // Matches every program or every grade level
+    public static final int PROGRAM_REGULAR = 0; // Students in no special program
+    public static final int PROGRAM_SHSM = 1; // Specialist High Skills Major students
+    public static final int PROGRAM_HPP = 2; // High Performance Program students
+    public static final int FIRST_GRADE = 9; // Lowest grade level
+    public static final int LAST_GRADE = 12; // Highest grade level
+
+    private static final int PROGRAMS = 3; // Number of programs
+    private static final int GRADES = LAST_GRADE - FIRST_GRADE + 1; // Number of grade levels
+    private static final int GRADE_AGE_OFFSET = 5; // A student's grade level is their age minus this
+    private static final int GPA_STEPS = 1000; // GPA buckets per grade point
+    private static final int BUCKETS = 4 * GPA_STEPS + 1; // GPA buckets from 0.000 to 4.000
+
+    // Per cohort, a Fenwick tree of students per GPA bucket, highest GPA at index 1
+    private static final int[][] trees = new int[(PROGRAMS + 1) * (GRADES + 1)][BUCKETS + 1];
+    // Per program, grade level and GPA bucket (a slot), the students in it
+    private static final Student[][] members = new Student[PROGRAMS * GRADES * BUCKETS][];
+    private static final int[] sizes = new int[PROGRAMS * GRADES * BUCKETS]; // Students per slot
+    private static final IntLongMap locations = new IntLongMap(); // ID to slot (high half) and position
+
+    private static final Comparator<Student> BY_GPA = Comparator.comparingDouble(Student::getGPA).reversed()
+            .thenComparingInt(Student::getID); // Highest GPA first, ties by ID
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentRanking
+     *
+     * Description:
+     * The class only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentRanking() {
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * rank
+     *
+     * Description:
+     * Returns a registered student's rank by GPA in the whole school.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the student is not registered.
+     *
+     * Return:
+     * 1 plus the number of students with a higher GPA
+     *********************************************************************/
+    public static int rank(Student student) {
+        return rank(student, ALL, ALL);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * rank
+     *
+     * Description:
+     * Returns a registered student's rank by GPA within a program and
+     * grade level. Students whose GPAs round to the same thousandth share
+     * a rank.
+     *
+     * Parameters:
+     * student    The student
+     * intProgram PROGRAM_REGULAR, PROGRAM_SHSM, PROGRAM_HPP or ALL
+     * intGrade   A grade level from FIRST_GRADE to LAST_GRADE, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the student is not registered,
+     * or is not in the given program and grade level.
+     *
+     * Return:
+     * 1 plus the number of students in the cohort with a higher GPA
+     *********************************************************************/
+    public static synchronized int rank(Student student, int intProgram, int intGrade) {
+        int[] tree = trees[cohortIndex(intProgram, intGrade)];
+        int intBucket = bucketInCohort(student, intProgram, intGrade);
+        return prefix(tree, treeIndex(intBucket) - 1) + 1;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * percentile
+     *
+     * Description:
+     * Returns the percentage of a program and grade level whose GPA is at
+     * or below a registered student's. The top student is at 100.
+     *
+     * Parameters:
+     * student    The student
+     * intProgram PROGRAM_REGULAR, PROGRAM_SHSM, PROGRAM_HPP or ALL
+     * intGrade   A grade level from FIRST_GRADE to LAST_GRADE, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the student is not registered,
+     * or is not in the given program and grade level.
+     *
+     * Return:
+     * The student's percentile, from above 0 to 100
+     *********************************************************************/
+    public static synchronized double percentile(Student student, int intProgram, int intGrade) {
+        int[] tree = trees[cohortIndex(intProgram, intGrade)];
+        int intBucket = bucketInCohort(student, intProgram, intGrade);
+        int intCount = prefix(tree, BUCKETS);
+        int intAbove = prefix(tree, treeIndex(intBucket) - 1);
+        return 100.0 * (intCount - intAbove) / intCount;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * count
+     *
+     * Description:
+     * Returns the number of registered students in a program and grade
+     * level.
+     *
+     * Parameters:
+     * intProgram PROGRAM_REGULAR, PROGRAM_SHSM, PROGRAM_HPP or ALL
+     * intGrade   A grade level from FIRST_GRADE to LAST_GRADE, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the program or grade is unknown.
+     *
+     * Return:
+     * The number of students in the cohort
+     *********************************************************************/
+    public static synchronized int count(int intProgram, int intGrade) {
+        return prefix(trees[cohortIndex(intProgram, intGrade)], BUCKETS);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * top
+     *
+     * Description:
+     * Returns the K registered students with the highest GPAs in a
+     * program and grade level, highest first and ties by ID. Only the
+     * GPA buckets that hold those students are visited, each found with
+     * one O(log n) search of the cohort's tree.
+     *
+     * Parameters:
+     * intCount   K, the most students to return
+     * intProgram PROGRAM_REGULAR, PROGRAM_SHSM, PROGRAM_HPP or ALL
+     * intGrade   A grade level from FIRST_GRADE to LAST_GRADE, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the count is negative or the
+     * program or grade is unknown.
+     *
+     * Return:
+     * A new list of at most intCount students
+     *********************************************************************/
+    public static synchronized ArrayList<Student> top(int intCount, int intProgram, int intGrade) {
+        if (intCount < 0)
+            throw new IllegalArgumentException("Count cannot be negative");
+        int[] tree = trees[cohortIndex(intProgram, intGrade)];
+        int intWanted = Math.min(intCount, prefix(tree, BUCKETS));
+        ArrayList<Student> result = new ArrayList<>(intWanted);
+        int intGradeFilter = intGrade == ALL ? ALL : intGrade - FIRST_GRADE;
+
+        while (result.size() < intWanted) {
+            // The next non-empty bucket holds the student after the ones taken so far
+            int intBucket = BUCKETS - lowerBound(tree, result.size() + 1);
+            int intStart = result.size();
+            for (int p = first(intProgram); p <= last(intProgram, PROGRAMS); p++) {
+                for (int g = first(intGradeFilter); g <= last(intGradeFilter, GRADES); g++) {
+                    int intSlot = slot(p, g, intBucket);
+                    for (int i = 0; i < sizes[intSlot]; i++)
+                        result.add(members[intSlot][i]);
+                }
+            }
+            result.subList(intStart, result.size()).sort(BY_GPA);
+        }
+        result.subList(intWanted, result.size()).clear();
+        return result;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * programOf
+     *
+     * Description:
+     * Returns the program a student is ranked in.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * PROGRAM_SHSM, PROGRAM_HPP or PROGRAM_REGULAR
+     *********************************************************************/
+    public static int programOf(Student student) {
+        if (student instanceof SHSMStudent)
+            return PROGRAM_SHSM;
+        if (student instanceof HPPStudent)
+            return PROGRAM_HPP;
+        return PROGRAM_REGULAR;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * gradeLevelOf
+     *
+     * Description:
+     * Returns the grade level a student is ranked in, taken from their
+     * age and kept between FIRST_GRADE and LAST_GRADE.
+     *
+     * Parameters:
+     * student The student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * The grade level
+     *********************************************************************/
+    public static int gradeLevelOf(Student student) {
+        return Math.min(LAST_GRADE, Math.max(FIRST_GRADE, student.getAge() - GRADE_AGE_OFFSET));
+    }
+
+    /* INDEX MAINTENANCE METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * update
+     *
+     * Description:
+     * Indexes a registered student under their current program, grade
+     * level and GPA, moving them if they were indexed elsewhere and
+     * replacing any other student indexed under the same ID. The caller
+     * holds the student's lock.
+     *
+     * Parameters:
+     * student The registered student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static synchronized void update(Student student) {
+        int intSlot = slot(programOf(student), gradeLevelOf(student) - FIRST_GRADE, bucketOf(student.getGPA()));
+        long lngLocation = locations.getOrDefault(student.getID(), -1L);
+        if (lngLocation >= 0) {
+            int intOldSlot = (int) (lngLocation >>> 32);
+            int intPosition = (int) lngLocation;
+            if (intOldSlot == intSlot) {
+                members[intSlot][intPosition] = student;
+                return;
+            }
+            removeAt(intOldSlot, intPosition);
+        }
+
+        Student[] slotMembers = members[intSlot];
+        int intSize = sizes[intSlot];
+        if (slotMembers == null || intSize == slotMembers.length) {
+            slotMembers = slotMembers == null ? new Student[4] : Arrays.copyOf(slotMembers, intSize * 2);
+            members[intSlot] = slotMembers;
+        }
+        slotMembers[intSize] = student;
+        sizes[intSlot] = intSize + 1;
+        locations.put(student.getID(), (long) intSlot << 32 | intSize);
+        adjust(intSlot, 1);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * remove
+     *
+     * Description:
+     * Removes a student from the index, unless another student has since
+     * been indexed under the same ID.
+     *
+     * Parameters:
+     * student The student to remove
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static synchronized void remove(Student student) {
+        long lngLocation = locations.getOrDefault(student.getID(), -1L);
+        if (lngLocation < 0)
+            return;
+        int intSlot = (int) (lngLocation >>> 32);
+        int intPosition = (int) lngLocation;
+        if (members[intSlot][intPosition] == student)
+            removeAt(intSlot, intPosition);
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * removeAt
+     *
+     * Description:
+     * Removes the student at a position in a slot, moving the slot's last
+     * student into the gap.
+     *
+     * Parameters:
+     * intSlot     The slot
+     * intPosition The student's position in the slot
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void removeAt(int intSlot, int intPosition) {
+        Student[] slotMembers = members[intSlot];
+        int intLast = --sizes[intSlot];
+        locations.remove(slotMembers[intPosition].getID());
+        if (intPosition != intLast) {
+            slotMembers[intPosition] = slotMembers[intLast];
+            locations.put(slotMembers[intPosition].getID(), (long) intSlot << 32 | intPosition);
+        }
+        slotMembers[intLast] = null;
+        adjust(intSlot, -1);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * adjust
+     *
+     * Description:
+     * Adds to a slot's GPA bucket in the four cohort trees that contain
+     * the slot: its program and grade, its program, its grade, and the
+     * whole school.
+     *
+     * Parameters:
+     * intSlot  The slot
+     * intDelta The change in the number of students
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void adjust(int intSlot, int intDelta) {
+        int intBucket = intSlot % BUCKETS;
+        int intGrade = intSlot / BUCKETS % GRADES;
+        int intProgram = intSlot / BUCKETS / GRADES;
+        int intIndex = treeIndex(intBucket);
+        add(trees[(intProgram + 1) * (GRADES + 1) + intGrade + 1], intIndex, intDelta);
+        add(trees[(intProgram + 1) * (GRADES + 1)], intIndex, intDelta);
+        add(trees[intGrade + 1], intIndex, intDelta);
+        add(trees[0], intIndex, intDelta);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * bucketInCohort
+     *
+     * Description:
+     * Returns the GPA bucket a student is indexed in, after checking that
+     * the student is the one registered under their ID and belongs to the
+     * program and grade level.
+     *
+     * Parameters:
+     * student    The student
+     * intProgram The program, or ALL
+     * intGrade   The grade level, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the student is not registered,
+     * or is not in the given program and grade level.
+     *
+     * Return:
+     * The student's GPA bucket
+     *********************************************************************/
+    private static int bucketInCohort(Student student, int intProgram, int intGrade) {
+        if (student == null)
+            throw new IllegalArgumentException("Student cannot be null");
+        long lngLocation = locations.getOrDefault(student.getID(), -1L);
+        int intSlot = (int) (lngLocation >>> 32);
+        if (lngLocation < 0 || members[intSlot][(int) lngLocation] != student)
+            throw new IllegalArgumentException("Student " + student.getID() + " is not registered");
+        if ((intProgram != ALL && intProgram != intSlot / BUCKETS / GRADES)
+                || (intGrade != ALL && intGrade - FIRST_GRADE != intSlot / BUCKETS % GRADES))
+            throw new IllegalArgumentException("Student " + student.getID() + " is not in the given program and grade");
+        return intSlot % BUCKETS;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * cohortIndex
+     *
+     * Description:
+     * Returns the tree of a program and grade level, either of which may
+     * be ALL.
+     *
+     * Parameters:
+     * intProgram The program, or ALL
+     * intGrade   The grade level, or ALL
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the program or grade is unknown.
+     *
+     * Return:
+     * The index of the cohort's tree
+     *********************************************************************/
+    private static int cohortIndex(int intProgram, int intGrade) {
+        if (intProgram < ALL || intProgram >= PROGRAMS)
+            throw new IllegalArgumentException("Unknown program: " + intProgram);
+        if (intGrade != ALL && (intGrade < FIRST_GRADE || intGrade > LAST_GRADE))
+            throw new IllegalArgumentException("Grade must be between " + FIRST_GRADE + " and " + LAST_GRADE);
+        return (intProgram + 1) * (GRADES + 1) + (intGrade == ALL ? 0 : intGrade - FIRST_GRADE + 1);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * slot
+     *
+     * Description:
+     * Returns the slot of a program, grade level and GPA bucket.
+     *
+     * Parameters:
+     * intProgram The program
+     * intGrade   The grade level, counted from FIRST_GRADE
+     * intBucket  The GPA bucket
+     *
+     * Return:
+     * The slot
+     *********************************************************************/
+    private static int slot(int intProgram, int intGrade, int intBucket) {
+        return (intProgram * GRADES + intGrade) * BUCKETS + intBucket;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * bucketOf
+     *
+     * Description:
+     * Returns the bucket of a GPA, rounded to the nearest thousandth and
+     * kept between 0 and 4.
+     *
+     * Parameters:
+     * dblGPA The GPA
+     *
+     * Return:
+     * The GPA bucket
+     *********************************************************************/
+    private static int bucketOf(double dblGPA) {
+        if (!(dblGPA > 0))
+            return 0;
+        return (int) Math.min(BUCKETS - 1, Math.round(dblGPA * GPA_STEPS));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * treeIndex
+     *
+     * Description:
+     * Returns the tree index of a GPA bucket; the highest GPA is at 1.
+     *
+     * Parameters:
+     * intBucket The GPA bucket
+     *
+     * Return:
+     * The tree index
+     *********************************************************************/
+    private static int treeIndex(int intBucket) {
+        return BUCKETS - intBucket;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * add
+     *
+     * Description:
+     * Adds to one index of a Fenwick tree.
+     *
+     * Parameters:
+     * tree     The tree
+     * intIndex The tree index, from 1
+     * intDelta The amount to add
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void add(int[] tree, int intIndex, int intDelta) {
+        for (int i = intIndex; i <= BUCKETS; i += i & -i)
+            tree[i] += intDelta;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * prefix
+     *
+     * Description:
+     * Returns the sum of a Fenwick tree's indexes 1 through intIndex.
+     *
+     * Parameters:
+     * tree     The tree
+     * intIndex The last index to include, or 0 for none
+     *
+     * Return:
+     * The sum
+     *********************************************************************/
+    private static int prefix(int[] tree, int intIndex) {
+        int intSum = 0;
+        for (int i = intIndex; i > 0; i -= i & -i)
+            intSum += tree[i];
+        return intSum;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * lowerBound
+     *
+     * Description:
+     * Returns the first tree index whose prefix sum reaches a target, by
+     * descending the tree one power of two at a time.
+     *
+     * Parameters:
+     * tree      The tree
+     * intTarget The target sum, from 1 to the tree's total
+     *
+     * Return:
+     * The tree index
+     *********************************************************************/
+    private static int lowerBound(int[] tree, int intTarget) {
+        int intIndex = 0;
+        for (int intStep = Integer.highestOneBit(BUCKETS); intStep > 0; intStep >>= 1) {
+            if (intIndex + intStep <= BUCKETS && tree[intIndex + intStep] < intTarget) {
+                intIndex += intStep;
+                intTarget -= tree[intIndex];
+            }
+        }
+        return intIndex + 1;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * first
+     *
+     * Description:
+     * Returns the first value a filter matches.
+     *
+     * Parameters:
+     * intFilter A value counted from 0, or ALL
+     *
+     * Return:
+     * The first matching value
+     *********************************************************************/
+    private static int first(int intFilter) {
+        return intFilter == ALL ? 0 : intFilter;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * last
+     *
+     * Description:
+     * Returns the last value a filter matches.
+     *
+     * Parameters:
+     * intFilter A value counted from 0, or ALL
+     * intValues The number of values
+     *
+     * Return:
+     * The last matching value
+     *********************************************************************/
+    private static int last(int intFilter, int intValues) {
+        return intFilter == ALL ? intValues - 1 : intFilter;
+    }
+
+} /* End of StudentRanking class */
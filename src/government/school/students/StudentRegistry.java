@@ -0,0 +1,469 @@
+package government.school.students;
+
+import government.school.util.ConcurrentArrayMap;
+import government.school.util.StatusIndex;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**************************************************************************
+ * File name:
+ * StudentRegistry.java
+ *
+ * Description:
+ * This file contains the StudentRegistry class, which holds every student
+ * record indexed by student ID. Lookup, registration and removal take
+ * constant time, and students can be registered from several threads at
+ * once. Iteration is weakly consistent: it never fails because of
+ * concurrent changes, but it may or may not see students registered or
+ * removed while it runs.
+ *
+ * The registry also keeps a status index: for each status flag, the set
+ * of registered students that have it. It is updated whenever a student
+ * is registered or removed and whenever a registered student's status
+ * changes, so listing the suspended, vacationing or graduated students
+ * takes time proportional to the number listed.
+ * StudentRanking, the GPA rank index, is kept current the same way.
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Static registries, Hash indexing, Lock striping, Weakly consistent iteration,
+ * Secondary indexes
+ **************************************************************************/
+
+public final class StudentRegistry {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int CONCURRENCY_LEVEL = 64; // Stripes in the ID index
+    private static final ConcurrentArrayMap<Integer, Student> studentsById =
+            new ConcurrentArrayMap<>(0, CONCURRENCY_LEVEL); // All students, keyed by ID
+    private static final AtomicInteger count = new AtomicInteger(); // Number of registered students
+    private static final StatusIndex<Student> byStatus =
+            new StatusIndex<>(Student.STATUS_BITS); // Registered students by status flag
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentRegistry
+     *
+     * Description:
+     * The registry only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentRegistry() {
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * register
+     *
+     * Description:
+     * Adds a newly constructed student to the registry.
+     *
+     * Parameters:
+     * student The student to add
+     *
+     * Restrictions:
+     * Throws IllegalStateException if another student already has the ID.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void register(Student student) {
+        if (student == null)
+            throw new IllegalArgumentException("Student cannot be null");
+        if (!studentsById.putIfAbsent(student.getID(), student))
+            throw new IllegalStateException("A student with ID " + student.getID() + " is already registered");
+        count.incrementAndGet();
+        index(student);
+        StudentJournal.recordAdd(student);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * put
+     *
+     * Description:
+     * Adds a student that was loaded from storage, replacing any student
+     * already registered under the same ID, so loading the same records
+     * twice never creates duplicates. A replaced student is taken out of
+     * the indexes under its own lock, like a removed one, and gives up
+     * their SIN.
+     *
+     * Parameters:
+     * student The student to add or replace
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void put(Student student) {
+        if (student == null)
+            throw new IllegalArgumentException("Student cannot be null");
+        Student previous = studentsById.get(student.getID());
+        if (studentsById.put(student.getID(), student))
+            count.incrementAndGet();
+        if (previous != null && previous != student) {
+            unindex(previous);
+            previous.retire();
+        }
+        index(student);
+        StudentJournal.recordAdd(student);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * putAll
+     *
+     * Description:
+     * Adds a batch of loaded students that all belong to one stripe of
+     * the ID index, replacing any already registered under the same IDs.
+     * The stripe is locked once for the whole batch, so parallel loaders
+     * that each own different stripes never wait on one another.
+     *
+     * Parameters:
+     * intStripe The stripe every student belongs to (see stripeOf)
+     * students  The students to add or replace
+     * intCount  How many students to take from the front of the array
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if a student belongs to another stripe.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void putAll(int intStripe, Student[] students, int intCount) {
+        if (students == null || intCount < 0 || intCount > students.length)
+            throw new IllegalArgumentException("Students must be non-null and hold the given count");
+        Integer[] ids = new Integer[intCount];
+        for (int i = 0; i < intCount; i++)
+            ids[i] = students[i].getID();
+        count.addAndGet(studentsById.putAllInStripe(intStripe, ids, students, intCount));
+        for (int i = 0; i < intCount; i++) {
+            index(students[i]);
+            StudentJournal.recordAdd(students[i]);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * remove
+     *
+     * Description:
+     * Removes the student with the given ID from the registry. The
+     * removed student gives up their SIN.
+     *
+     * Parameters:
+     * intID The student ID to remove
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * True if a student was removed, false if none had the ID
+     *********************************************************************/
+    public static boolean remove(int intID) {
+        Student student;
+        do {
+            student = studentsById.get(intID);
+            if (student == null)
+                return false;
+        } while (!studentsById.remove(intID, student));
+        count.decrementAndGet();
+        unindex(student);
+        student.retire();
+        StudentJournal.recordRemove(intID);
+        return true;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * statusChanged
+     *
+     * Description:
+     * Moves a student between the status index's sets after its status
+     * changes. Students that are not registered, including one that was
+     * replaced by another student with the same ID, are ignored. The
+     * caller holds the student's lock, which remove and put also take to
+     * unindex a student, so a student cannot be indexed again once it
+     * has been removed.
+     *
+     * Parameters:
+     * student  The student whose status changed
+     * intOld   The status flags before the change
+     * intNew   The status flags after the change
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void statusChanged(Student student, int intOld, int intNew) {
+        if (studentsById.get(student.getID()) == student)
+            byStatus.transition(student.getID(), student, intOld, intNew);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * rankingChanged
+     *
+     * Description:
+     * Moves a student in the GPA ranking after their GPA or age changes.
+     * Students that are not registered, including one that was replaced
+     * by another student with the same ID, are ignored. The caller holds
+     * the student's lock, as for statusChanged.
+     *
+     * Parameters:
+     * student The student whose GPA or age changed
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    static void rankingChanged(Student student) {
+        if (studentsById.get(student.getID()) == student)
+            StudentRanking.update(student);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * index
+     *
+     * Description:
+     * Indexes a newly registered student under the status flags it has,
+     * in the GPA ranking and by SIN, replacing any earlier student with
+     * the same ID. The student's lock is held so a status or GPA change cannot
+     * slip in between reading the student and indexing it, and a student
+     * removed before it is indexed is left out.
+     *
+     * Parameters:
+     * student The registered student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void index(Student student) {
+        synchronized (student) {
+            if (studentsById.get(student.getID()) != student)
+                return;
+            student.activate();
+            byStatus.put(student.getID(), student, student.getStatusFlags());
+            StudentRanking.update(student);
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * unindex
+     *
+     * Description:
+     * Takes a student that is no longer registered out of the status
+     * index and the GPA ranking. The student's lock is held, so a status
+     * or GPA change that saw the student still registered finishes first
+     * and a later one sees it gone. Another student indexed under the
+     * same ID is left alone.
+     *
+     * Parameters:
+     * student The removed or replaced student
+     *
+     * Restrictions:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void unindex(Student student) {
+        synchronized (student) {
+            byStatus.remove(student.getID(), student);
+            StudentRanking.remove(student);
+        }
+    }
+
+    /* GETTERS */
+
+    /**********************************************************************
+     * Method name:
+     * find
+     *
+     * Description:
+     * Looks up a student by ID.
+     *
+     * Parameters:
+     * intID The student ID to look up
+     *
+     * Return:
+     * The student, or null if no student has the ID
+     *********************************************************************/
+    public static Student find(int intID) {
+        return studentsById.get(intID);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * contains
+     *
+     * Description:
+     * Checks whether a student with the given ID is registered.
+     *
+     * Parameters:
+     * intID The student ID to check
+     *
+     * Return:
+     * True if the ID is registered
+     *********************************************************************/
+    public static boolean contains(int intID) {
+        return studentsById.containsKey(intID);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * size
+     *
+     * Description:
+     * Returns the number of registered students.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of students
+     *********************************************************************/
+    public static int size() {
+        return count.get();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * stripeCount
+     *
+     * Description:
+     * Returns the number of independently locked stripes in the ID index.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * The number of stripes
+     *********************************************************************/
+    static int stripeCount() {
+        return studentsById.stripeCount();
+    }
+
+    /**********************************************************************
+     * Method name:
+     * stripeOf
+     *
+     * Description:
+     * Returns the stripe of the ID index that holds a student ID.
+     *
+     * Parameters:
+     * intID The student ID
+     *
+     * Return:
+     * The stripe index
+     *********************************************************************/
+    static int stripeOf(int intID) {
+        return studentsById.stripeIndexOf(intID);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * forEach
+     *
+     * Description:
+     * Passes every registered student to the given action. The action
+     * must not register or remove students.
+     *
+     * Parameters:
+     * action The action to run for each student
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void forEach(Consumer<? super Student> action) {
+        if (action == null)
+            throw new IllegalArgumentException("Action cannot be null");
+        studentsById.forEach((id, student) -> action.accept(student));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * withStatus
+     *
+     * Description:
+     * Returns the registered students that have a status flag, such as
+     * every suspended student, without looking at any other student.
+     *
+     * Parameters:
+     * intFlag Student.STATUS_SUSPENDED, STATUS_ON_VACATION or
+     *         STATUS_GRADUATED
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException unless exactly one status flag is
+     * given.
+     *
+     * Return:
+     * A new list of the students with the flag, in no particular order
+     *********************************************************************/
+    public static ArrayList<Student> withStatus(int intFlag) {
+        return byStatus.list(intFlag);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * countWithStatus
+     *
+     * Description:
+     * Returns how many registered students have a status flag.
+     *
+     * Parameters:
+     * intFlag Student.STATUS_SUSPENDED, STATUS_ON_VACATION or
+     *         STATUS_GRADUATED
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException unless exactly one status flag is
+     * given.
+     *
+     * Return:
+     * The number of students with the flag
+     *********************************************************************/
+    public static int countWithStatus(int intFlag) {
+        return byStatus.count(intFlag);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * list
+     *
+     * Description:
+     * Returns a new list holding every registered student. Changing the
+     * list does not change the registry.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * A list of all students
+     *********************************************************************/
+    public static ArrayList<Student> list() {
+        ArrayList<Student> students = new ArrayList<>(size());
+        forEach(students::add);
+        return students;
+    }
+
+} /* End of StudentRegistry class */
@@ -0,0 +1,154 @@
+package government.school.students;
+
+import government.school.Timetable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**************************************************************************
+ * File name:
+ * StudentShardBenchmark.java
+ *
+ * Description:
+ * This file contains the StudentShardBenchmark class, a command-line
+ * benchmark that shows how sharded saving and loading scale with the
+ * number of cores. It registers a synthetic population, then saves and
+ * loads it with fork-join pools of 1, 2, 4, ... threads up to the number
+ * of available processors, and prints the time and speedup of each run.
+ *
+ * Usage:
+ *   java government.school.students.StudentShardBenchmark [students] [rounds]
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Benchmarking, Fork-join parallelism
+ **************************************************************************/
+
+public final class StudentShardBenchmark {
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentShardBenchmark
+     *
+     * Description:
+     * The benchmark only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentShardBenchmark() {
+    }
+
+    /* LOGIC METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * main
+     *
+     * Description:
+     * Runs the benchmark. The first argument is the number of students
+     * (default 500000, at most 900000) and the second the number of timed
+     * rounds per thread count (default 3); the best round is reported.
+     *
+     * Parameters:
+     * args The optional student count and round count
+     *
+     * Restrictions:
+     * Throws IOException if the temporary directory cannot be used.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void main(String[] args) throws IOException {
+        int intStudents = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int intRounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int intCores = Runtime.getRuntime().availableProcessors();
+
+        ArrayList<Student> population = populate(intStudents);
+        Path directory = Files.createTempDirectory("student-shards");
+        System.out.printf("%,d students, %d cores%n", intStudents, intCores);
+        System.out.printf("%8s %10s %10s %9s %9s%n", "threads", "save ms", "load ms", "save x", "load x");
+
+        double dblBaseSave = 0;
+        double dblBaseLoad = 0;
+        for (int intThreads = 1; ; intThreads = Math.min(intThreads * 2, intCores)) {
+            ForkJoinPool pool = new ForkJoinPool(intThreads);
+            int intShards = intThreads * 4;
+            double dblSave = Double.MAX_VALUE;
+            double dblLoad = Double.MAX_VALUE;
+            for (int r = 0; r < intRounds; r++) {
+                long lngStart = System.nanoTime();
+                StudentShards.save(directory, intShards, pool);
+                dblSave = Math.min(dblSave, (System.nanoTime() - lngStart) / 1e6);
+
+                for (Student student : population)
+                    StudentRegistry.remove(student.getID());
+                lngStart = System.nanoTime();
+                StudentShards.load(directory, pool);
+                dblLoad = Math.min(dblLoad, (System.nanoTime() - lngStart) / 1e6);
+            }
+            pool.shutdown();
+
+            if (intThreads == 1) {
+                dblBaseSave = dblSave;
+                dblBaseLoad = dblLoad;
+            }
+            System.out.printf("%8d %10.0f %10.0f %9.2f %9.2f%n", intThreads, dblSave, dblLoad,
+                    dblBaseSave / dblSave, dblBaseLoad / dblLoad);
+            if (intThreads == intCores)
+                break;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * populate
+     *
+     * Description:
+     * Registers a synthetic mix of plain, SHSM and HPP students with
+     * consecutive IDs, without password hashing.
+     *
+     * Parameters:
+     * intStudents The number of students
+     *
+     * Return:
+     * The registered students
+     *********************************************************************/
+    private static ArrayList<Student> populate(int intStudents) {
+        ArrayList<Student> students = new ArrayList<>(intStudents);
+        for (int i = 0; i < intStudents; i++) {
+            int intID = 100_000 + i;
+            String strName = "Student " + (i % 20_000);
+            int intStatus = i % 50 == 0 ? Student.STATUS_GRADUATED : 0;
+            Student student;
+            if (i % 10 == 0)
+                student = new SHSMStudent(intID, 0, 16, strName, i % 31, i % 60, (i % 400) / 100.0,
+                        new Timetable(), intStatus, "Placement " + (i % 100), i % 20 == 0);
+            else if (i % 10 == 1)
+                student = new HPPStudent(intID, 0, 17, strName, i % 31, i % 60, (i % 400) / 100.0,
+                        new Timetable(), intStatus, "Hockey", "Team " + (i % 30), "Forward");
+            else
+                student = new Student(intID, 0, 15, strName, i % 31, i % 60, (i % 400) / 100.0,
+                        new Timetable(), intStatus);
+            StudentRegistry.put(student);
+            students.add(student);
+        }
+        return students;
+    }
+
+} /* End of StudentShardBenchmark class */
@@ -0,0 +1,441 @@
+package government.school.students;
+
+import government.school.util.Auth;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**************************************************************************
+ * File name:
+ * StudentShards.java
+ *
+ * Description:
+ * This file contains the StudentShards class, which saves and loads the
+ * student registry as several shard files in parallel. Students are split
+ * into shards by ID range and each shard is a complete StudentFile, so any
+ * shard can be written or decoded on its own by a fork-join worker.
+ *
+ * Loading runs in two parallel phases. First each shard is decoded, its
+ * IDs are reserved in one step, and its students are grouped by the
+ * registry stripe they belong to. Then each worker takes whole stripes
+ * and inserts every group for that stripe under one lock acquisition, so
+ * no two workers ever compete for the same lock.
+ *
+ * A manifest, written last, names the shard generation that makes up the
+ * saved data. Shards of a new save get a new generation, so a save that
+ * fails half way leaves the previous save untouched and loadable.
+ *
+ * Directory layout:
+ *   manifest                   Generation, ID range and shard row counts
+ *   students-GGGGGGGG-SSSS.shard  Shard S of generation G (StudentFile)
+ *
+ * Author:
+ * [Your Name]
+ *
+ * Date: [Date]
+ *
+ * Concepts:
+ * Sharding, Fork-join parallelism, Lock-free merging by stripe ownership,
+ * Atomic file replacement
+ **************************************************************************/
+
+public final class StudentShards {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int MANIFEST_MAGIC = 0x4A53484D; // "JSHM"
+    private static final int MANIFEST_VERSION = 1; // Current manifest layout version
+    private static final String MANIFEST_FILE = "manifest";
+    private static final String SHARD_PREFIX = "students-";
+    private static final String SHARD_SUFFIX = ".shard";
+    private static final int SHARDS_PER_WORKER = 4; // Default shards per pool thread, for load balancing
+    private static final int MAX_SHARDS = 4096; // Most shards in one save
+
+    /* CONSTRUCTORS */
+
+    /**********************************************************************
+     * Method name:
+     * StudentShards
+     *
+     * Description:
+     * The class only has static members and is never instantiated.
+     *********************************************************************/
+    private StudentShards() {
+    }
+
+    /* STORAGE METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * save
+     *
+     * Description:
+     * Saves every registered student to a directory, using the common
+     * fork-join pool and four shards per pool thread.
+     *
+     * Parameters:
+     * directory Where the shards and manifest are written
+     *
+     * Restrictions:
+     * Throws IOException if a file cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void save(Path directory) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        save(directory, pool.getParallelism() * SHARDS_PER_WORKER, pool);
+    }
+
+    /**********************************************************************
+     * Method name:
+     * save
+     *
+     * Description:
+     * Saves every registered student to a directory as the given number
+     * of shards, split by ID range, writing the shards in parallel. The
+     * previous save in the directory is removed once the new manifest is
+     * in place.
+     *
+     * Parameters:
+     * directory Where the shards and manifest are written
+     * intShards Number of shards to split the students into
+     * pool      The pool that writes the shards
+     *
+     * Restrictions:
+     * Throws IOException if a file cannot be written.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void save(Path directory, int intShards, ForkJoinPool pool) throws IOException {
+        if (directory == null || pool == null)
+            throw new IllegalArgumentException("Directory and pool cannot be null");
+        if (intShards <= 0 || intShards > MAX_SHARDS)
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        Files.createDirectories(directory);
+
+        ArrayList<Student>[] shards = newLists(intShards);
+        StudentRegistry.forEach(student -> shards[shardOf(student.getID(), intShards)].add(student));
+
+        int intGeneration = readGeneration(directory) + 1;
+        run(pool, intShards, shard -> StudentFile.write(shardFile(directory, intGeneration, shard), shards[shard]));
+
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temp = manifest.resolveSibling(MANIFEST_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(MANIFEST_VERSION);
+            out.writeInt(intGeneration);
+            out.writeInt(Auth.MIN_ID);
+            out.writeInt(Auth.MAX_ID);
+            out.writeInt(intShards);
+            for (ArrayList<Student> shard : shards)
+                out.writeInt(shard.size());
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        /* The new manifest no longer refers to older shards */
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SHARD_PREFIX + "*" + SHARD_SUFFIX)) {
+            String strCurrent = String.format("%s%08d-", SHARD_PREFIX, intGeneration);
+            for (Path file : files) {
+                if (!file.getFileName().toString().startsWith(strCurrent))
+                    Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * load
+     *
+     * Description:
+     * Loads a sharded save into the registry using the common fork-join
+     * pool.
+     *
+     * Parameters:
+     * directory Where the shards and manifest were written
+     *
+     * Restrictions:
+     * Throws IOException if the save cannot be read or is corrupt.
+     *
+     * Return:
+     * The number of students loaded
+     *********************************************************************/
+    public static int load(Path directory) throws IOException {
+        return load(directory, ForkJoinPool.commonPool());
+    }
+
+    /**********************************************************************
+     * Method name:
+     * load
+     *
+     * Description:
+     * Loads a sharded save into the registry, decoding shards in parallel
+     * and then merging them stripe by stripe. A student whose ID is
+     * already registered is replaced.
+     *
+     * Parameters:
+     * directory Where the shards and manifest were written
+     * pool      The pool that decodes and merges the shards
+     *
+     * Restrictions:
+     * Throws IOException if the save cannot be read or is corrupt.
+     *
+     * Return:
+     * The number of students loaded
+     *********************************************************************/
+    public static int load(Path directory, ForkJoinPool pool) throws IOException {
+        if (directory == null || pool == null)
+            throw new IllegalArgumentException("Directory and pool cannot be null");
+
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        int intGeneration;
+        int[] expected;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (in.readInt() != MANIFEST_MAGIC)
+                throw new IOException("Not a student shard manifest: " + manifest);
+            int intVersion = in.readInt();
+            if (intVersion != MANIFEST_VERSION)
+                throw new IOException("Unsupported student shard manifest version " + intVersion + ": " + manifest);
+            intGeneration = in.readInt();
+            in.readInt(); // Lowest ID when saved; shards decode on their own
+            in.readInt(); // Highest ID when saved
+            int intShards = in.readInt();
+            if (intShards <= 0 || intShards > MAX_SHARDS)
+                throw new IOException("Corrupt student shard manifest: " + manifest);
+            expected = new int[intShards];
+            for (int i = 0; i < intShards; i++)
+                expected[i] = in.readInt();
+        }
+
+        /* Phase 1: decode each shard and group its students by registry stripe */
+        int intStripes = StudentRegistry.stripeCount();
+        ArrayList<Student>[][] grouped = newListGroups(expected.length);
+        run(pool, expected.length, shard -> {
+            ArrayList<Student> students = StudentFile.read(shardFile(directory, intGeneration, shard));
+            if (students.size() != expected[shard])
+                throw new IOException("Student shard " + shard + " does not match the manifest in " + directory);
+            int[] ids = new int[students.size()];
+            ArrayList<Student>[] byStripe = newLists(intStripes);
+            for (int i = 0; i < ids.length; i++) {
+                Student student = students.get(i);
+                ids[i] = student.getID();
+                byStripe[StudentRegistry.stripeOf(ids[i])].add(student);
+            }
+            Auth.reserveIDs(ids, ids.length);
+            grouped[shard] = byStripe;
+        });
+
+        /* Phase 2: each worker owns whole stripes, so no two contend for a lock */
+        run(pool, intStripes, stripe -> {
+            for (ArrayList<Student>[] byStripe : grouped) {
+                ArrayList<Student> students = byStripe[stripe];
+                if (!students.isEmpty())
+                    StudentRegistry.putAll(stripe, students.toArray(new Student[0]), students.size());
+            }
+        });
+
+        Student.rebuildGPAs(); // Loaded students start without running grade totals
+
+        int intLoaded = 0;
+        for (int intCount : expected)
+            intLoaded += intCount;
+        return intLoaded;
+    }
+
+    /* HELPER METHODS */
+
+    /**********************************************************************
+     * Method name:
+     * shardOf
+     *
+     * Description:
+     * Returns the shard for a student ID, splitting the ID range into
+     * equal consecutive parts.
+     *
+     * Parameters:
+     * intID     The student ID
+     * intShards The number of shards
+     *
+     * Return:
+     * The shard index
+     *********************************************************************/
+    static int shardOf(int intID, int intShards) {
+        long lngOffset = Math.min(Math.max(intID - Auth.MIN_ID, 0), Auth.MAX_ID - Auth.MIN_ID);
+        return (int) (lngOffset * intShards / (Auth.MAX_ID - Auth.MIN_ID + 1));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * readGeneration
+     *
+     * Description:
+     * Returns the generation named by the directory's manifest.
+     *
+     * Parameters:
+     * directory The save directory
+     *
+     * Restrictions:
+     * Throws IOException if the manifest exists but cannot be read.
+     *
+     * Return:
+     * The current generation, or 0 if there is no manifest
+     *********************************************************************/
+    private static int readGeneration(Path directory) throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(manifest))) {
+            if (in.readInt() != MANIFEST_MAGIC)
+                throw new IOException("Not a student shard manifest: " + manifest);
+            in.readInt();
+            return in.readInt();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**********************************************************************
+     * Method name:
+     * shardFile
+     *
+     * Description:
+     * Returns the path of one shard of a generation.
+     *
+     * Parameters:
+     * directory     The save directory
+     * intGeneration The generation
+     * intShard      The shard index
+     *
+     * Return:
+     * The shard file path
+     *********************************************************************/
+    private static Path shardFile(Path directory, int intGeneration, int intShard) {
+        return directory.resolve(String.format("%s%08d-%04d%s", SHARD_PREFIX, intGeneration, intShard, SHARD_SUFFIX));
+    }
+
+    /**********************************************************************
+     * Method name:
+     * newLists
+     *
+     * Description:
+     * Creates an array of empty lists.
+     *
+     * Parameters:
+     * intCount The number of lists
+     *
+     * Return:
+     * The lists
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayList<Student>[] newLists(int intCount) {
+        ArrayList<Student>[] lists = new ArrayList[intCount];
+        for (int i = 0; i < intCount; i++)
+            lists[i] = new ArrayList<>();
+        return lists;
+    }
+
+    /**********************************************************************
+     * Method name:
+     * newListGroups
+     *
+     * Description:
+     * Creates an array with one empty slot per shard, to be filled with
+     * that shard's lists.
+     *
+     * Parameters:
+     * intCount The number of slots
+     *
+     * Return:
+     * The array of list groups
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayList<Student>[][] newListGroups(int intCount) {
+        return new ArrayList[intCount][];
+    }
+
+    /**********************************************************************
+     * Method name:
+     * run
+     *
+     * Description:
+     * Runs a job once for each index from 0 to intCount - 1 on a pool and
+     * waits for all of them.
+     *
+     * Parameters:
+     * pool     The pool to run on
+     * intCount The number of indexes
+     * job      The job to run for each index
+     *
+     * Restrictions:
+     * Throws the first IOException a job throws.
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    private static void run(ForkJoinPool pool, int intCount, IndexJob job) throws IOException {
+        try {
+            pool.invoke(new RangeAction(0, intCount, job));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /* *************************************************************************
+     * Private Interface: IndexJob
+     *
+     * Description:
+     * One unit of shard or stripe work that may fail with an IOException.
+     *************************************************************************/
+    @FunctionalInterface
+    private interface IndexJob {
+        void run(int intIndex) throws IOException;
+    }
+
+    /* *************************************************************************
+     * Private Nested Class: RangeAction
+     *
+     * Description:
+     * This class splits a range of indexes in half until one index is
+     * left, so idle fork-join workers can steal the other halves.
+     *************************************************************************/
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int intFrom;
+        private final int intTo;
+        private final IndexJob job;
+
+        RangeAction(int intFrom, int intTo, IndexJob job) {
+            this.intFrom = intFrom;
+            this.intTo = intTo;
+            this.job = job;
+        }
+
+        @Override
+        protected void compute() {
+            if (intTo - intFrom == 1) {
+                try {
+                    job.run(intFrom);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            if (intTo <= intFrom)
+                return;
+            int intMiddle = (intFrom + intTo) >>> 1;
+            invokeAll(new RangeAction(intFrom, intMiddle, job), new RangeAction(intMiddle, intTo, job));
+        }
+    } /* End of RangeAction class */
+
+} /* End of StudentShards class */
@@ -4,7 +4,10 @@
  *
  * Description:
  * This file contains the ArrayMap class, which implements a basic
- * hash map using open addressing with linear probing.
+ * hash map using open addressing with linear probing. The table length
+ * is always a power of two and entries are placed with Robin Hood
+ * hashing, so probe lengths stay short and removal shifts the rest of
+ * the cluster back instead of reinserting it.
  *
  * Author:
  * Givontae Mclean
@@ -15,10 +18,17 @@
  * Use of generic types
  * Implementation of hash maps
  * Open addressing with linear probing
+ * Robin Hood hashing with backward-shift deletion
+ * Allocation-free iteration with cursors
+ * Opt-in statistics
+ * Copy-on-write snapshots
  ***************************************************************************/
 
 package government.school.util; 
 
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
 public class ArrayMap<K, V> {
 
     /* *************************************************************************
@@ -26,31 +36,142 @@ public class ArrayMap<K, V> {
      *
      * Description:
      * This class represents a key-value pair entry used in the hash table.
+     * The spread hash of the key is cached so that probe distances can be
+     * computed without calling hashCode again.
      *************************************************************************/
     private static class Entry<K, V> {
-        K key;
+        final K key;
         V value;
+        final int hash;
 
         /**********************************************************************
          * Constructor: Entry
          *
          * Description:
-         * This constructor initializes an entry with a key and a value.
+         * This constructor initializes an entry with a key, a value and
+         * the spread hash of the key.
          *
          * Parameters:
          * K key - the key of the entry
          * V value - the associated value
+         * int hash - the spread hash of the key
          *********************************************************************/
-        Entry(K key, V value) {
+        Entry(K key, V value, int hash) {
             this.key = key;
             this.value = value;
+            this.hash = hash;
         }
     } /* End of Entry class */
 
+    /* *************************************************************************
+     * Public Nested Class: Cursor
+     *
+     * Description:
+     * This class walks the slots of the hash table directly. A single
+     * cursor can be rewound with reset and reused, so iterating a map
+     * allocates nothing. The map must not gain or lose keys while a cursor
+     * is in use; updating the value of the current key is allowed.
+     *************************************************************************/
+    public static final class Cursor<K, V> {
+        private final ArrayMap<K, V> map;
+        private int index;
+        private Entry<K, V> current;
+
+        /**********************************************************************
+         * Constructor: Cursor
+         *
+         * Description:
+         * This constructor positions a new cursor before the first entry.
+         *
+         * Parameters:
+         * ArrayMap<K, V> map - the map to walk
+         *********************************************************************/
+        Cursor(ArrayMap<K, V> map) {
+            this.map = map;
+            this.index = -1;
+        }
+
+        /**********************************************************************
+         * Method name: next
+         *
+         * Description:
+         * This method advances to the next entry.
+         *
+         * Return:
+         * true if the cursor now points at an entry, false at the end
+         *********************************************************************/
+        public boolean next() {
+            Entry<K, V>[] table = map.table;
+            while (++index < table.length) {
+                if (table[index] != null) {
+                    current = table[index];
+                    return true;
+                }
+            }
+            current = null;
+            return false;
+        } /* End of next method */
+
+        /**********************************************************************
+         * Method name: key
+         *
+         * Description:
+         * This method returns the key of the current entry.
+         *
+         * Return:
+         * the current key
+         *********************************************************************/
+        public K key() {
+            return current.key;
+        } /* End of key method */
+
+        /**********************************************************************
+         * Method name: value
+         *
+         * Description:
+         * This method returns the value of the current entry.
+         *
+         * Return:
+         * the current value
+         *********************************************************************/
+        public V value() {
+            return current.value;
+        } /* End of value method */
+
+        /**********************************************************************
+         * Method name: setValue
+         *
+         * Description:
+         * This method replaces the value of the current entry in place.
+         *
+         * Parameters:
+         * V value - the new value
+         *********************************************************************/
+        public void setValue(V value) {
+            map.prepareWrite();
+            current = map.table[index]; // The slot may have been copied
+            current.value = value;
+        } /* End of setValue method */
+
+        /**********************************************************************
+         * Method name: reset
+         *
+         * Description:
+         * This method rewinds the cursor to before the first entry.
+         *********************************************************************/
+        public void reset() {
+            index = -1;
+            current = null;
+        } /* End of reset method */
+    } /* End of Cursor class */
+
     /* INSTANCE AND CLASS FIELD(S) */
     private Entry<K, V>[] table;
     private int size;
-    private final int INITIAL_CAPACITY = 10;
+    private int threshold; // Size at which the table grows
+    private ArrayMapStats stats; // Null unless statistics are enabled
+    private boolean blnShared; // True while a snapshot references this table
+    private final boolean blnReadOnly; // True for snapshots
 
     /**********************************************************************
      * Constructor: ArrayMap
@@ -58,28 +179,140 @@ public class ArrayMap<K, V> {
      * Description:
      * This constructor initializes the hash table with a default capacity.
      *********************************************************************/
-    @SuppressWarnings("unchecked")
     public ArrayMap() {
-        table = new Entry[INITIAL_CAPACITY];
+        this(0);
+    } /* End of ArrayMap constructor */
+
+    /**********************************************************************
+     * Constructor: ArrayMap
+     *
+     * Description:
+     * This constructor initializes the hash table large enough to hold the
+     * expected number of entries without ever resizing.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the map will hold
+     *
+     * Restrictions:
+     * expectedSize must not be negative.
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ArrayMap(int expectedSize) {
+        table = new Entry[Hashing.tableSizeFor(expectedSize)];
+        threshold = Hashing.thresholdFor(table.length);
         size = 0;
+        blnReadOnly = false;
+        if (ArrayMapStats.isTrackingNewMaps()) {
+            enableStats();
+        }
+    } /* End of ArrayMap constructor */
+
+    /**********************************************************************
+     * Constructor: ArrayMap
+     *
+     * Description:
+     * This constructor creates a read-only snapshot that shares the table
+     * of the source map. The source copies its table before its next
+     * write, so the snapshot never changes.
+     *
+     * Parameters:
+     * ArrayMap<K, V> source - the map being captured
+     *********************************************************************/
+    private ArrayMap(ArrayMap<K, V> source) {
+        table = source.table;
+        threshold = source.threshold;
+        size = source.size;
+        blnReadOnly = true;
     } /* End of ArrayMap constructor */
 
     /**********************************************************************
      * Method name: hash
      *
      * Description:
-     * This method computes the hash index for a given key.
+     * This method spreads the hash code of a key so that nearby keys, such
+     * as sequential student IDs, land in unrelated slots.
      *
      * Parameters:
      * K key - the key to be hashed
      *
      * Return:
-     * an integer representing the index within the table
+     * the spread hash of the key
      *********************************************************************/
-    private int hash(K key) {
-        return (key.hashCode() & 0x7FFFFFFF) % table.length;
+    private static int hash(Object key) {
+        return Hashing.mix(key.hashCode());
     } /* End of hash method */
 
+    /**********************************************************************
+     * Method name: probeDistance
+     *
+     * Description:
+     * This method computes how far the slot at a given index is from the
+     * home slot of the entry stored there.
+     *
+     * Parameters:
+     * int hash - the spread hash of the stored entry
+     * int index - the slot the entry occupies
+     *
+     * Return:
+     * the number of slots between the home slot and index
+     *********************************************************************/
+    private int probeDistance(int hash, int index) {
+        int mask = table.length - 1;
+        return (index - (hash & mask)) & mask;
+    } /* End of probeDistance method */
+
+    /**********************************************************************
+     * Method name: find
+     *
+     * Description:
+     * This method finds the slot holding a given key. Because Robin Hood
+     * placement keeps each cluster ordered by probe distance, the search
+     * stops as soon as it meets an entry closer to its home than the key
+     * would be. The probe length is returned with the slot rather than
+     * kept in a field, so concurrent readers cannot see each other's.
+     *
+     * Parameters:
+     * K key - the key to search for
+     *
+     * Return:
+     * the slot index (-1 if the key is not in the map) in the low 32 bits
+     * and the probe length in the high 32 bits
+     *********************************************************************/
+    private long find(K key) {
+        int hash = hash(key);
+        int mask = table.length - 1;
+        int index = hash & mask;
+
+        /* Probe until key is found or it can no longer be further along */
+        for (int distance = 0; ; distance++) {
+            Entry<K, V> entry = table[index];
+            if (entry == null || probeDistance(entry.hash, index) < distance) {
+                return ((long) distance << 32) | 0xFFFFFFFFL;
+            }
+            if (entry.hash == hash && entry.key.equals(key)) {
+                return ((long) distance << 32) | index;
+            }
+            index = (index + 1) & mask;
+        }
+    } /* End of find method */
+
+    /**********************************************************************
+     * Method name: indexOf
+     *
+     * Description:
+     * This method finds the slot holding a given key, for callers that do
+     * not record the probe length.
+     *
+     * Parameters:
+     * K key - the key to search for
+     *
+     * Return:
+     * the slot index, or -1 if the key is not in the map
+     *********************************************************************/
+    private int indexOf(K key) {
+        return (int) find(key);
+    } /* End of indexOf method */
+
     /**********************************************************************
      * Method name: put
      *
@@ -91,23 +324,55 @@ public class ArrayMap<K, V> {
      * V value - the value associated with the key
      *********************************************************************/
     public void put(K key, V value) {
-        if (size > table.length * 0.75) {
+        prepareWrite();
+        long found = find(key);
+        int index = (int) found;
+        if (stats != null) {
+            stats.recordPut((int) (found >>> 32));
+        }
+        if (index >= 0) {
+            /* Key exists; update value */
+            table[index].value = value;
+            return;
+        }
+        if (size >= threshold) {
             resize();
         }
-        int index = hash(key);
-        
-        /* Linear probing to find an available slot */
+        insert(new Entry<>(key, value, hash(key)));
+        size++;
+    } /* End of put method */
+
+    /**********************************************************************
+     * Method name: insert
+     *
+     * Description:
+     * This method places an entry whose key is known to be absent. While
+     * probing, whenever the entry being placed is further from home than
+     * the occupant of a slot, the two swap and the occupant continues the
+     * search instead, which keeps the longest probe in the table short.
+     *
+     * Parameters:
+     * Entry<K, V> entry - the entry to place
+     *********************************************************************/
+    private void insert(Entry<K, V> entry) {
+        int mask = table.length - 1;
+        int index = entry.hash & mask;
+        int distance = 0;
+
         while (table[index] != null) {
-            if (table[index].key.equals(key)) {
-                /* Key exists; update value */
-                table[index].value = value;
-                return;
+            int occupantDistance = probeDistance(table[index].hash, index);
+            if (occupantDistance < distance) {
+                /* Take the slot from the richer entry and carry it forward */
+                Entry<K, V> displaced = table[index];
+                table[index] = entry;
+                entry = displaced;
+                distance = occupantDistance;
             }
-            index = (index + 1) % table.length;
+            index = (index + 1) & mask;
+            distance++;
         }
-        table[index] = new Entry<>(key, value);
-        size++;
-    } /* End of put method */
+        table[index] = entry;
+    } /* End of insert method */
 
     /**********************************************************************
      * Method name: get
@@ -122,16 +387,12 @@ public class ArrayMap<K, V> {
      * the value associated with the key, or null if not found
      *********************************************************************/
     public V get(K key) {
-        int index = hash(key);
-        
-        /* Probe until key is found or an empty slot is reached */
-        while (table[index] != null) {
-            if (table[index].key.equals(key)) {
-                return table[index].value;
-            }
-            index = (index + 1) % table.length;
+        long found = find(key);
+        int index = (int) found;
+        if (stats != null) {
+            stats.recordGet((int) (found >>> 32));
         }
-        return null;
+        return (index < 0) ? null : table[index].value;
     } /* End of get method */
 
     /**********************************************************************
@@ -147,70 +408,428 @@ public class ArrayMap<K, V> {
      * true if the key exists, false otherwise
      *********************************************************************/
     public boolean containsKey(K key) {
-        int index = hash(key);
-        
-        /* Probe until key is found or an empty slot is reached */
-        while (table[index] != null) {
-            if (table[index].key.equals(key)) {
-                return true;
-            }
-            index = (index + 1) % table.length;
+        long found = find(key);
+        int index = (int) found;
+        if (stats != null) {
+            stats.recordGet((int) (found >>> 32));
         }
-        return false;
+        return index >= 0;
     } /* End of containsKey method */
 
     /**********************************************************************
      * Method name: remove
      *
      * Description:
-     * This method removes a key-value pair from the map.
+     * This method removes a key-value pair from the map. Every following
+     * entry in the cluster that is not already in its home slot moves back
+     * by one, so the table stays tombstone-free and never resizes here.
      *
      * Parameters:
      * K key - the key to remove
      *********************************************************************/
     public void remove(K key) {
-        int index = hash(key);
-        
-        /* Locate key using linear probing */
-        while (table[index] != null) {
-            if (table[index].key.equals(key)) {
-                table[index] = null;
-                size--;
-                
-                /* Rehash remaining elements */
-                index = (index + 1) % table.length;
-                while (table[index] != null) {
-                    Entry<K, V> rehashEntry = table[index];
-                    table[index] = null;
-                    size--;
-                    put(rehashEntry.key, rehashEntry.value);
-                    index = (index + 1) % table.length;
-                }
-                return;
-            }
-            index = (index + 1) % table.length;
+        prepareWrite();
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        int mask = table.length - 1;
+        int next = (index + 1) & mask;
+        int shifts = 0;
+
+        /* Shift the rest of the cluster back into the gap */
+        while (table[next] != null && probeDistance(table[next].hash, next) > 0) {
+            table[index] = table[next];
+            index = next;
+            next = (next + 1) & mask;
+            shifts++;
+        }
+        table[index] = null;
+        size--;
+        if (stats != null) {
+            stats.recordRemove(shifts);
         }
     } /* End of remove method */
 
+    /**********************************************************************
+     * Method name: putAll
+     *
+     * Description:
+     * This method copies every entry of another map into this one. The
+     * table is grown once up front, so no entry triggers a resize.
+     *
+     * Parameters:
+     * ArrayMap<? extends K, ? extends V> other - the map to copy from
+     *********************************************************************/
+    public void putAll(ArrayMap<? extends K, ? extends V> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Map cannot be null");
+        }
+        prepareWrite();
+        ensureCapacity(size + other.size);
+
+        /* Walk the other table directly; its entries are unique keys */
+        for (Entry<? extends K, ? extends V> entry : other.table) {
+            if (entry != null) {
+                putWithoutResize(entry.key, entry.value, entry.hash);
+            }
+        }
+    } /* End of putAll method */
+
+    /**********************************************************************
+     * Method name: putAll
+     *
+     * Description:
+     * This method bulk-loads parallel arrays of keys and values, as
+     * produced by a roster import or a deserializer. The table is grown
+     * once up front, so no entry triggers a resize.
+     *
+     * Parameters:
+     * K[] keys - the keys to insert
+     * V[] values - the value for each key, at the same index
+     *
+     * Restrictions:
+     * Both arrays must be non-null and of the same length.
+     *********************************************************************/
+    public void putAll(K[] keys, V[] values) {
+        if (keys == null || values == null || keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must be non-null and the same length");
+        }
+        prepareWrite();
+        ensureCapacity(size + keys.length);
+
+        for (int i = 0; i < keys.length; i++) {
+            putWithoutResize(keys[i], values[i], hash(keys[i]));
+        }
+    } /* End of putAll method */
+
+    /**********************************************************************
+     * Method name: putWithoutResize
+     *
+     * Description:
+     * This method inserts or updates a key-value pair assuming the caller
+     * has already made room for it.
+     *
+     * Parameters:
+     * K key - the key to insert
+     * V value - the value associated with the key
+     * int hash - the spread hash of the key
+     *********************************************************************/
+    private void putWithoutResize(K key, V value, int hash) {
+        long found = find(key);
+        int index = (int) found;
+        if (stats != null) {
+            stats.recordPut((int) (found >>> 32));
+        }
+        if (index >= 0) {
+            table[index].value = value;
+            return;
+        }
+        insert(new Entry<>(key, value, hash));
+        size++;
+    } /* End of putWithoutResize method */
+
+    /**********************************************************************
+     * Method name: ensureCapacity
+     *
+     * Description:
+     * This method grows the table, in a single rehash, so that it can hold
+     * the given number of entries without further resizing.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the map must hold
+     *********************************************************************/
+    private void ensureCapacity(int expectedSize) {
+        int capacity = Hashing.tableSizeFor(expectedSize);
+        if (capacity > table.length) {
+            rehash(capacity);
+        }
+    } /* End of ensureCapacity method */
+
+    /**********************************************************************
+     * Method name: trimToSize
+     *
+     * Description:
+     * This method shrinks the table to the smallest length that still
+     * holds the current entries, releasing memory after a bulk removal.
+     *********************************************************************/
+    public void trimToSize() {
+        prepareWrite();
+        int capacity = Hashing.tableSizeFor(size);
+        if (capacity < table.length) {
+            rehash(capacity);
+        }
+    } /* End of trimToSize method */
+
     /**********************************************************************
      * Method name: resize
      *
      * Description:
      * This method doubles the table size and rehashes existing entries.
      *********************************************************************/
-    @SuppressWarnings("unchecked")
     private void resize() {
+        if (table.length >= Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("Map cannot grow any further");
+        }
+        rehash(table.length * 2);
+    } /* End of resize method */
+
+    /**********************************************************************
+     * Method name: rehash
+     *
+     * Description:
+     * This method moves every entry into a new table of the given length.
+     *
+     * Parameters:
+     * int capacity - the new power-of-two table length
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void rehash(int capacity) {
+        long start = (stats != null) ? System.nanoTime() : 0L;
         Entry<K, V>[] oldTable = table;
-        table = new Entry[oldTable.length * 2];
-        size = 0;
-        
-        /* Reinsert non-null entries */
+        table = new Entry[capacity];
+        threshold = Hashing.thresholdFor(capacity);
+
+        /* Reinsert non-null entries, reusing the entry objects */
         for (Entry<K, V> entry : oldTable) {
             if (entry != null) {
-                put(entry.key, entry.value);
+                insert(entry);
             }
         }
-    } /* End of resize method */
+        if (stats != null) {
+            stats.recordResize(System.nanoTime() - start);
+        }
+    } /* End of rehash method */
+
+    /**********************************************************************
+     * Method name: cursor
+     *
+     * Description:
+     * This method returns a new cursor positioned before the first entry.
+     *
+     * Return:
+     * a reusable cursor over this map
+     *********************************************************************/
+    public Cursor<K, V> cursor() {
+        return new Cursor<>(this);
+    } /* End of cursor method */
+
+    /**********************************************************************
+     * Method name: forEach
+     *
+     * Description:
+     * This method passes every entry to the given callback in a single
+     * scan of the table, in no particular order.
+     *
+     * Parameters:
+     * BiConsumer<? super K, ? super V> action - the callback for each entry
+     *********************************************************************/
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Entry<K, V> entry : table) {
+            if (entry != null) {
+                action.accept(entry.key, entry.value);
+            }
+        }
+    } /* End of forEach method */
+
+    /**********************************************************************
+     * Method name: forEachKey
+     *
+     * Description:
+     * This method passes every key to the given callback in a single scan
+     * of the table, in no particular order.
+     *
+     * Parameters:
+     * Consumer<? super K> action - the callback for each key
+     *********************************************************************/
+    public void forEachKey(Consumer<? super K> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Entry<K, V> entry : table) {
+            if (entry != null) {
+                action.accept(entry.key);
+            }
+        }
+    } /* End of forEachKey method */
+
+    /**********************************************************************
+     * Method name: forEachValue
+     *
+     * Description:
+     * This method passes every value to the given callback in a single
+     * scan of the table, in no particular order.
+     *
+     * Parameters:
+     * Consumer<? super V> action - the callback for each value
+     *********************************************************************/
+    public void forEachValue(Consumer<? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Entry<K, V> entry : table) {
+            if (entry != null) {
+                action.accept(entry.value);
+            }
+        }
+    } /* End of forEachValue method */
+
+    /**********************************************************************
+     * Method name: snapshot
+     *
+     * Description:
+     * This method returns an immutable view of the map as it is now, in
+     * constant time. The snapshot shares the current table; the first
+     * write to this map afterwards copies the table once, so later
+     * writes never show through. A snapshot is itself read-only, and
+     * taking a snapshot of a snapshot returns the same object.
+     *
+     * Return:
+     * a read-only map holding the current entries
+     *********************************************************************/
+    public ArrayMap<K, V> snapshot() {
+        if (blnReadOnly) {
+            return this;
+        }
+        blnShared = true;
+        return new ArrayMap<>(this);
+    } /* End of snapshot method */
+
+    /**********************************************************************
+     * Method name: isReadOnly
+     *
+     * Description:
+     * This method reports whether this map is a snapshot.
+     *
+     * Return:
+     * true if the map rejects writes
+     *********************************************************************/
+    public boolean isReadOnly() {
+        return blnReadOnly;
+    } /* End of isReadOnly method */
+
+    /**********************************************************************
+     * Method name: prepareWrite
+     *
+     * Description:
+     * This method runs before every write. It rejects writes to a
+     * snapshot, and if a snapshot shares the table it gives this map its
+     * own copy first. Entries are copied too, because values are updated
+     * in place. Slot positions are preserved.
+     *
+     * Restrictions:
+     * Throws UnsupportedOperationException if this map is a snapshot.
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void prepareWrite() {
+        if (blnReadOnly) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+        if (blnShared) {
+            Entry<K, V>[] copy = new Entry[table.length];
+            for (int i = 0; i < table.length; i++) {
+                Entry<K, V> entry = table[i];
+                if (entry != null) {
+                    copy[i] = new Entry<>(entry.key, entry.value, entry.hash);
+                }
+            }
+            table = copy;
+            blnShared = false;
+        }
+    } /* End of prepareWrite method */
+
+    /**********************************************************************
+     * Method name: enableStats
+     *
+     * Description:
+     * This method starts collecting statistics for this map and registers
+     * it for ArrayMapStats.dumpAll. Calling it again has no effect.
+     *
+     * Return:
+     * the statistics of this map
+     *********************************************************************/
+    public ArrayMapStats enableStats() {
+        if (stats == null) {
+            stats = new ArrayMapStats();
+            ArrayMapStats.register(this);
+        }
+        return stats;
+    } /* End of enableStats method */
+
+    /**********************************************************************
+     * Method name: getStats
+     *
+     * Description:
+     * This method returns the statistics collected for this map.
+     *
+     * Return:
+     * the statistics, or null if they were never enabled
+     *********************************************************************/
+    public ArrayMapStats getStats() {
+        return stats;
+    } /* End of getStats method */
+
+    /**********************************************************************
+     * Method name: capacity
+     *
+     * Description:
+     * This method returns the number of slots in the hash table.
+     *
+     * Return:
+     * the table length
+     *********************************************************************/
+    public int capacity() {
+        return table.length;
+    } /* End of capacity method */
+
+    /**********************************************************************
+     * Method name: loadFactor
+     *
+     * Description:
+     * This method returns the fraction of slots currently occupied.
+     *
+     * Return:
+     * size divided by capacity
+     *********************************************************************/
+    public double loadFactor() {
+        return size / (double) table.length;
+    } /* End of loadFactor method */
+
+    /**********************************************************************
+     * Method name: maxClusterLength
+     *
+     * Description:
+     * This method measures the longest run of occupied slots, wrapping
+     * around the end of the table, with a single scan.
+     *
+     * Return:
+     * the length of the longest cluster
+     *********************************************************************/
+    public int maxClusterLength() {
+        if (size == table.length) {
+            return size;
+        }
+        int longest = 0;
+        int run = 0;
+
+        /* Start just after an empty slot so wrapped clusters are counted whole */
+        int start = 0;
+        while (table[start] != null) {
+            start++;
+        }
+        for (int i = 1; i <= table.length; i++) {
+            if (table[(start + i) & (table.length - 1)] != null) {
+                run++;
+                longest = Math.max(longest, run);
+            } else {
+                run = 0;
+            }
+        }
+        return longest;
+    } /* End of maxClusterLength method */
 
     /**********************************************************************
      * Method name: size
@@ -0,0 +1,369 @@
+/**************************************************************************
+ * File name:
+ * ArrayMapStats.java
+ *
+ * Description:
+ * This file contains the ArrayMapStats class, which collects optional
+ * health statistics for an ArrayMap: probe-length histograms for lookups
+ * and inserts, resize counts and time, and the number of entries shifted
+ * back by removals. Statistics are off unless a map opts in, in which
+ * case the map is also registered so that every live instrumented map
+ * can be dumped at once.
+ *
+ * Author:
+ * Givontae Mclean
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Opt-in instrumentation
+ * Histograms
+ * Weak references for a registry of live objects
+ * Atomic counters shared by concurrent readers
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class ArrayMapStats {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final int HISTOGRAM_BUCKETS = 17; // Probe lengths 0-15, then 16 or more
+
+    private static volatile boolean blnTrackNewMaps = false; // Instrument every new map
+    private static final ArrayList<WeakReference<ArrayMap<?, ?>>> liveMaps = new ArrayList<>();
+    private static int intPruneAt = 16; // Registry size that triggers the next prune
+
+    // Lookups on a ConcurrentArrayMap record under a shared read lock
+    private final AtomicLongArray getProbes = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private final AtomicLongArray putProbes = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private final AtomicLong resizeCount = new AtomicLong();
+    private final AtomicLong resizeNanos = new AtomicLong();
+    private final AtomicLong removeCount = new AtomicLong();
+    private final AtomicLong removeShifts = new AtomicLong(); // Entries moved back into a gap by remove
+
+    /**********************************************************************
+     * Constructor: ArrayMapStats
+     *
+     * Description:
+     * Statistics are created by ArrayMap.enableStats.
+     *********************************************************************/
+    ArrayMapStats() {
+    } /* End of ArrayMapStats constructor */
+
+    /* CLASS METHOD(S) */
+
+    /**********************************************************************
+     * Method name: setTrackNewMaps
+     *
+     * Description:
+     * This method turns statistics on or off for every ArrayMap created
+     * from now on. Existing maps are not affected.
+     *
+     * Parameters:
+     * boolean blnTrack - true to instrument new maps
+     *********************************************************************/
+    public static void setTrackNewMaps(boolean blnTrack) {
+        blnTrackNewMaps = blnTrack;
+    } /* End of setTrackNewMaps method */
+
+    /**********************************************************************
+     * Method name: isTrackingNewMaps
+     *
+     * Description:
+     * This method reports whether new maps are instrumented.
+     *
+     * Return:
+     * true if every new ArrayMap collects statistics
+     *********************************************************************/
+    public static boolean isTrackingNewMaps() {
+        return blnTrackNewMaps;
+    } /* End of isTrackingNewMaps method */
+
+    /**********************************************************************
+     * Method name: register
+     *
+     * Description:
+     * This method adds a map to the registry of instrumented maps. The
+     * registry only holds weak references, so it never keeps a map alive.
+     * Whenever the registry has doubled since the last prune, references
+     * to collected maps are dropped, so short-lived maps do not make it
+     * grow without bound even if dumpAll is never called.
+     *
+     * Parameters:
+     * ArrayMap<?, ?> map - the map that enabled statistics
+     *********************************************************************/
+    static void register(ArrayMap<?, ?> map) {
+        synchronized (liveMaps) {
+            if (liveMaps.size() >= intPruneAt) {
+                liveMaps.removeIf(ref -> ref.get() == null);
+                intPruneAt = Math.max(16, liveMaps.size() * 2);
+            }
+            liveMaps.add(new WeakReference<>(map));
+        }
+    } /* End of register method */
+
+    /**********************************************************************
+     * Method name: dumpAll
+     *
+     * Description:
+     * This method prints one summary line per live instrumented map and
+     * drops registry entries for maps that have been garbage collected.
+     *
+     * Parameters:
+     * PrintStream out - where to print the summaries
+     *********************************************************************/
+    public static void dumpAll(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream cannot be null");
+        }
+        ArrayList<ArrayMap<?, ?>> maps = new ArrayList<>();
+        synchronized (liveMaps) {
+            Iterator<WeakReference<ArrayMap<?, ?>>> it = liveMaps.iterator();
+            while (it.hasNext()) {
+                ArrayMap<?, ?> map = it.next().get();
+                if (map == null) {
+                    it.remove();
+                } else {
+                    maps.add(map);
+                }
+            }
+        }
+        out.println("ArrayMap statistics for " + maps.size() + " live map(s)");
+        for (ArrayMap<?, ?> map : maps) {
+            out.println(describe(map));
+        }
+    } /* End of dumpAll method */
+
+    /**********************************************************************
+     * Method name: describe
+     *
+     * Description:
+     * This method builds a one-line summary of a map's shape and counters.
+     * The cluster length is measured with one scan of the table.
+     *
+     * Parameters:
+     * ArrayMap<?, ?> map - the map to describe
+     *
+     * Return:
+     * the summary line
+     *********************************************************************/
+    public static String describe(ArrayMap<?, ?> map) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ArrayMap@").append(Integer.toHexString(System.identityHashCode(map)))
+          .append(" size=").append(map.size())
+          .append(" capacity=").append(map.capacity())
+          .append(String.format(" load=%.3f", map.loadFactor()))
+          .append(" maxCluster=").append(map.maxClusterLength());
+        ArrayMapStats stats = map.getStats();
+        if (stats != null) {
+            sb.append(' ').append(stats);
+        }
+        return sb.toString();
+    } /* End of describe method */
+
+    /* RECORDING METHOD(S) */
+
+    /**********************************************************************
+     * Method name: recordGet
+     *
+     * Description:
+     * This method counts one lookup that probed the given number of slots
+     * past the key's home slot.
+     *
+     * Parameters:
+     * int probes - the probe length
+     *********************************************************************/
+    void recordGet(int probes) {
+        getProbes.incrementAndGet(Math.min(probes, HISTOGRAM_BUCKETS - 1));
+    } /* End of recordGet method */
+
+    /**********************************************************************
+     * Method name: recordPut
+     *
+     * Description:
+     * This method counts one put that probed the given number of slots
+     * past the key's home slot.
+     *
+     * Parameters:
+     * int probes - the probe length
+     *********************************************************************/
+    void recordPut(int probes) {
+        putProbes.incrementAndGet(Math.min(probes, HISTOGRAM_BUCKETS - 1));
+    } /* End of recordPut method */
+
+    /**********************************************************************
+     * Method name: recordResize
+     *
+     * Description:
+     * This method counts one rehash of the table.
+     *
+     * Parameters:
+     * long nanos - how long the rehash took
+     *********************************************************************/
+    void recordResize(long nanos) {
+        resizeCount.incrementAndGet();
+        resizeNanos.addAndGet(nanos);
+    } /* End of recordResize method */
+
+    /**********************************************************************
+     * Method name: recordRemove
+     *
+     * Description:
+     * This method counts one removal and the entries it shifted back.
+     *
+     * Parameters:
+     * int shifts - the number of entries moved into the gap
+     *********************************************************************/
+    void recordRemove(int shifts) {
+        removeCount.incrementAndGet();
+        removeShifts.addAndGet(shifts);
+    } /* End of recordRemove method */
+
+    /* GETTER(S) */
+
+    /**********************************************************************
+     * Method name: getGetHistogram
+     *
+     * Description:
+     * This method returns a copy of the lookup probe-length histogram.
+     * Index i counts lookups with probe length i; the last bucket counts
+     * every longer probe.
+     *
+     * Return:
+     * the histogram counts
+     *********************************************************************/
+    public long[] getGetHistogram() {
+        return toArray(getProbes);
+    } /* End of getGetHistogram method */
+
+    /**********************************************************************
+     * Method name: getPutHistogram
+     *
+     * Description:
+     * This method returns a copy of the put probe-length histogram, laid
+     * out like getGetHistogram.
+     *
+     * Return:
+     * the histogram counts
+     *********************************************************************/
+    public long[] getPutHistogram() {
+        return toArray(putProbes);
+    } /* End of getPutHistogram method */
+
+    /**********************************************************************
+     * Method name: toArray
+     *
+     * Description:
+     * This method copies a histogram into a plain array.
+     *
+     * Parameters:
+     * AtomicLongArray histogram - the histogram to copy
+     *
+     * Return:
+     * the histogram counts
+     *********************************************************************/
+    private static long[] toArray(AtomicLongArray histogram) {
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    } /* End of toArray method */
+
+    /**********************************************************************
+     * Method name: getResizeCount
+     *
+     * Description:
+     * This method returns how many times the table has been rehashed.
+     *
+     * Return:
+     * the resize count
+     *********************************************************************/
+    public long getResizeCount() {
+        return resizeCount.get();
+    } /* End of getResizeCount method */
+
+    /**********************************************************************
+     * Method name: getResizeNanos
+     *
+     * Description:
+     * This method returns the total time spent rehashing.
+     *
+     * Return:
+     * the time in nanoseconds
+     *********************************************************************/
+    public long getResizeNanos() {
+        return resizeNanos.get();
+    } /* End of getResizeNanos method */
+
+    /**********************************************************************
+     * Method name: getRemoveCount
+     *
+     * Description:
+     * This method returns how many entries have been removed.
+     *
+     * Return:
+     * the removal count
+     *********************************************************************/
+    public long getRemoveCount() {
+        return removeCount.get();
+    } /* End of getRemoveCount method */
+
+    /**********************************************************************
+     * Method name: getRemoveShifts
+     *
+     * Description:
+     * This method returns how many entries removals have shifted back,
+     * which is the rehash work done by remove.
+     *
+     * Return:
+     * the number of shifted entries
+     *********************************************************************/
+    public long getRemoveShifts() {
+        return removeShifts.get();
+    } /* End of getRemoveShifts method */
+
+    /**********************************************************************
+     * Method name: reset
+     *
+     * Description:
+     * This method clears every counter, starting a new sampling window.
+     *********************************************************************/
+    public void reset() {
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            getProbes.set(i, 0);
+            putProbes.set(i, 0);
+        }
+        resizeCount.set(0);
+        resizeNanos.set(0);
+        removeCount.set(0);
+        removeShifts.set(0);
+    } /* End of reset method */
+
+    /**********************************************************************
+     * Method name: toString
+     *
+     * Description:
+     * This method formats the counters on a single line.
+     *
+     * Return:
+     * the formatted counters
+     *********************************************************************/
+    @Override
+    public String toString() {
+        return "resizes=" + resizeCount.get() +
+               String.format(" resizeMs=%.3f", resizeNanos.get() / 1_000_000.0) +
+               " removes=" + removeCount.get() +
+               " removeShifts=" + removeShifts.get() +
+               " getProbes=" + Arrays.toString(toArray(getProbes)) +
+               " putProbes=" + Arrays.toString(toArray(putProbes));
+    } /* End of toString method */
+} /* End of ArrayMapStats class */
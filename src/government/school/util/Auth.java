@@ -4,7 +4,12 @@
  *
  * Description:
  * This file contains the Auth class, which provides methods for generating
- * secure passwords and unique student IDs.
+ * secure passwords and unique student IDs. IDs come from an IdAllocator,
+ * which hands them out in constant time and can be saved and restored
+ * across restarts. Threads creating many students or employees at once
+ * can open an ID lease so they draw IDs without contending on a lock.
+ * Passwords are drawn from a per-thread DRBG that reads random bytes in
+ * large batches, so issuing thousands of passwords at once is cheap.
  *
  * Author:
  * G. Murzaku
@@ -13,25 +18,96 @@
  *
  * Concepts:
  * Use of SecureRandom for secure random number generation
- * Use of arrays to track used IDs
+ * Use of a keyed permutation and a bitset to track used IDs
+ * Use of ThreadLocal leases for contention-free bulk ID allocation
+ * Use of batched random bytes with rejection sampling for passwords
  ***************************************************************************/
 
 package government.school.util;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 public final class Auth {
 
+    /* *************************************************************************
+     * Private Nested Class: PasswordSource
+     *
+     * Description:
+     * This class gives each thread its own DRBG and a buffer of random
+     * bytes drawn from it in large batches. Bytes are mapped onto CHARS
+     * by rejection sampling: bytes at or above the largest multiple of
+     * the alphabet size are skipped, so every character is equally
+     * likely.
+     *************************************************************************/
+    private static final class PasswordSource {
+        private static final int BATCH_BYTES = 4096;
+        private static final int LIMIT = 256 - (256 % CHARS.length());
+        private final SecureRandom random;
+        private final byte[] batch = new byte[BATCH_BYTES];
+        private int intPosition = BATCH_BYTES; // Forces a refill on first use
+
+        /**********************************************************************
+         * Constructor: PasswordSource
+         *
+         * Description:
+         * Creates a source backed by the JDK's DRBG, or the platform
+         * default SecureRandom if no DRBG is available.
+         *********************************************************************/
+        PasswordSource() {
+            SecureRandom r;
+            try {
+                r = SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                r = new SecureRandom();
+            }
+            random = r;
+        }
+
+        /**********************************************************************
+         * Method name: fill
+         *
+         * Description:
+         * Writes random password characters into part of a buffer.
+         *
+         * Parameters:
+         * char[] buffer - the buffer to write into
+         * int from - the first index to write, inclusive
+         * int to - the end of the range, exclusive
+         *********************************************************************/
+        void fill(char[] buffer, int from, int to) {
+            int i = from;
+            while (i < to) {
+                if (intPosition == BATCH_BYTES) {
+                    random.nextBytes(batch);
+                    intPosition = 0;
+                }
+                int b = batch[intPosition++] & 0xFF;
+                if (b < LIMIT) {
+                    buffer[i++] = CHARS.charAt(b % CHARS.length());
+                }
+            } /* End of while loop */
+        } /* End of fill method */
+    } /* End of PasswordSource class */
+
     /* INSTANCE AND CLASS FIELD(S) */
-    private static final int MAX_ID = 999999; // The highest 6-digit number
-    private static final int MIN_ID = 100000; // The lowest 6-digit number
-    private static final boolean[] usedIds = new boolean[MAX_ID - MIN_ID + 1]; 
-    // Array to track used IDs
+    public static final int MAX_ID = 999999; // The highest 6-digit number
+    public static final int MIN_ID = 100000; // The lowest 6-digit number
+    private static volatile IdAllocator idAllocator = new IdAllocator(MIN_ID, MAX_ID);
+    // Allocator that tracks used IDs, shared by students and employees
+    private static final ThreadLocal<IdAllocator.Lease> idLease = new ThreadLocal<>();
+    // Block of IDs leased by the current thread, if any
+    private static final Object idStateLock = new Object();
+    // Held while a lease is opened or the allocator is replaced
     
-    private static final SecureRandom secureRandom = new SecureRandom();
     private static final String CHARS = 
         "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz" +
         "0123456789!@#$%^&*()-_=+[]{}|;:'\",.<>?/`~";
+    private static final ThreadLocal<PasswordSource> passwordSource =
+        ThreadLocal.withInitial(PasswordSource::new);
+    // Per-thread random source for passwords
 
     /**********************************************************************
      * Method name:
@@ -51,27 +127,112 @@ public final class Auth {
      * The length must be greater than zero.
      *********************************************************************/
     public static String generatePassword(int intLength) {
-        SecureRandom r = new SecureRandom();
+        if (intLength <= 0) {
+            throw new IllegalArgumentException("Password length must be greater than zero");
+        }
         char[] password = new char[intLength];
-        
-        /*
-         * This loop iterates intLength times to generate a password.
-         * Each character is randomly selected from the predefined CHARS string.
-         */
-        for (int i = 0; i < intLength; i++) {
-            password[i] = CHARS.charAt(r.nextInt(CHARS.length()));
-        } /* End of for loop */
-        
+        passwordSource.get().fill(password, 0, intLength);
         return new String(password);
     } /* End of generatePassword method */
 
+    /**********************************************************************
+     * Method name:
+     * generatePasswords
+     *
+     * Description:
+     * This method generates many passwords of the same length at once,
+     * for example when onboarding a whole school's accounts.
+     *
+     * Parameters:
+     * int - number of passwords to generate
+     * int - length of each password
+     *
+     * Return:
+     * An array of randomly generated passwords
+     *
+     * Restrictions:
+     * The count must not be negative and the length must be greater
+     * than zero.
+     *********************************************************************/
+    public static String[] generatePasswords(int intCount, int intLength) {
+        char[] buffer = new char[checkedBufferLength(intCount, intLength)];
+        fillPasswords(buffer, intCount, intLength);
+
+        String[] passwords = new String[intCount];
+        for (int i = 0; i < intCount; i++) {
+            passwords[i] = new String(buffer, i * intLength, intLength);
+        } /* End of for loop */
+        return passwords;
+    } /* End of generatePasswords method */
+
+    /**********************************************************************
+     * Method name:
+     * fillPasswords
+     *
+     * Description:
+     * This method writes intCount passwords of intLength characters each,
+     * back to back, into a caller-supplied buffer. Password i occupies
+     * indexes i * intLength to (i + 1) * intLength - 1. Reusing one
+     * buffer avoids creating a String per password.
+     *
+     * Parameters:
+     * char[] - the buffer to fill
+     * int - number of passwords to generate
+     * int - length of each password
+     *
+     * Return:
+     * None
+     *
+     * Restrictions:
+     * The buffer must hold at least intCount * intLength characters.
+     *********************************************************************/
+    public static void fillPasswords(char[] buffer, int intCount, int intLength) {
+        int intTotal = checkedBufferLength(intCount, intLength);
+        if (buffer == null || buffer.length < intTotal) {
+            throw new IllegalArgumentException("Buffer is too small for the requested passwords");
+        }
+        passwordSource.get().fill(buffer, 0, intTotal);
+    } /* End of fillPasswords method */
+
+    /**********************************************************************
+     * Method name:
+     * checkedBufferLength
+     *
+     * Description:
+     * This method validates a bulk password request and returns the
+     * number of characters it needs.
+     *
+     * Parameters:
+     * int - number of passwords
+     * int - length of each password
+     *
+     * Return:
+     * The total number of characters
+     *********************************************************************/
+    private static int checkedBufferLength(int intCount, int intLength) {
+        if (intCount < 0) {
+            throw new IllegalArgumentException("Password count cannot be negative");
+        }
+        if (intLength <= 0) {
+            throw new IllegalArgumentException("Password length must be greater than zero");
+        }
+        long total = (long) intCount * intLength;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many password characters requested at once");
+        }
+        return (int) total;
+    } /* End of checkedBufferLength method */
+
     /**********************************************************************
      * Method name:
      * generateID
      *
      * Description:
      * This method generates a unique 6-digit student ID that has not
-     * been used before.
+     * been used before. Each call takes constant time, however many IDs
+     * have already been handed out. It is safe to call from several
+     * threads; a thread that has opened an ID lease draws from its own
+     * block without locking.
      *
      * Parameters:
      * None
@@ -80,21 +241,185 @@ public final class Auth {
      * A unique 6-digit integer ID
      *
      * Restrictions:
-     * The ID must be between 100000 and 999999.
+     * The ID must be between 100000 and 999999. Throws
+     * IllegalStateException once all 900000 IDs have been used.
      *********************************************************************/
     public static int generateID() {
-        int id;
-        
-        /*
-         * This loop generates a random 6-digit ID and ensures it is unique
-         * by checking the usedIds array.
-         */
-        do {
-            id = MIN_ID + secureRandom.nextInt(MAX_ID - MIN_ID + 1);
-        } while (usedIds[id - MIN_ID]);
-        
-        usedIds[id - MIN_ID] = true; // Mark the ID as used
-        return id;
+        IdAllocator.Lease lease = idLease.get();
+        if (lease != null) {
+            return lease.next();
+        }
+        return idAllocator.allocate();
     } /* End of generateID method */
 
+    /**********************************************************************
+     * Method name:
+     * openIDLease
+     *
+     * Description:
+     * This method gives the current thread its own block of IDs, so that
+     * every generateID call it makes (including those made by Student
+     * and Employee constructors) is served without contention. The
+     * thread fetches a new block whenever the current one runs out.
+     *
+     * Parameters:
+     * int - the number of IDs to lease at a time
+     *
+     * Return:
+     * None
+     *
+     * Restrictions:
+     * The block size must be positive, and the thread must not already
+     * hold a lease. Call closeIDLease when the bulk work is done.
+     *********************************************************************/
+    public static void openIDLease(int intBlockSize) {
+        if (idLease.get() != null) {
+            throw new IllegalStateException("This thread already holds an ID lease");
+        }
+        synchronized (idStateLock) {
+            idLease.set(idAllocator.lease(intBlockSize));
+        }
+    } /* End of openIDLease method */
+
+    /**********************************************************************
+     * Method name:
+     * closeIDLease
+     *
+     * Description:
+     * This method ends the current thread's lease and gives its unissued
+     * IDs back to the shared allocator. It does nothing if the thread
+     * holds no lease.
+     *
+     * Parameters:
+     * None
+     *
+     * Return:
+     * None
+     *********************************************************************/
+    public static void closeIDLease() {
+        IdAllocator.Lease lease = idLease.get();
+        if (lease != null) {
+            idLease.remove();
+            lease.close();
+        }
+    } /* End of closeIDLease method */
+
+    /**********************************************************************
+     * Method name:
+     * reserveID
+     *
+     * Description:
+     * This method marks an ID that was assigned elsewhere, such as one
+     * loaded from a saved record, so that generateID never returns it.
+     *
+     * Parameters:
+     * int - the ID to reserve
+     *
+     * Return:
+     * true if the ID was free, false if it was already in use
+     *
+     * Restrictions:
+     * The ID must be between 100000 and 999999.
+     *********************************************************************/
+    public static boolean reserveID(int intId) {
+        return idAllocator.reserve(intId);
+    } /* End of reserveID method */
+
+    /**********************************************************************
+     * Method name:
+     * reserveIDs
+     *
+     * Description:
+     * This method reserves a batch of IDs assigned elsewhere in one step,
+     * for loaders that read many saved records at once.
+     *
+     * Parameters:
+     * int[] - the IDs to reserve
+     * int - how many IDs to take from the front of the array
+     *
+     * Return:
+     * the number of IDs that were free
+     *
+     * Restrictions:
+     * Every ID must be between 100000 and 999999.
+     *********************************************************************/
+    public static int reserveIDs(int[] intIds, int intCount) {
+        return idAllocator.reserveAll(intIds, intCount);
+    } /* End of reserveIDs method */
+
+    /**********************************************************************
+     * Method name:
+     * reserveIDs
+     *
+     * Description:
+     * This method reserves a batch of IDs assigned elsewhere in one step
+     * and reports which of them were free, for importers that must reject
+     * records whose IDs are already in use.
+     *
+     * Parameters:
+     * int[] - the IDs to reserve
+     * int - how many IDs to take from the front of the array
+     * boolean[] - set to true for each ID that was free
+     *
+     * Return:
+     * the number of IDs that were free
+     *
+     * Restrictions:
+     * Every ID must be between 100000 and 999999.
+     *********************************************************************/
+    public static int reserveIDs(int[] intIds, int intCount, boolean[] blnFresh) {
+        return idAllocator.reserveAll(intIds, intCount, blnFresh);
+    } /* End of reserveIDs method */
+
+    /**********************************************************************
+     * Method name:
+     * saveIDState
+     *
+     * Description:
+     * This method saves the set of used IDs and the allocator's position
+     * so that a restarted process keeps handing out unique IDs.
+     *
+     * Parameters:
+     * Path - the file to write
+     *
+     * Return:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written.
+     *********************************************************************/
+    public static void saveIDState(Path file) throws IOException {
+        idAllocator.checkpoint(file);
+    } /* End of saveIDState method */
+
+    /**********************************************************************
+     * Method name:
+     * loadIDState
+     *
+     * Description:
+     * This method replaces the ID allocator with one saved by saveIDState.
+     * It should be called at startup, before any IDs are handed out. It
+     * refuses to run while a thread holds an ID lease, since IDs issued
+     * from that lease would not be marked in the new allocator.
+     *
+     * Parameters:
+     * Path - the file to read
+     *
+     * Return:
+     * None
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not an ID
+     * checkpoint, and IllegalStateException if an ID lease is open.
+     *********************************************************************/
+    public static void loadIDState(Path file) throws IOException {
+        synchronized (idStateLock) {
+            int intOpen = idAllocator.getOpenLeaseCount();
+            if (intOpen > 0) {
+                throw new IllegalStateException("Cannot load ID state while " + intOpen + " ID lease(s) are open");
+            }
+            idAllocator = IdAllocator.restore(file);
+        }
+    } /* End of loadIDState method */
+
 } /* End of Auth class */
@@ -0,0 +1,617 @@
+/**************************************************************************
+ * File name:
+ * ConcurrentArrayMap.java
+ *
+ * Description:
+ * This file contains the ConcurrentArrayMap class, a thread-safe hash map
+ * for data that several staff members update at once, such as grades
+ * during report-card week. Keys are split across a fixed number of
+ * stripes, each one an ArrayMap guarded by its own read-write lock, so
+ * writers to different stripes never wait on each other and readers of
+ * the same stripe run in parallel.
+ *
+ * Author:
+ * Givontae Mclean
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Lock striping
+ * Read-write locks
+ * Per-stripe resizing
+ * Consistent snapshots built from copy-on-write stripes
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+public class ConcurrentArrayMap<K, V> {
+
+    /* *************************************************************************
+     * Private Nested Class: Stripe
+     *
+     * Description:
+     * This class pairs one ArrayMap with the lock that guards it. A stripe
+     * resizes its own table while holding its write lock, so a resize never
+     * blocks or corrupts the probe chains of any other stripe.
+     *************************************************************************/
+    private static final class Stripe<K, V> {
+        final ArrayMap<K, V> map;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**********************************************************************
+         * Constructor: Stripe
+         *
+         * Description:
+         * This constructor creates a stripe sized for its share of entries.
+         *
+         * Parameters:
+         * int expectedSize - the number of entries this stripe should hold
+         *********************************************************************/
+        Stripe(int expectedSize) {
+            map = new ArrayMap<>(expectedSize);
+        }
+    } /* End of Stripe class */
+
+    /* *************************************************************************
+     * Public Nested Class: Snapshot
+     *
+     * Description:
+     * This class is an immutable view of the whole map at one instant. It
+     * holds a copy-on-write snapshot of every stripe, so reading it takes
+     * no locks and later writes to the map never show through.
+     *************************************************************************/
+    public static final class Snapshot<K, V> {
+        private final ArrayMap<K, V>[] maps;
+        private final int shift;
+
+        /**********************************************************************
+         * Constructor: Snapshot
+         *
+         * Description:
+         * This constructor wraps the per-stripe snapshots.
+         *
+         * Parameters:
+         * ArrayMap<K, V>[] maps - one read-only map per stripe
+         * int shift - the stripe shift of the source map
+         *********************************************************************/
+        Snapshot(ArrayMap<K, V>[] maps, int shift) {
+            this.maps = maps;
+            this.shift = shift;
+        }
+
+        /**********************************************************************
+         * Method name: mapFor
+         *
+         * Description:
+         * This method picks the stripe snapshot for a key the same way the
+         * source map picks its stripe.
+         *
+         * Parameters:
+         * Object key - the key to locate
+         *
+         * Return:
+         * the stripe snapshot responsible for the key
+         *********************************************************************/
+        private ArrayMap<K, V> mapFor(Object key) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key cannot be null");
+            }
+            if (maps.length == 1) {
+                return maps[0];
+            }
+            return maps[Hashing.mix(key.hashCode()) >>> shift];
+        } /* End of mapFor method */
+
+        /**********************************************************************
+         * Method name: get
+         *
+         * Description:
+         * This method retrieves the value a key had when the snapshot was
+         * taken.
+         *
+         * Parameters:
+         * K key - the key to search for
+         *
+         * Return:
+         * the value associated with the key, or null if not found
+         *********************************************************************/
+        public V get(K key) {
+            return mapFor(key).get(key);
+        } /* End of get method */
+
+        /**********************************************************************
+         * Method name: containsKey
+         *
+         * Description:
+         * This method checks if a key existed when the snapshot was taken.
+         *
+         * Parameters:
+         * K key - the key to check
+         *
+         * Return:
+         * true if the key exists, false otherwise
+         *********************************************************************/
+        public boolean containsKey(K key) {
+            return mapFor(key).containsKey(key);
+        } /* End of containsKey method */
+
+        /**********************************************************************
+         * Method name: forEach
+         *
+         * Description:
+         * This method passes every captured entry to the given callback.
+         *
+         * Parameters:
+         * BiConsumer<? super K, ? super V> action - the callback for each entry
+         *********************************************************************/
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            for (ArrayMap<K, V> map : maps) {
+                map.forEach(action);
+            }
+        } /* End of forEach method */
+
+        /**********************************************************************
+         * Method name: size
+         *
+         * Description:
+         * This method returns the number of captured entries.
+         *
+         * Return:
+         * an integer representing the size of the snapshot
+         *********************************************************************/
+        public int size() {
+            int total = 0;
+            for (ArrayMap<K, V> map : maps) {
+                total += map.size();
+            }
+            return total;
+        } /* End of size method */
+    } /* End of Snapshot class */
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int MAX_STRIPES = 1 << 16;
+    private final Stripe<K, V>[] stripes;
+    private final int shift; // Moves the top hash bits down to pick a stripe
+
+    /**********************************************************************
+     * Constructor: ConcurrentArrayMap
+     *
+     * Description:
+     * This constructor creates a map with the default number of stripes.
+     *********************************************************************/
+    public ConcurrentArrayMap() {
+        this(0, DEFAULT_STRIPES);
+    } /* End of ConcurrentArrayMap constructor */
+
+    /**********************************************************************
+     * Constructor: ConcurrentArrayMap
+     *
+     * Description:
+     * This constructor creates a map sized for the expected number of
+     * entries, split across at least the requested number of stripes.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the map will hold
+     * int concurrencyLevel - the number of threads expected to write at once
+     *
+     * Restrictions:
+     * expectedSize must not be negative and concurrencyLevel must be
+     * positive.
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentArrayMap(int expectedSize, int concurrencyLevel) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+        int count = 1;
+        while (count < concurrencyLevel && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>(expectedSize / count + 1);
+        }
+        shift = 32 - Integer.numberOfTrailingZeros(count);
+    } /* End of ConcurrentArrayMap constructor */
+
+    /**********************************************************************
+     * Method name: stripeFor
+     *
+     * Description:
+     * This method picks the stripe for a key from the top bits of its
+     * spread hash. ArrayMap indexes with the low bits, so keys that share
+     * a stripe still spread out inside it.
+     *
+     * Parameters:
+     * Object key - the key to locate
+     *
+     * Return:
+     * the stripe responsible for the key
+     *********************************************************************/
+    private Stripe<K, V> stripeFor(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        return stripes[Hashing.mix(key.hashCode()) >>> shift];
+    } /* End of stripeFor method */
+
+    /**********************************************************************
+     * Method name: stripeCount
+     *
+     * Description:
+     * This method returns the number of stripes, for bulk loaders that
+     * group keys by stripe before inserting them.
+     *
+     * Return:
+     * the number of stripes
+     *********************************************************************/
+    public int stripeCount() {
+        return stripes.length;
+    } /* End of stripeCount method */
+
+    /**********************************************************************
+     * Method name: stripeIndexOf
+     *
+     * Description:
+     * This method returns the index of the stripe that holds a key.
+     *
+     * Parameters:
+     * K key - the key to locate
+     *
+     * Return:
+     * the stripe index, from 0 to stripeCount() - 1
+     *********************************************************************/
+    public int stripeIndexOf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return stripes.length == 1 ? 0 : Hashing.mix(key.hashCode()) >>> shift;
+    } /* End of stripeIndexOf method */
+
+    /**********************************************************************
+     * Method name: putAllInStripe
+     *
+     * Description:
+     * This method inserts or updates a batch of pairs that all belong to
+     * one stripe, taking that stripe's lock once for the whole batch.
+     * Bulk loaders that give each thread its own stripes insert with no
+     * lock contention at all.
+     *
+     * Parameters:
+     * int stripeIndex - the stripe every key belongs to
+     * K[] keys - the keys to insert
+     * V[] values - the values, matching keys by position
+     * int count - how many pairs to take from the front of the arrays
+     *
+     * Return:
+     * the number of keys that were new
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if a key belongs to another stripe;
+     * pairs before it have already been inserted.
+     *********************************************************************/
+    public int putAllInStripe(int stripeIndex, K[] keys, V[] values, int count) {
+        if (stripeIndex < 0 || stripeIndex >= stripes.length) {
+            throw new IllegalArgumentException("Stripe index out of range");
+        }
+        if (keys == null || values == null || count < 0 || count > keys.length || count > values.length) {
+            throw new IllegalArgumentException("Keys and values must be non-null and hold count pairs");
+        }
+        Stripe<K, V> stripe = stripes[stripeIndex];
+        stripe.lock.writeLock().lock();
+        try {
+            int before = stripe.map.size();
+            for (int i = 0; i < count; i++) {
+                if (stripeIndexOf(keys[i]) != stripeIndex) {
+                    throw new IllegalArgumentException("Key " + keys[i] + " belongs to another stripe");
+                }
+                stripe.map.put(keys[i], values[i]);
+            }
+            return stripe.map.size() - before;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of putAllInStripe method */
+
+    /**********************************************************************
+     * Method name: put
+     *
+     * Description:
+     * This method inserts or updates a key-value pair in the map.
+     *
+     * Parameters:
+     * K key - the key to insert
+     * V value - the value associated with the key
+     *
+     * Return:
+     * true if the key was new, false if an existing value was replaced
+     *********************************************************************/
+    public boolean put(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            int before = stripe.map.size();
+            stripe.map.put(key, value);
+            return stripe.map.size() != before;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of put method */
+
+    /**********************************************************************
+     * Method name: putIfAbsent
+     *
+     * Description:
+     * This method inserts a key-value pair only if the key is not already
+     * present, as a single atomic step.
+     *
+     * Parameters:
+     * K key - the key to insert
+     * V value - the value associated with the key
+     *
+     * Return:
+     * true if the pair was inserted, false if the key already existed
+     *********************************************************************/
+    public boolean putIfAbsent(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.map.containsKey(key)) {
+                return false;
+            }
+            stripe.map.put(key, value);
+            return true;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of putIfAbsent method */
+
+    /**********************************************************************
+     * Method name: replace
+     *
+     * Description:
+     * This method updates the value of a key only if the key is already
+     * present, as a single atomic step.
+     *
+     * Parameters:
+     * K key - the key to update
+     * V value - the new value
+     *
+     * Return:
+     * true if the value was replaced, false if the key was absent
+     *********************************************************************/
+    public boolean replace(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            if (!stripe.map.containsKey(key)) {
+                return false;
+            }
+            stripe.map.put(key, value);
+            return true;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of replace method */
+
+    /**********************************************************************
+     * Method name: replace
+     *
+     * Description:
+     * This method updates the value of a key only if it still maps to the
+     * expected value, compared by identity, as a single atomic step.
+     *
+     * Parameters:
+     * K key - the key to update
+     * V expected - the value the key must map to
+     * V value - the new value
+     *
+     * Return:
+     * true if the value was replaced, false if the key mapped to
+     * something else or was absent
+     *********************************************************************/
+    public boolean replace(K key, V expected, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            if (!stripe.map.containsKey(key) || stripe.map.get(key) != expected) {
+                return false;
+            }
+            stripe.map.put(key, value);
+            return true;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of replace method */
+
+    /**********************************************************************
+     * Method name: get
+     *
+     * Description:
+     * This method retrieves a value associated with a given key.
+     *
+     * Parameters:
+     * K key - the key to search for
+     *
+     * Return:
+     * the value associated with the key, or null if not found
+     *********************************************************************/
+    public V get(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.map.get(key);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    } /* End of get method */
+
+    /**********************************************************************
+     * Method name: containsKey
+     *
+     * Description:
+     * This method checks if a key exists in the map.
+     *
+     * Parameters:
+     * K key - the key to check
+     *
+     * Return:
+     * true if the key exists, false otherwise
+     *********************************************************************/
+    public boolean containsKey(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.map.containsKey(key);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    } /* End of containsKey method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a key-value pair from the map.
+     *
+     * Parameters:
+     * K key - the key to remove
+     *
+     * Return:
+     * true if the key was present and has been removed
+     *********************************************************************/
+    public boolean remove(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            if (!stripe.map.containsKey(key)) {
+                return false;
+            }
+            stripe.map.remove(key);
+            return true;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a key only if it still maps to the given value,
+     * compared by identity, as a single atomic step. Callers use it to
+     * drop an entry without removing one that replaced it.
+     *
+     * Parameters:
+     * K key - the key to remove
+     * V value - the value the key must map to
+     *
+     * Return:
+     * true if the key mapped to the value and has been removed
+     *********************************************************************/
+    public boolean remove(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.map.get(key) != value) {
+                return false;
+            }
+            stripe.map.remove(key);
+            return true;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: forEach
+     *
+     * Description:
+     * This method passes every entry to the given callback, one stripe at
+     * a time under that stripe's read lock. Each stripe is seen in a
+     * consistent state, but writes to other stripes may land during the
+     * walk. The callback must not write back into this map.
+     *
+     * Parameters:
+     * BiConsumer<? super K, ? super V> action - the callback for each entry
+     *********************************************************************/
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                stripe.map.forEach(action);
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+    } /* End of forEach method */
+
+    /**********************************************************************
+     * Method name: snapshot
+     *
+     * Description:
+     * This method captures the whole map at one instant. It holds every
+     * stripe's read lock only long enough to take a constant-time
+     * snapshot of that stripe, so writers are blocked for a moment per
+     * stripe, not for as long as the snapshot is read. Each stripe copies
+     * its table on its next write.
+     *
+     * Return:
+     * an immutable view of the current entries
+     *********************************************************************/
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Snapshot<K, V> snapshot() {
+        ArrayMap<K, V>[] maps = new ArrayMap[stripes.length];
+
+        /* Lock in stripe order so the view is consistent across stripes */
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.readLock().lock();
+        }
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                maps[i] = stripes[i].map.snapshot();
+            }
+        } finally {
+            for (Stripe<K, V> stripe : stripes) {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return new Snapshot<>(maps, shift);
+    } /* End of snapshot method */
+
+    /**********************************************************************
+     * Method name: size
+     *
+     * Description:
+     * This method returns the number of elements in the map. Under
+     * concurrent writes the result is a point-in-time estimate.
+     *
+     * Return:
+     * an integer representing the size of the map
+     *********************************************************************/
+    public int size() {
+        int total = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                total += stripe.map.size();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return total;
+    } /* End of size method */
+} /* End of ConcurrentArrayMap class */
@@ -0,0 +1,637 @@
+/**************************************************************************
+ * File name:
+ * CredentialStore.java
+ *
+ * Description:
+ * This file contains the CredentialStore class, which keeps salted
+ * PBKDF2 password hashes for students and employees, indexed by ID, and
+ * checks login attempts against them. Interactive logins are verified on
+ * a small bounded pool of worker threads so a burst of logins queues up
+ * instead of saturating every core, and a successful login returns a
+ * short-lived session token that later requests present instead of the
+ * password, so the expensive hash is computed once per session.
+ *
+ * Author:
+ * G. Murzaku
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Salted, iterated password hashing (PBKDF2)
+ * Constant-time comparison
+ * Bounded thread pools
+ * Expiring session tokens
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+public final class CredentialStore {
+
+    /* *************************************************************************
+     * Private Nested Class: Credential
+     *
+     * Description:
+     * This class holds one stored password hash together with the salt and
+     * iteration count it was computed with.
+     *************************************************************************/
+    private static final class Credential {
+        final byte[] salt;
+        final byte[] hash;
+        final int iterations;
+
+        Credential(byte[] salt, byte[] hash, int iterations) {
+            this.salt = salt;
+            this.hash = hash;
+            this.iterations = iterations;
+        }
+    } /* End of Credential class */
+
+    /* *************************************************************************
+     * Private Nested Class: Session
+     *
+     * Description:
+     * This class records who a session token belongs to and when it
+     * expires.
+     *************************************************************************/
+    private static final class Session {
+        final int id;
+        final long expiresAtNanos;
+
+        Session(int id, long expiresAtNanos) {
+            this.id = id;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    } /* End of Session class */
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    public static final int DEFAULT_ITERATIONS = 100_000;
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int TOKEN_BYTES = 32;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final long DEFAULT_SESSION_MILLIS = 15 * 60 * 1000L;
+    private static final int FILE_MAGIC = 0x4A435244; // "JCRD"
+    private static final int FILE_VERSION = 1;
+
+    private static volatile CredentialStore defaultStore;
+
+    private final ConcurrentArrayMap<Integer, Credential> credentials = new ConcurrentArrayMap<>();
+    private final ConcurrentArrayMap<String, Session> sessions = new ConcurrentArrayMap<>();
+    private final ThreadPoolExecutor verifiers;
+    private final SecureRandom random = new SecureRandom();
+    private final long sessionNanos;
+    private volatile int intIterations;
+
+    /**********************************************************************
+     * Constructor: CredentialStore
+     *
+     * Description:
+     * This constructor creates a store with the default hashing cost, one
+     * verification thread per two cores, and 15-minute sessions.
+     *********************************************************************/
+    public CredentialStore() {
+        this(DEFAULT_ITERATIONS, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+             DEFAULT_QUEUE_CAPACITY, DEFAULT_SESSION_MILLIS);
+    } /* End of CredentialStore constructor */
+
+    /**********************************************************************
+     * Constructor: CredentialStore
+     *
+     * Description:
+     * This constructor creates a store with the given hashing cost and
+     * login capacity.
+     *
+     * Parameters:
+     * int iterations - PBKDF2 iterations for newly stored passwords
+     * int workerThreads - threads that verify logins
+     * int queueCapacity - logins that may wait for a thread before new
+     *                     ones are turned away
+     * long sessionMillis - how long a session token stays valid
+     *
+     * Restrictions:
+     * All arguments must be positive.
+     *********************************************************************/
+    public CredentialStore(int iterations, int workerThreads, int queueCapacity, long sessionMillis) {
+        if (workerThreads <= 0 || queueCapacity <= 0 || sessionMillis <= 0) {
+            throw new IllegalArgumentException("Worker threads, queue capacity and session length must be positive");
+        }
+        setIterations(iterations);
+        this.sessionNanos = TimeUnit.MILLISECONDS.toNanos(sessionMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.verifiers = new ThreadPoolExecutor(workerThreads, workerThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "credential-verifier-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.verifiers.allowCoreThreadTimeOut(true);
+    } /* End of CredentialStore constructor */
+
+    /**********************************************************************
+     * Method name: getDefault
+     *
+     * Description:
+     * This method returns the store used by Student and Employee,
+     * creating it with default settings on first use.
+     *
+     * Return:
+     * the shared credential store
+     *********************************************************************/
+    public static CredentialStore getDefault() {
+        CredentialStore store = defaultStore;
+        if (store == null) {
+            synchronized (CredentialStore.class) {
+                if (defaultStore == null) {
+                    defaultStore = new CredentialStore();
+                }
+                store = defaultStore;
+            }
+        }
+        return store;
+    } /* End of getDefault method */
+
+    /**********************************************************************
+     * Method name: setDefault
+     *
+     * Description:
+     * This method replaces the store used by Student and Employee.
+     *
+     * Parameters:
+     * CredentialStore store - the new shared store
+     *********************************************************************/
+    public static void setDefault(CredentialStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Credential store cannot be null");
+        }
+        synchronized (CredentialStore.class) {
+            defaultStore = store;
+        }
+    } /* End of setDefault method */
+
+    /**********************************************************************
+     * Method name: setIterations
+     *
+     * Description:
+     * This method changes the hashing cost for passwords stored from now
+     * on. Existing hashes keep their cost until the owner next logs in
+     * successfully, at which point they are rehashed at the new cost.
+     *
+     * Parameters:
+     * int iterations - PBKDF2 iterations
+     *
+     * Restrictions:
+     * iterations must be positive.
+     *********************************************************************/
+    public void setIterations(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.intIterations = iterations;
+    } /* End of setIterations method */
+
+    /**********************************************************************
+     * Method name: setPassword
+     *
+     * Description:
+     * This method stores a salted hash of a password for an ID, replacing
+     * any earlier one. The password itself is not kept.
+     *
+     * Parameters:
+     * int id - the student or employee ID
+     * String password - the new password
+     *********************************************************************/
+    public void setPassword(int id, String password) {
+        if (password == null) {
+            throw new IllegalArgumentException("Password cannot be null");
+        }
+        credentials.put(id, hashNew(password));
+    } /* End of setPassword method */
+
+    /**********************************************************************
+     * Method name: hasCredential
+     *
+     * Description:
+     * This method checks whether a password has been stored for an ID.
+     *
+     * Parameters:
+     * int id - the ID to check
+     *
+     * Return:
+     * true if the ID has a stored password
+     *********************************************************************/
+    public boolean hasCredential(int id) {
+        return credentials.containsKey(id);
+    } /* End of hasCredential method */
+
+    /**********************************************************************
+     * Method name: removeCredential
+     *
+     * Description:
+     * This method deletes the stored password for an ID and ends every
+     * session that belongs to it.
+     *
+     * Parameters:
+     * int id - the ID to remove
+     *********************************************************************/
+    public void removeCredential(int id) {
+        credentials.remove(id);
+        ArrayList<String> owned = new ArrayList<>();
+        sessions.forEach((token, session) -> {
+            if (session.id == id) {
+                owned.add(token);
+            }
+        });
+        for (String token : owned) {
+            sessions.remove(token);
+        }
+    } /* End of removeCredential method */
+
+    /**********************************************************************
+     * Method name: exportCredential
+     *
+     * Description:
+     * This method encodes the stored hash for an ID (cost, salt and hash)
+     * so it can be written to a journal or snapshot. The password itself
+     * is never part of the encoding.
+     *
+     * Parameters:
+     * int id - the ID to export
+     *
+     * Return:
+     * the encoded credential, or null if the ID has no stored password
+     *********************************************************************/
+    public byte[] exportCredential(int id) {
+        Credential credential = credentials.get(id);
+        return credential == null ? null : encode(credential);
+    } /* End of exportCredential method */
+
+    /**********************************************************************
+     * Method name: importCredential
+     *
+     * Description:
+     * This method stores a credential encoded by exportCredential,
+     * replacing any earlier one for the ID.
+     *
+     * Parameters:
+     * int id - the ID the credential belongs to
+     * byte[] encoded - the encoded credential
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the encoding is malformed.
+     *********************************************************************/
+    public void importCredential(int id, byte[] encoded) {
+        if (encoded == null) {
+            throw new IllegalArgumentException("Encoded credential cannot be null");
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(encoded);
+            int iterations = in.getInt();
+            byte[] salt = new byte[in.get() & 0xFF];
+            in.get(salt);
+            byte[] hash = new byte[in.get() & 0xFF];
+            in.get(hash);
+            if (iterations <= 0 || in.hasRemaining()) {
+                throw new IllegalArgumentException("Malformed credential for ID " + id);
+            }
+            credentials.put(id, new Credential(salt, hash, iterations));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed credential for ID " + id, e);
+        }
+    } /* End of importCredential method */
+
+    /**********************************************************************
+     * Method name: save
+     *
+     * Description:
+     * This method writes every stored hash to a file. It writes to a
+     * temporary file first and then moves it into place, so a crash never
+     * leaves a half-written file.
+     *
+     * Parameters:
+     * Path file - where to save the hashes
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written.
+     *********************************************************************/
+    public void save(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        ArrayList<Integer> ids = new ArrayList<>();
+        ArrayList<byte[]> encoded = new ArrayList<>();
+        credentials.forEach((id, credential) -> {
+            ids.add(id);
+            encoded.add(encode(credential));
+        });
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                out.writeInt(ids.get(i));
+                out.writeShort(encoded.get(i).length);
+                out.write(encoded.get(i));
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } /* End of save method */
+
+    /**********************************************************************
+     * Method name: load
+     *
+     * Description:
+     * This method reads hashes saved by save into this store, replacing
+     * any stored for the same IDs.
+     *
+     * Parameters:
+     * Path file - the file to read
+     *
+     * Return:
+     * the number of hashes loaded
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a
+     * credential file.
+     *********************************************************************/
+    public int load(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a credential file: " + file);
+            }
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported credential file version " + version + ": " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                byte[] credential = new byte[in.readUnsignedShort()];
+                in.readFully(credential);
+                try {
+                    importCredential(id, credential);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt credential file: " + file, e);
+                }
+            }
+            return count;
+        }
+    } /* End of load method */
+
+    /**********************************************************************
+     * Method name: authenticate
+     *
+     * Description:
+     * This method checks a password on the calling thread. Hashes computed
+     * at an older cost are upgraded after a successful check, unless the
+     * password was changed while it was being checked.
+     *
+     * Parameters:
+     * int id - the ID logging in
+     * String password - the password presented
+     *
+     * Return:
+     * true if the password matches the stored hash
+     *********************************************************************/
+    public boolean authenticate(int id, String password) {
+        if (password == null) {
+            return false;
+        }
+        Credential credential = credentials.get(id);
+        if (credential == null) {
+            return false;
+        }
+        byte[] candidate = pbkdf2(password, credential.salt, credential.iterations);
+        if (!MessageDigest.isEqual(candidate, credential.hash)) {
+            return false;
+        }
+        if (credential.iterations < intIterations) {
+            credentials.replace(id, credential, hashNew(password));
+        }
+        return true;
+    } /* End of authenticate method */
+
+    /**********************************************************************
+     * Method name: login
+     *
+     * Description:
+     * This method queues a password check on the verification pool. When
+     * the check succeeds, the future completes with a new session token;
+     * when it fails, it completes with null. If the queue is full the
+     * future fails with RejectedExecutionException, and the caller should
+     * ask the user to retry.
+     *
+     * Parameters:
+     * int id - the ID logging in
+     * String password - the password presented
+     *
+     * Return:
+     * a future session token, or null for a wrong password
+     *********************************************************************/
+    public CompletableFuture<String> login(int id, String password) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> authenticate(id, password) ? openSession(id) : null, verifiers);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    } /* End of login method */
+
+    /**********************************************************************
+     * Method name: openSession
+     *
+     * Description:
+     * This method issues a random session token for an ID.
+     *
+     * Parameters:
+     * int id - the authenticated ID
+     *
+     * Return:
+     * the new token
+     *********************************************************************/
+    private String openSession(int id) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(id, System.nanoTime() + sessionNanos));
+        return token;
+    } /* End of openSession method */
+
+    /**********************************************************************
+     * Method name: validateSession
+     *
+     * Description:
+     * This method looks up the owner of a session token without any
+     * hashing. Expired tokens are removed when they are seen.
+     *
+     * Parameters:
+     * String token - the token presented
+     *
+     * Return:
+     * the ID the token belongs to, or -1 if it is unknown or expired
+     *********************************************************************/
+    public int validateSession(String token) {
+        if (token == null) {
+            return -1;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return -1;
+        }
+        if (System.nanoTime() - session.expiresAtNanos >= 0) {
+            sessions.remove(token);
+            return -1;
+        }
+        return session.id;
+    } /* End of validateSession method */
+
+    /**********************************************************************
+     * Method name: logout
+     *
+     * Description:
+     * This method ends a session.
+     *
+     * Parameters:
+     * String token - the token to forget
+     *********************************************************************/
+    public void logout(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    } /* End of logout method */
+
+    /**********************************************************************
+     * Method name: purgeExpiredSessions
+     *
+     * Description:
+     * This method removes every expired session token.
+     *
+     * Return:
+     * the number of tokens removed
+     *********************************************************************/
+    public int purgeExpiredSessions() {
+        long now = System.nanoTime();
+        ArrayList<String> expired = new ArrayList<>();
+        sessions.forEach((token, session) -> {
+            if (now - session.expiresAtNanos >= 0) {
+                expired.add(token);
+            }
+        });
+        for (String token : expired) {
+            sessions.remove(token);
+        }
+        return expired.size();
+    } /* End of purgeExpiredSessions method */
+
+    /**********************************************************************
+     * Method name: shutdown
+     *
+     * Description:
+     * This method stops the verification threads once queued logins
+     * finish. Synchronous authenticate calls keep working.
+     *********************************************************************/
+    public void shutdown() {
+        verifiers.shutdown();
+    } /* End of shutdown method */
+
+    /**********************************************************************
+     * Method name: encode
+     *
+     * Description:
+     * This method encodes a credential as its cost, then the salt and the
+     * hash, each preceded by its length.
+     *
+     * Parameters:
+     * Credential credential - the credential to encode
+     *
+     * Return:
+     * the encoded bytes
+     *********************************************************************/
+    private static byte[] encode(Credential credential) {
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + 2 + credential.salt.length + credential.hash.length);
+        out.putInt(credential.iterations);
+        out.put((byte) credential.salt.length).put(credential.salt);
+        out.put((byte) credential.hash.length).put(credential.hash);
+        return out.array();
+    } /* End of encode method */
+
+    /**********************************************************************
+     * Method name: hashNew
+     *
+     * Description:
+     * This method hashes a password with a fresh salt at the current cost.
+     *
+     * Parameters:
+     * String password - the password to hash
+     *
+     * Return:
+     * the new credential
+     *********************************************************************/
+    private Credential hashNew(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int iterations = intIterations;
+        return new Credential(salt, pbkdf2(password, salt, iterations), iterations);
+    } /* End of hashNew method */
+
+    /**********************************************************************
+     * Method name: pbkdf2
+     *
+     * Description:
+     * This method derives a hash from a password with PBKDF2-HMAC-SHA256.
+     *
+     * Parameters:
+     * String password - the password
+     * byte[] salt - the salt
+     * int iterations - the cost
+     *
+     * Return:
+     * the derived hash
+     *********************************************************************/
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    } /* End of pbkdf2 method */
+} /* End of CredentialStore class */
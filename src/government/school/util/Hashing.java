@@ -0,0 +1,110 @@
+/**************************************************************************
+ * File name:
+ * Hashing.java
+ *
+ * Description:
+ * This file contains the Hashing class, a package-private helper shared
+ * by the open-addressing maps in this package. It spreads hash codes so
+ * that sequential keys (such as 6-digit student IDs) do not cluster, and
+ * sizes tables to powers of two so indexes can be taken with a mask.
+ *
+ * Author:
+ * Givontae Mclean
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Bit mixing of hash codes
+ * Power-of-two table sizing
+ ***************************************************************************/
+
+package government.school.util;
+
+final class Hashing {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    static final int MIN_CAPACITY = 16; // Smallest table any map allocates
+    static final int MAX_CAPACITY = 1 << 30; // Largest power-of-two array length
+    static final float LOAD_FACTOR = 0.75f; // Fraction of slots used before growing
+
+    /**********************************************************************
+     * Constructor: Hashing
+     *
+     * Description:
+     * This class only holds static helpers and is never instantiated.
+     *********************************************************************/
+    private Hashing() {
+    } /* End of Hashing constructor */
+
+    /**********************************************************************
+     * Method name: mix
+     *
+     * Description:
+     * This method scrambles the bits of a hash code (the finalizer step of
+     * MurmurHash3) so that the low bits used for indexing depend on every
+     * bit of the input.
+     *
+     * Parameters:
+     * int h - the raw hash code
+     *
+     * Return:
+     * the mixed hash code
+     *********************************************************************/
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    } /* End of mix method */
+
+    /**********************************************************************
+     * Method name: tableSizeFor
+     *
+     * Description:
+     * This method returns the smallest power-of-two table length that can
+     * hold the expected number of entries without exceeding the load
+     * factor.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the table should hold
+     *
+     * Return:
+     * a power-of-two table length
+     *
+     * Restrictions:
+     * expectedSize must not be negative.
+     *********************************************************************/
+    static int tableSizeFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    } /* End of tableSizeFor method */
+
+    /**********************************************************************
+     * Method name: thresholdFor
+     *
+     * Description:
+     * This method returns the number of entries a table of the given
+     * length may hold before it has to grow.
+     *
+     * Parameters:
+     * int capacity - the table length
+     *
+     * Return:
+     * the resize threshold
+     *********************************************************************/
+    static int thresholdFor(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    } /* End of thresholdFor method */
+} /* End of Hashing class */
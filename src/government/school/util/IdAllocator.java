@@ -0,0 +1,721 @@
+/**************************************************************************
+ * File name:
+ * IdAllocator.java
+ *
+ * Description:
+ * This file contains the IdAllocator class, which hands out unique IDs
+ * from a fixed numeric range in a random-looking order. Instead of
+ * drawing random numbers until an unused one turns up, it walks a
+ * counter through a keyed permutation of the range, so each ID costs a
+ * constant amount of work no matter how full the range is. IDs that were
+ * assigned elsewhere (for example, loaded from a file) are recorded in a
+ * bitset and skipped. The whole state can be saved to disk and restored.
+ * The allocator is thread-safe, and bulk workers can lease blocks of IDs
+ * to hand out without touching the shared lock for every ID.
+ *
+ * Author:
+ * G. Murzaku
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Format-preserving permutation with a Feistel network
+ * Cycle walking
+ * Bitsets
+ * Binary checkpoint files
+ * Block leasing to avoid lock contention
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public final class IdAllocator {
+
+    /* *************************************************************************
+     * Public Nested Class: Lease
+     *
+     * Description:
+     * This class holds a block of IDs taken from the allocator in one
+     * locked step. A lease belongs to one thread, which hands its IDs out
+     * with no locking at all and fetches another block when it runs dry.
+     * Closing the lease gives unissued IDs back to the allocator.
+     *************************************************************************/
+    public static final class Lease implements AutoCloseable {
+        private final IdAllocator owner;
+        private final int intBlockSize;
+        private int[] ids;
+        private int intNext;
+        private boolean blnClosed;
+
+        /**********************************************************************
+         * Constructor: Lease
+         *
+         * Description:
+         * This constructor creates an empty lease; the first call to next
+         * fetches the first block.
+         *
+         * Parameters:
+         * IdAllocator owner - the allocator to lease from
+         * int blockSize - the number of IDs fetched at a time
+         *********************************************************************/
+        Lease(IdAllocator owner, int blockSize) {
+            this.owner = owner;
+            this.intBlockSize = blockSize;
+            this.ids = new int[0];
+            this.intNext = 0;
+        }
+
+        /**********************************************************************
+         * Method name: next
+         *
+         * Description:
+         * This method returns the next ID of the block, leasing a new
+         * block first if this one is used up.
+         *
+         * Return:
+         * a unique ID
+         *
+         * Restrictions:
+         * Throws IllegalStateException when every ID in the range is taken
+         * or the lease is closed.
+         *********************************************************************/
+        public int next() {
+            if (blnClosed) {
+                throw new IllegalStateException("ID lease is closed");
+            }
+            if (intNext == ids.length) {
+                ids = owner.allocateBlock(intBlockSize);
+                intNext = 0;
+            }
+            return ids[intNext++];
+        } /* End of next method */
+
+        /**********************************************************************
+         * Method name: close
+         *
+         * Description:
+         * This method returns the IDs this lease has not handed out, so
+         * that other callers can use them. Closing a closed lease does
+         * nothing.
+         *********************************************************************/
+        @Override
+        public void close() {
+            if (blnClosed) {
+                return;
+            }
+            blnClosed = true;
+            owner.endLease(ids, intNext, ids.length);
+            intNext = ids.length;
+        } /* End of close method */
+    } /* End of Lease class */
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int FILE_MAGIC = 0x4A494441; // "JIDA"
+    private static final int FILE_VERSION = 2; // Version 2 adds the free list
+    private static final int ROUNDS = 4; // Feistel rounds
+
+    private final int intMinId; // Lowest ID handed out
+    private final int intRange; // Number of IDs in the range
+    private final int intHalfBits; // Bits in each Feistel half
+    private final int intHalfMask;
+    private final int[] roundKeys; // Secret keys that select the permutation
+    private final BitSet used; // Bit i is set once intMinId + i is taken
+    private int intCursor; // Next permutation position to try
+    private int intUsedCount;
+    private int[] freeIds; // IDs given back by closed leases
+    private int intFreeCount;
+    private int intOpenLeases; // Leases opened and not yet closed
+
+    /**********************************************************************
+     * Constructor: IdAllocator
+     *
+     * Description:
+     * This constructor creates an allocator for the IDs minId to maxId,
+     * with a fresh random permutation.
+     *
+     * Parameters:
+     * int minId - the lowest ID to hand out
+     * int maxId - the highest ID to hand out
+     *
+     * Restrictions:
+     * minId must not be greater than maxId.
+     *********************************************************************/
+    public IdAllocator(int minId, int maxId) {
+        this(minId, maxId, randomKeys(), new BitSet(), 0, new int[0]);
+    } /* End of IdAllocator constructor */
+
+    /**********************************************************************
+     * Constructor: IdAllocator
+     *
+     * Description:
+     * This constructor rebuilds an allocator from its saved state.
+     *
+     * Parameters:
+     * int minId - the lowest ID to hand out
+     * int maxId - the highest ID to hand out
+     * int[] roundKeys - the permutation keys
+     * BitSet used - the IDs already taken, relative to minId
+     * int cursor - the next permutation position to try
+     * int[] freeIds - IDs given back by leases, still unused
+     *********************************************************************/
+    private IdAllocator(int minId, int maxId, int[] roundKeys, BitSet used, int cursor, int[] freeIds) {
+        if (minId > maxId) {
+            throw new IllegalArgumentException("Minimum ID cannot be greater than maximum ID");
+        }
+        long range = (long) maxId - minId + 1;
+        if (range > (1 << 30)) {
+            throw new IllegalArgumentException("ID range is too large");
+        }
+        this.intMinId = minId;
+        this.intRange = (int) range;
+
+        /* The permutation runs over the smallest even power of two covering the range */
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(intRange - 1));
+        if (bits % 2 == 1) {
+            bits++;
+        }
+        this.intHalfBits = bits / 2;
+        this.intHalfMask = (1 << intHalfBits) - 1;
+        this.roundKeys = roundKeys;
+        this.used = used;
+        this.intCursor = cursor;
+        this.intUsedCount = used.cardinality();
+        this.freeIds = freeIds;
+        this.intFreeCount = freeIds.length;
+    } /* End of IdAllocator constructor */
+
+    /**********************************************************************
+     * Method name: randomKeys
+     *
+     * Description:
+     * This method draws a fresh set of permutation keys.
+     *
+     * Return:
+     * one key per Feistel round
+     *********************************************************************/
+    private static int[] randomKeys() {
+        SecureRandom random = new SecureRandom();
+        int[] keys = new int[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            keys[i] = random.nextInt();
+        }
+        return keys;
+    } /* End of randomKeys method */
+
+    /**********************************************************************
+     * Method name: permute
+     *
+     * Description:
+     * This method maps a position in the range to an offset in the range
+     * one-to-one. A balanced Feistel network shuffles the covering power
+     * of two, and results outside the range are fed back in (cycle
+     * walking) until one lands inside it. Because the range covers at
+     * least a quarter of the domain, this takes under four rounds of the
+     * network on average.
+     *
+     * Parameters:
+     * int position - a value from 0 to range - 1
+     *
+     * Return:
+     * the permuted offset, from 0 to range - 1
+     *********************************************************************/
+    private int permute(int position) {
+        int value = position;
+        do {
+            int left = value >>> intHalfBits;
+            int right = value & intHalfMask;
+            for (int round = 0; round < ROUNDS; round++) {
+                int next = left ^ (Hashing.mix(right ^ roundKeys[round]) & intHalfMask);
+                left = right;
+                right = next;
+            }
+            value = (left << intHalfBits) | right;
+        } while (value >= intRange);
+        return value;
+    } /* End of permute method */
+
+    /**********************************************************************
+     * Method name: allocate
+     *
+     * Description:
+     * This method returns the next unused ID in permutation order and
+     * marks it as used. IDs reserved out of order are skipped, so the
+     * total work over the life of the allocator is proportional to the
+     * size of the range.
+     *
+     * Return:
+     * a unique ID
+     *
+     * Restrictions:
+     * Throws IllegalStateException when every ID in the range is taken.
+     *********************************************************************/
+    public synchronized int allocate() {
+        int id = nextFree();
+        if (id < 0) {
+            throw exhausted();
+        }
+        return id;
+    } /* End of allocate method */
+
+    /**********************************************************************
+     * Method name: lease
+     *
+     * Description:
+     * This method opens a lease that fetches IDs blockSize at a time.
+     *
+     * Parameters:
+     * int blockSize - the number of IDs fetched at a time
+     *
+     * Return:
+     * a new lease for the calling thread
+     *
+     * Restrictions:
+     * blockSize must be positive.
+     *********************************************************************/
+    public Lease lease(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        synchronized (this) {
+            intOpenLeases++;
+        }
+        return new Lease(this, blockSize);
+    } /* End of lease method */
+
+    /**********************************************************************
+     * Method name: getOpenLeaseCount
+     *
+     * Description:
+     * This method returns how many leases are open. While any are, IDs
+     * are being handed out from blocks this allocator no longer holds.
+     *
+     * Return:
+     * the number of leases opened and not yet closed
+     *********************************************************************/
+    public synchronized int getOpenLeaseCount() {
+        return intOpenLeases;
+    } /* End of getOpenLeaseCount method */
+
+    /**********************************************************************
+     * Method name: endLease
+     *
+     * Description:
+     * This method closes a lease: it takes back the IDs the lease never
+     * issued and stops counting the lease as open.
+     *
+     * Parameters:
+     * int[] ids - the lease's current block
+     * int from - the first unissued index, inclusive
+     * int to - the end of the unissued range, exclusive
+     *********************************************************************/
+    synchronized void endLease(int[] ids, int from, int to) {
+        release(ids, from, to);
+        intOpenLeases--;
+    } /* End of endLease method */
+
+    /**********************************************************************
+     * Method name: allocateBlock
+     *
+     * Description:
+     * This method takes up to count IDs in a single locked step. Near the
+     * end of the range the block may be shorter than requested.
+     *
+     * Parameters:
+     * int count - the number of IDs wanted
+     *
+     * Return:
+     * the IDs, all marked as used
+     *
+     * Restrictions:
+     * Throws IllegalStateException when every ID in the range is taken.
+     *********************************************************************/
+    synchronized int[] allocateBlock(int count) {
+        int[] block = new int[Math.min(count, remaining())];
+        if (block.length == 0) {
+            throw exhausted();
+        }
+        for (int i = 0; i < block.length; i++) {
+            block[i] = nextFree();
+            if (block[i] < 0) {
+                return Arrays.copyOf(block, i);
+            }
+        }
+        return block;
+    } /* End of allocateBlock method */
+
+    /**********************************************************************
+     * Method name: release
+     *
+     * Description:
+     * This method takes back IDs that a lease fetched but never issued.
+     * They are marked as unused again, so they can be reserved, and are
+     * handed out again before any new position of the permutation.
+     *
+     * Parameters:
+     * int[] ids - the block of IDs
+     * int from - the first unissued index, inclusive
+     * int to - the end of the unissued range, exclusive
+     *********************************************************************/
+    synchronized void release(int[] ids, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (intFreeCount + count > freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(intFreeCount + count, freeIds.length * 2));
+        }
+        for (int i = from; i < to; i++) {
+            int offset = checkedOffset(ids[i]);
+            if (used.get(offset)) {
+                used.clear(offset);
+                intUsedCount--;
+                freeIds[intFreeCount++] = ids[i];
+            }
+        }
+    } /* End of release method */
+
+    /**********************************************************************
+     * Method name: nextFree
+     *
+     * Description:
+     * This method takes one ID, preferring IDs given back by leases.
+     * Given-back IDs that were reserved since are dropped from the free
+     * list here. The caller must hold the lock.
+     *
+     * Return:
+     * a unique ID, or -1 if none remain
+     *********************************************************************/
+    private int nextFree() {
+        while (intFreeCount > 0) {
+            int id = freeIds[--intFreeCount];
+            int offset = id - intMinId;
+            if (!used.get(offset)) {
+                used.set(offset);
+                intUsedCount++;
+                return id;
+            }
+        }
+        while (intCursor < intRange) {
+            int offset = permute(intCursor++);
+            if (!used.get(offset)) {
+                used.set(offset);
+                intUsedCount++;
+                return intMinId + offset;
+            }
+        }
+        return -1;
+    } /* End of nextFree method */
+
+    /**********************************************************************
+     * Method name: exhausted
+     *
+     * Description:
+     * This method builds the error reported when the range is used up.
+     *
+     * Return:
+     * the exception to throw
+     *********************************************************************/
+    private IllegalStateException exhausted() {
+        return new IllegalStateException("All " + intRange + " IDs between " + intMinId +
+                " and " + (intMinId + intRange - 1) + " have been allocated");
+    } /* End of exhausted method */
+
+    /**********************************************************************
+     * Method name: reserve
+     *
+     * Description:
+     * This method marks an ID assigned elsewhere, such as one read back
+     * from a saved record, so that it is never handed out.
+     *
+     * Parameters:
+     * int id - the ID to reserve
+     *
+     * Return:
+     * true if the ID was free, false if it was already taken
+     *
+     * Restrictions:
+     * The ID must lie within the allocator's range.
+     *********************************************************************/
+    public synchronized boolean reserve(int id) {
+        int offset = checkedOffset(id);
+        if (used.get(offset)) {
+            return false;
+        }
+        used.set(offset);
+        intUsedCount++;
+        return true;
+    } /* End of reserve method */
+
+    /**********************************************************************
+     * Method name: reserveAll
+     *
+     * Description:
+     * This method reserves a batch of IDs in one locked step, so parallel
+     * loaders do not queue on the lock once per ID.
+     *
+     * Parameters:
+     * int[] ids - the IDs to reserve
+     * int count - how many IDs to take from the front of the array
+     *
+     * Return:
+     * the number of IDs that were free
+     *
+     * Restrictions:
+     * Every ID must lie within the allocator's range; IDs before an
+     * out-of-range one have already been reserved.
+     *********************************************************************/
+    public synchronized int reserveAll(int[] ids, int count) {
+        if (ids == null || count < 0 || count > ids.length) {
+            throw new IllegalArgumentException("IDs must be non-null and hold count entries");
+        }
+        int reserved = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = checkedOffset(ids[i]);
+            if (!used.get(offset)) {
+                used.set(offset);
+                reserved++;
+            }
+        }
+        intUsedCount += reserved;
+        return reserved;
+    } /* End of reserveAll method */
+
+    /**********************************************************************
+     * Method name: reserveAll
+     *
+     * Description:
+     * This method reserves a batch of IDs in one locked step and records
+     * which of them were free, so an importer can reject exactly the
+     * records whose IDs are already taken.
+     *
+     * Parameters:
+     * int[] ids - the IDs to reserve
+     * int count - how many IDs to take from the front of the array
+     * boolean[] fresh - set to true for each ID that was free
+     *
+     * Return:
+     * the number of IDs that were free
+     *
+     * Restrictions:
+     * Every ID must lie within the allocator's range, and fresh must hold
+     * count entries. An ID repeated in the batch is free only the first
+     * time.
+     *********************************************************************/
+    public synchronized int reserveAll(int[] ids, int count, boolean[] fresh) {
+        if (ids == null || fresh == null || count < 0 || count > ids.length || count > fresh.length) {
+            throw new IllegalArgumentException("IDs and flags must be non-null and hold count entries");
+        }
+        for (int i = 0; i < count; i++) {
+            checkedOffset(ids[i]);
+        }
+        int reserved = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = checkedOffset(ids[i]);
+            fresh[i] = !used.get(offset);
+            if (fresh[i]) {
+                used.set(offset);
+                reserved++;
+            }
+        }
+        intUsedCount += reserved;
+        return reserved;
+    } /* End of reserveAll method */
+
+    /**********************************************************************
+     * Method name: isUsed
+     *
+     * Description:
+     * This method checks whether an ID has been allocated or reserved.
+     *
+     * Parameters:
+     * int id - the ID to check
+     *
+     * Return:
+     * true if the ID is taken
+     *********************************************************************/
+    public synchronized boolean isUsed(int id) {
+        return used.get(checkedOffset(id));
+    } /* End of isUsed method */
+
+    /**********************************************************************
+     * Method name: checkedOffset
+     *
+     * Description:
+     * This method converts an ID to its offset within the range.
+     *
+     * Parameters:
+     * int id - the ID to convert
+     *
+     * Return:
+     * the offset of the ID
+     *********************************************************************/
+    private int checkedOffset(int id) {
+        long offset = (long) id - intMinId;
+        if (offset < 0 || offset >= intRange) {
+            throw new IllegalArgumentException("ID " + id + " is outside the allocator's range");
+        }
+        return (int) offset;
+    } /* End of checkedOffset method */
+
+    /**********************************************************************
+     * Method name: remaining
+     *
+     * Description:
+     * This method returns how many IDs are still free.
+     *
+     * Return:
+     * the number of unused IDs
+     *********************************************************************/
+    public synchronized int remaining() {
+        return intRange - intUsedCount;
+    } /* End of remaining method */
+
+    /**********************************************************************
+     * Method name: checkpoint
+     *
+     * Description:
+     * This method saves the allocator state (range, permutation keys,
+     * cursor, used bitset and the IDs given back by closed leases) to a
+     * file. It writes to a temporary file first and then moves it into
+     * place, so a crash never leaves a half-written checkpoint. IDs held
+     * by open leases are saved as used, so they are never reissued after
+     * a restore.
+     *
+     * Parameters:
+     * Path file - where to save the state
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be written.
+     *********************************************************************/
+    public synchronized void checkpoint(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(intMinId);
+            out.writeInt(intRange);
+            for (int key : roundKeys) {
+                out.writeInt(key);
+            }
+            out.writeInt(intCursor);
+            long[] words = used.toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            int[] free = unusedFreeIds();
+            out.writeInt(free.length);
+            for (int id : free) {
+                out.writeInt(id);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } /* End of checkpoint method */
+
+    /**********************************************************************
+     * Method name: unusedFreeIds
+     *
+     * Description:
+     * This method lists the given-back IDs that have not been reserved
+     * since they were given back. The caller must hold the lock.
+     *
+     * Return:
+     * the still-unused free IDs, each once
+     *********************************************************************/
+    private int[] unusedFreeIds() {
+        int[] free = new int[intFreeCount];
+        BitSet seen = new BitSet();
+        int count = 0;
+        for (int i = 0; i < intFreeCount; i++) {
+            int offset = freeIds[i] - intMinId;
+            if (!used.get(offset) && !seen.get(offset)) {
+                seen.set(offset);
+                free[count++] = freeIds[i];
+            }
+        }
+        return Arrays.copyOf(free, count);
+    } /* End of unusedFreeIds method */
+
+    /**********************************************************************
+     * Method name: restore
+     *
+     * Description:
+     * This method loads an allocator saved by checkpoint. The restored
+     * allocator continues the same permutation where it left off.
+     *
+     * Parameters:
+     * Path file - the checkpoint to load
+     *
+     * Return:
+     * the restored allocator
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be read or is not a
+     * checkpoint written by this class.
+     *********************************************************************/
+    public static IdAllocator restore(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not an ID allocator checkpoint");
+            }
+            int version = in.readInt();
+            if (version != 1 && version != FILE_VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            int minId = in.readInt();
+            int range = in.readInt();
+            int[] keys = new int[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = in.readInt();
+            }
+            int cursor = in.readInt();
+            int wordCount = in.readInt();
+            if (range <= 0 || cursor < 0 || cursor > range || wordCount < 0
+                    || wordCount > (range + 63) / 64) {
+                throw new IOException("Checkpoint is corrupt");
+            }
+            long[] words = new long[wordCount];
+            for (int i = 0; i < wordCount; i++) {
+                words[i] = in.readLong();
+            }
+            BitSet used = BitSet.valueOf(words);
+
+            /* Version 1 saved given-back IDs as used and has no free list */
+            int[] free = new int[0];
+            if (version == FILE_VERSION) {
+                int freeCount = in.readInt();
+                if (freeCount < 0 || freeCount > range) {
+                    throw new IOException("Checkpoint is corrupt");
+                }
+                free = new int[freeCount];
+                for (int i = 0; i < freeCount; i++) {
+                    free[i] = in.readInt();
+                    long offset = (long) free[i] - minId;
+                    if (offset < 0 || offset >= range || used.get((int) offset)) {
+                        throw new IOException("Checkpoint is corrupt");
+                    }
+                }
+            }
+            return new IdAllocator(minId, minId + range - 1, keys, used, cursor, free);
+        }
+    } /* End of restore method */
+} /* End of IdAllocator class */
@@ -0,0 +1,17 @@
+package government.school.util;
+
+/**
+ * Callback used to visit the entries of an IntIntMap without boxing the
+ * key or the value.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+
+    /**
+     * Visits one entry of the map.
+     *
+     * @param key   The key of the entry.
+     * @param value The value associated with the key.
+     */
+    public void accept(int key, int value);
+}
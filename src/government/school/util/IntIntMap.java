@@ -0,0 +1,425 @@
+/**************************************************************************
+ * File name:
+ * IntIntMap.java
+ *
+ * Description:
+ * This file contains the IntIntMap class, a hash map from primitive
+ * int keys to primitive int values. It follows the same contract as
+ * ArrayMap but stores keys and values in parallel arrays, so reading or
+ * writing an entry never boxes a value or allocates an entry object.
+ *
+ * Author:
+ * Givontae Mclean
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Primitive specialization of a hash map
+ * Open addressing with linear probing
+ * Backward-shift deletion
+ * Allocation-free iteration with cursors
+ ***************************************************************************/
+
+package government.school.util;
+
+public class IntIntMap {
+
+    /* *************************************************************************
+     * Public Nested Class: Cursor
+     *
+     * Description:
+     * This class walks the occupied slots of the backing arrays directly.
+     * A single cursor can be rewound with reset and reused, so iterating
+     * a map allocates nothing. The map must not gain or lose keys while a
+     * cursor is in use; updating the value of the current key is allowed.
+     *************************************************************************/
+    public static final class Cursor {
+        private final IntIntMap map;
+        private int index;
+
+        /**********************************************************************
+         * Constructor: Cursor
+         *
+         * Description:
+         * This constructor positions a new cursor before the first entry.
+         *
+         * Parameters:
+         * IntIntMap map - the map to walk
+         *********************************************************************/
+        Cursor(IntIntMap map) {
+            this.map = map;
+            this.index = -1;
+        }
+
+        /**********************************************************************
+         * Method name: next
+         *
+         * Description:
+         * This method advances to the next entry.
+         *
+         * Return:
+         * true if the cursor now points at an entry, false at the end
+         *********************************************************************/
+        public boolean next() {
+            boolean[] used = map.used;
+            while (++index < used.length) {
+                if (used[index]) {
+                    return true;
+                }
+            }
+            return false;
+        } /* End of next method */
+
+        /**********************************************************************
+         * Method name: key
+         *
+         * Description:
+         * This method returns the key of the current entry.
+         *
+         * Return:
+         * the current key
+         *********************************************************************/
+        public int key() {
+            return map.keys[index];
+        } /* End of key method */
+
+        /**********************************************************************
+         * Method name: value
+         *
+         * Description:
+         * This method returns the value of the current entry.
+         *
+         * Return:
+         * the current value
+         *********************************************************************/
+        public int value() {
+            return map.values[index];
+        } /* End of value method */
+
+        /**********************************************************************
+         * Method name: setValue
+         *
+         * Description:
+         * This method replaces the value of the current entry in place.
+         *
+         * Parameters:
+         * int value - the new value
+         *********************************************************************/
+        public void setValue(int value) {
+            map.values[index] = value;
+        } /* End of setValue method */
+
+        /**********************************************************************
+         * Method name: reset
+         *
+         * Description:
+         * This method rewinds the cursor to before the first entry.
+         *********************************************************************/
+        public void reset() {
+            index = -1;
+        } /* End of reset method */
+    } /* End of Cursor class */
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private int[] keys; // Keys, valid only where used[i] is true
+    private int[] values; // Values stored alongside keys
+    private boolean[] used; // Marks the occupied slots
+    private int size;
+    private int threshold; // Size at which the table grows
+
+    /**********************************************************************
+     * Constructor: IntIntMap
+     *
+     * Description:
+     * This constructor initializes the map with a default capacity.
+     *********************************************************************/
+    public IntIntMap() {
+        this(0);
+    } /* End of IntIntMap constructor */
+
+    /**********************************************************************
+     * Constructor: IntIntMap
+     *
+     * Description:
+     * This constructor initializes the map large enough to hold the
+     * expected number of entries without ever resizing.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the map will hold
+     *
+     * Restrictions:
+     * expectedSize must not be negative.
+     *********************************************************************/
+    public IntIntMap(int expectedSize) {
+        allocate(Hashing.tableSizeFor(expectedSize));
+    } /* End of IntIntMap constructor */
+
+    /**********************************************************************
+     * Method name: allocate
+     *
+     * Description:
+     * This method replaces the backing arrays with empty arrays of the
+     * given power-of-two length.
+     *
+     * Parameters:
+     * int capacity - the new table length
+     *********************************************************************/
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        threshold = Hashing.thresholdFor(capacity);
+        size = 0;
+    } /* End of allocate method */
+
+    /**********************************************************************
+     * Method name: hash
+     *
+     * Description:
+     * This method computes the home slot for a given key.
+     *
+     * Parameters:
+     * int key - the key to be hashed
+     *
+     * Return:
+     * an integer representing the index within the table
+     *********************************************************************/
+    private int hash(int key) {
+        return Hashing.mix(key) & (keys.length - 1);
+    } /* End of hash method */
+
+    /**********************************************************************
+     * Method name: indexOf
+     *
+     * Description:
+     * This method finds the slot holding a given key.
+     *
+     * Parameters:
+     * int key - the key to search for
+     *
+     * Return:
+     * the slot index, or -1 if the key is not in the map
+     *********************************************************************/
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key);
+
+        /* Probe until key is found or an empty slot is reached */
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    } /* End of indexOf method */
+
+    /**********************************************************************
+     * Method name: put
+     *
+     * Description:
+     * This method inserts or updates a key-value pair in the map.
+     *
+     * Parameters:
+     * int key - the key to insert
+     * int value - the value associated with the key
+     *********************************************************************/
+    public void put(int key, int value) {
+        if (size >= threshold) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int index = hash(key);
+
+        /* Linear probing to find the key or an available slot */
+        while (used[index]) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    } /* End of put method */
+
+    /**********************************************************************
+     * Method name: get
+     *
+     * Description:
+     * This method retrieves the value associated with a given key.
+     *
+     * Parameters:
+     * int key - the key to search for
+     *
+     * Return:
+     * the value associated with the key, or 0 if not found
+     *********************************************************************/
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    } /* End of get method */
+
+    /**********************************************************************
+     * Method name: getOrDefault
+     *
+     * Description:
+     * This method retrieves the value associated with a given key, or the
+     * supplied fallback when the key is absent. Callers can pass a value
+     * that cannot occur (such as -1 for a count) to test for presence and read
+     * the value in a single probe.
+     *
+     * Parameters:
+     * int key - the key to search for
+     * int defaultValue - the value returned when the key is absent
+     *
+     * Return:
+     * the value associated with the key, or defaultValue if not found
+     *********************************************************************/
+    public int getOrDefault(int key, int defaultValue) {
+        int index = indexOf(key);
+        return (index < 0) ? defaultValue : values[index];
+    } /* End of getOrDefault method */
+
+    /**********************************************************************
+     * Method name: containsKey
+     *
+     * Description:
+     * This method checks if a key exists in the map.
+     *
+     * Parameters:
+     * int key - the key to check
+     *
+     * Return:
+     * true if the key exists, false otherwise
+     *********************************************************************/
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    } /* End of containsKey method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a key-value pair from the map. Entries that
+     * follow it in the same cluster are shifted back into the gap, so no
+     * tombstones are left behind and the table never resizes here.
+     *
+     * Parameters:
+     * int key - the key to remove
+     *********************************************************************/
+    public void remove(int key) {
+        int gap = indexOf(key);
+        if (gap < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int index = gap;
+
+        /* Pull back every later entry whose home slot is not inside (gap, index] */
+        while (true) {
+            index = (index + 1) & mask;
+            if (!used[index]) {
+                break;
+            }
+            int home = hash(keys[index]);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        used[gap] = false;
+        size--;
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: resize
+     *
+     * Description:
+     * This method doubles the table size and rehashes existing entries.
+     *********************************************************************/
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        if (oldKeys.length >= Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("Map cannot grow any further");
+        }
+        allocate(oldKeys.length * 2);
+
+        /* Reinsert occupied slots */
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    } /* End of resize method */
+
+    /**********************************************************************
+     * Method name: cursor
+     *
+     * Description:
+     * This method returns a new cursor positioned before the first entry.
+     *
+     * Return:
+     * a reusable cursor over this map
+     *********************************************************************/
+    public Cursor cursor() {
+        return new Cursor(this);
+    } /* End of cursor method */
+
+    /**********************************************************************
+     * Method name: forEach
+     *
+     * Description:
+     * This method passes every entry to the given callback in a single
+     * scan of the backing arrays, in no particular order.
+     *
+     * Parameters:
+     * IntIntConsumer action - the callback to run for each entry
+     *********************************************************************/
+    public void forEach(IntIntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    } /* End of forEach method */
+
+    /**********************************************************************
+     * Method name: sum
+     *
+     * Description:
+     * This method adds up every value in the map in a single scan.
+     *
+     * Return:
+     * the sum of all values, or 0 if the map is empty
+     *********************************************************************/
+    public long sum() {
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                total += values[i];
+            }
+        }
+        return total;
+    } /* End of sum method */
+
+    /**********************************************************************
+     * Method name: size
+     *
+     * Description:
+     * This method returns the number of elements in the map.
+     *
+     * Return:
+     * an integer representing the size of the map
+     *********************************************************************/
+    public int size() {
+        return size;
+    } /* End of size method */
+} /* End of IntIntMap class */
@@ -0,0 +1,800 @@
+/**************************************************************************
+ * File name:
+ * OffHeapIntLongMap.java
+ *
+ * Description:
+ * This file contains the OffHeapIntLongMap class, a hash map from int
+ * keys to long values whose table lives outside the Java heap. The table
+ * is either a set of direct ByteBuffers or a memory-mapped file, so large
+ * historical grade and attendance tables are never scanned by the garbage
+ * collector, and a file-backed map can be reopened after a restart
+ * without reloading its entries. Double values, such as grades, can be
+ * stored through putDouble and getDouble.
+ *
+ * A ByteBuffer is indexed by int, so the slots are split into chunks of
+ * at most 64 MiB, each its own buffer or mapping of the file, and a table
+ * can grow to the largest power-of-two capacity of any other map here.
+ *
+ * Author:
+ * Givontae Mclean
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Off-heap storage with direct and mapped byte buffers
+ * Chunked tables addressed by long file offsets
+ * Fixed-width binary slot layout
+ * Open addressing with backward-shift deletion
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class OffHeapIntLongMap implements Closeable {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private static final int MAGIC = 0x4A41524D; // "JARM", marks a map file
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16; // magic, version, capacity, size
+    private static final int SIZE_OFFSET = 12;
+    private static final int SLOT_BYTES = 16; // used flag, key, value
+    private static final int KEY_OFFSET = 4;
+    private static final int VALUE_OFFSET = 8;
+    private static final int CHUNK_SHIFT = 22; // 2^22 slots, 64 MiB per buffer
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private Table table;
+    private final Path file; // Backing file, or null for an anonymous map
+    private FileChannel channel;
+    private int capacity;
+    private int size;
+    private int threshold;
+
+    /* *************************************************************************
+     * Private Nested Class: Table
+     *
+     * Description:
+     * This class holds the off-heap storage of one table: the header and the
+     * slots, split into chunks that each fit in a single buffer. Every chunk
+     * holds the same whole number of slots, so a slot never spans two buffers.
+     *************************************************************************/
+    private static final class Table {
+        final ByteBuffer header;
+        final ByteBuffer[] chunks;
+
+        /**********************************************************************
+         * Constructor: Table
+         *
+         * Description:
+         * This constructor wraps a header and the chunks holding the slots.
+         *
+         * Parameters:
+         * ByteBuffer header - the table header
+         * ByteBuffer[] chunks - the slots, in order
+         *********************************************************************/
+        Table(ByteBuffer header, ByteBuffer[] chunks) {
+            this.header = header;
+            this.chunks = chunks;
+        }
+
+        /**********************************************************************
+         * Method name: allocate
+         *
+         * Description:
+         * This method creates an empty table in direct buffers.
+         *
+         * Parameters:
+         * int capacity - the number of slots
+         *
+         * Return:
+         * the new table, header written
+         *********************************************************************/
+        static Table allocate(int capacity) {
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount(capacity)];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = ByteBuffer.allocateDirect(chunkBytes(capacity));
+            }
+            Table created = new Table(ByteBuffer.allocateDirect(HEADER_BYTES), chunks);
+            writeHeader(created.header, capacity);
+            return created;
+        } /* End of allocate method */
+
+        /**********************************************************************
+         * Method name: map
+         *
+         * Description:
+         * This method maps the slots of a map file, chunk by chunk, at long
+         * file offsets. Mapping past the end of the file grows it.
+         *
+         * Parameters:
+         * FileChannel channel - an open read-write channel on the file
+         * MappedByteBuffer header - the mapping of the file header
+         * int capacity - the number of slots
+         *
+         * Return:
+         * the mapped table
+         *
+         * Restrictions:
+         * Throws IOException if a chunk cannot be mapped.
+         *********************************************************************/
+        static Table map(FileChannel channel, MappedByteBuffer header, int capacity) throws IOException {
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount(capacity)];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_BYTES + (long) i * chunkBytes(capacity), chunkBytes(capacity));
+            }
+            return new Table(header, chunks);
+        } /* End of map method */
+
+        /**********************************************************************
+         * Method name: isUsed
+         *
+         * Description:
+         * This method checks whether a slot holds an entry.
+         *
+         * Parameters:
+         * int index - the slot index
+         *
+         * Return:
+         * true if the slot is occupied
+         *********************************************************************/
+        boolean isUsed(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getInt(offset(index)) != 0;
+        } /* End of isUsed method */
+
+        /**********************************************************************
+         * Method name: key
+         *
+         * Description:
+         * This method reads the key of an occupied slot.
+         *
+         * Parameters:
+         * int index - the slot index
+         *
+         * Return:
+         * the key stored in the slot
+         *********************************************************************/
+        int key(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getInt(offset(index) + KEY_OFFSET);
+        } /* End of key method */
+
+        /**********************************************************************
+         * Method name: value
+         *
+         * Description:
+         * This method reads the value of an occupied slot.
+         *
+         * Parameters:
+         * int index - the slot index
+         *
+         * Return:
+         * the value stored in the slot
+         *********************************************************************/
+        long value(int index) {
+            return chunks[index >>> CHUNK_SHIFT].getLong(offset(index) + VALUE_OFFSET);
+        } /* End of value method */
+
+        /**********************************************************************
+         * Method name: setValue
+         *
+         * Description:
+         * This method replaces the value of an occupied slot.
+         *
+         * Parameters:
+         * int index - the slot index
+         * long value - the new value
+         *********************************************************************/
+        void setValue(int index, long value) {
+            chunks[index >>> CHUNK_SHIFT].putLong(offset(index) + VALUE_OFFSET, value);
+        } /* End of setValue method */
+
+        /**********************************************************************
+         * Method name: write
+         *
+         * Description:
+         * This method fills a slot with an entry, setting the used flag last.
+         *
+         * Parameters:
+         * int index - the slot index
+         * int key - the key to store
+         * long value - the value to store
+         *********************************************************************/
+        void write(int index, int key, long value) {
+            ByteBuffer chunk = chunks[index >>> CHUNK_SHIFT];
+            int offset = offset(index);
+            chunk.putInt(offset + KEY_OFFSET, key);
+            chunk.putLong(offset + VALUE_OFFSET, value);
+            chunk.putInt(offset, 1);
+        } /* End of write method */
+
+        /**********************************************************************
+         * Method name: clear
+         *
+         * Description:
+         * This method marks a slot empty.
+         *
+         * Parameters:
+         * int index - the slot index
+         *********************************************************************/
+        void clear(int index) {
+            chunks[index >>> CHUNK_SHIFT].putInt(offset(index), 0);
+        } /* End of clear method */
+
+        /**********************************************************************
+         * Method name: force
+         *
+         * Description:
+         * This method flushes every mapped buffer of the table to disk. It
+         * does nothing for direct buffers.
+         *********************************************************************/
+        void force() {
+            if (header instanceof MappedByteBuffer) {
+                for (ByteBuffer chunk : chunks) {
+                    ((MappedByteBuffer) chunk).force();
+                }
+                ((MappedByteBuffer) header).force();
+            }
+        } /* End of force method */
+    } /* End of Table class */
+
+    /**********************************************************************
+     * Constructor: OffHeapIntLongMap
+     *
+     * Description:
+     * This constructor creates an anonymous map in direct buffers, sized
+     * to hold the expected number of entries without resizing.
+     *
+     * Parameters:
+     * int expectedSize - the number of entries the map will hold
+     *
+     * Restrictions:
+     * expectedSize must not be negative.
+     *********************************************************************/
+    public OffHeapIntLongMap(int expectedSize) {
+        this.file = null;
+        this.capacity = Hashing.tableSizeFor(expectedSize);
+        this.table = Table.allocate(capacity);
+        this.threshold = Hashing.thresholdFor(capacity);
+    } /* End of OffHeapIntLongMap constructor */
+
+    /**********************************************************************
+     * Constructor: OffHeapIntLongMap
+     *
+     * Description:
+     * This constructor adopts an already-mapped file. Use open to create
+     * instances backed by a file.
+     *
+     * Parameters:
+     * Path file - the backing file
+     * FileChannel channel - an open read-write channel on the file
+     * Table table - the mapping of the whole file
+     *********************************************************************/
+    private OffHeapIntLongMap(Path file, FileChannel channel, Table table) {
+        this.file = file;
+        this.channel = channel;
+        this.table = table;
+        this.capacity = table.header.getInt(8);
+        this.size = table.header.getInt(SIZE_OFFSET);
+        this.threshold = Hashing.thresholdFor(capacity);
+    } /* End of OffHeapIntLongMap constructor */
+
+    /**********************************************************************
+     * Method name: open
+     *
+     * Description:
+     * This method maps a map file into memory, creating it sized for the
+     * expected number of entries if it does not exist yet. Reopening an
+     * existing file only maps it; no entry is read or copied.
+     *
+     * Parameters:
+     * Path file - the file holding the map
+     * int expectedSize - the number of entries a new map should hold
+     *
+     * Return:
+     * the memory-mapped map
+     *
+     * Restrictions:
+     * Throws IOException if the file cannot be opened or is not a map
+     * file written by this class.
+     *********************************************************************/
+    public static OffHeapIntLongMap open(Path file, int expectedSize) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = channel.size();
+            if (exists && length < HEADER_BYTES) {
+                throw new IOException("Not an OffHeapIntLongMap file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            int capacity;
+            if (exists) {
+                validateHeader(header, length);
+                capacity = header.getInt(8);
+            } else {
+                capacity = Hashing.tableSizeFor(expectedSize);
+                writeHeader(header, capacity);
+            }
+            return new OffHeapIntLongMap(file, channel, Table.map(channel, header, capacity));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    } /* End of open method */
+
+    /**********************************************************************
+     * Method name: writeHeader
+     *
+     * Description:
+     * This method stamps an empty table with the file header.
+     *
+     * Parameters:
+     * ByteBuffer header - the header to stamp
+     * int capacity - the number of slots in the table
+     *********************************************************************/
+    private static void writeHeader(ByteBuffer header, int capacity) {
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, capacity);
+        header.putInt(SIZE_OFFSET, 0);
+    } /* End of writeHeader method */
+
+    /**********************************************************************
+     * Method name: validateHeader
+     *
+     * Description:
+     * This method checks that a mapped file holds a table this class can
+     * read. The stored size may not pass the load threshold, since a
+     * lookup probes until it finds an empty slot.
+     *
+     * Parameters:
+     * ByteBuffer header - the mapped header
+     * long length - the length of the file in bytes
+     *
+     * Restrictions:
+     * Throws IOException if the header does not match.
+     *********************************************************************/
+    private static void validateHeader(ByteBuffer header, long length) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not an OffHeapIntLongMap file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported map file version " + header.getInt(4));
+        }
+        int capacity = header.getInt(8);
+        if (capacity < Hashing.MIN_CAPACITY || Integer.bitCount(capacity) != 1
+                || length != bytesFor(capacity)) {
+            throw new IOException("Map file is truncated or corrupt");
+        }
+        int size = header.getInt(SIZE_OFFSET);
+        if (size < 0 || size > Hashing.thresholdFor(capacity)) {
+            throw new IOException("Map file holds an invalid size " + size);
+        }
+    } /* End of validateHeader method */
+
+    /**********************************************************************
+     * Method name: bytesFor
+     *
+     * Description:
+     * This method returns the number of bytes a table of the given
+     * capacity occupies, header included.
+     *
+     * Parameters:
+     * int capacity - the number of slots
+     *
+     * Return:
+     * the table length in bytes
+     *********************************************************************/
+    private static long bytesFor(int capacity) {
+        return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+    } /* End of bytesFor method */
+
+    /**********************************************************************
+     * Method name: chunkCount
+     *
+     * Description:
+     * This method returns the number of buffers a table's slots span.
+     *
+     * Parameters:
+     * int capacity - the number of slots
+     *
+     * Return:
+     * the number of chunks
+     *********************************************************************/
+    private static int chunkCount(int capacity) {
+        return Math.max(1, capacity >>> CHUNK_SHIFT);
+    } /* End of chunkCount method */
+
+    /**********************************************************************
+     * Method name: chunkBytes
+     *
+     * Description:
+     * This method returns the length of each chunk of a table. Capacities
+     * are powers of two, so the chunks divide the slots evenly.
+     *
+     * Parameters:
+     * int capacity - the number of slots
+     *
+     * Return:
+     * the chunk length in bytes
+     *********************************************************************/
+    private static int chunkBytes(int capacity) {
+        return Math.min(capacity, CHUNK_MASK + 1) * SLOT_BYTES;
+    } /* End of chunkBytes method */
+
+    /**********************************************************************
+     * Method name: offset
+     *
+     * Description:
+     * This method returns the byte offset of a slot within its chunk.
+     *
+     * Parameters:
+     * int index - the slot index
+     *
+     * Return:
+     * the offset of the slot within its chunk
+     *********************************************************************/
+    private static int offset(int index) {
+        return (index & CHUNK_MASK) * SLOT_BYTES;
+    } /* End of offset method */
+
+    /**********************************************************************
+     * Method name: indexOf
+     *
+     * Description:
+     * This method finds the slot holding a given key.
+     *
+     * Parameters:
+     * int key - the key to search for
+     *
+     * Return:
+     * the slot index, or -1 if the key is not in the map
+     *********************************************************************/
+    private int indexOf(int key) {
+        checkOpen();
+        int mask = capacity - 1;
+        int index = Hashing.mix(key) & mask;
+
+        /* Probe until key is found or an empty slot is reached */
+        while (table.isUsed(index)) {
+            if (table.key(index) == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    } /* End of indexOf method */
+
+    /**********************************************************************
+     * Method name: put
+     *
+     * Description:
+     * This method inserts or updates a key-value pair in the map.
+     *
+     * Parameters:
+     * int key - the key to insert
+     * long value - the value associated with the key
+     *********************************************************************/
+    public void put(int key, long value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            table.setValue(index, value);
+            return;
+        }
+        if (size >= threshold) {
+            resize();
+        }
+        insert(table, capacity, key, value);
+        setSize(size + 1);
+    } /* End of put method */
+
+    /**********************************************************************
+     * Method name: insert
+     *
+     * Description:
+     * This method writes an entry whose key is known to be absent into
+     * the first free slot of its probe sequence.
+     *
+     * Parameters:
+     * Table target - the table to write to
+     * int capacity - the number of slots in that table
+     * int key - the key to insert
+     * long value - the value associated with the key
+     *********************************************************************/
+    private static void insert(Table target, int capacity, int key, long value) {
+        int mask = capacity - 1;
+        int index = Hashing.mix(key) & mask;
+        while (target.isUsed(index)) {
+            index = (index + 1) & mask;
+        }
+        target.write(index, key, value);
+    } /* End of insert method */
+
+    /**********************************************************************
+     * Method name: get
+     *
+     * Description:
+     * This method retrieves the value associated with a given key.
+     *
+     * Parameters:
+     * int key - the key to search for
+     *
+     * Return:
+     * the value associated with the key, or 0 if not found
+     *********************************************************************/
+    public long get(int key) {
+        return getOrDefault(key, 0L);
+    } /* End of get method */
+
+    /**********************************************************************
+     * Method name: getOrDefault
+     *
+     * Description:
+     * This method retrieves the value associated with a given key, or the
+     * supplied fallback when the key is absent.
+     *
+     * Parameters:
+     * int key - the key to search for
+     * long defaultValue - the value returned when the key is absent
+     *
+     * Return:
+     * the value associated with the key, or defaultValue if not found
+     *********************************************************************/
+    public long getOrDefault(int key, long defaultValue) {
+        int index = indexOf(key);
+        return (index < 0) ? defaultValue : table.value(index);
+    } /* End of getOrDefault method */
+
+    /**********************************************************************
+     * Method name: putDouble
+     *
+     * Description:
+     * This method stores a double value, such as a grade, by its raw bits.
+     *
+     * Parameters:
+     * int key - the key to insert
+     * double value - the value associated with the key
+     *********************************************************************/
+    public void putDouble(int key, double value) {
+        put(key, Double.doubleToRawLongBits(value));
+    } /* End of putDouble method */
+
+    /**********************************************************************
+     * Method name: getDouble
+     *
+     * Description:
+     * This method reads a value stored with putDouble.
+     *
+     * Parameters:
+     * int key - the key to search for
+     * double defaultValue - the value returned when the key is absent
+     *
+     * Return:
+     * the value associated with the key, or defaultValue if not found
+     *********************************************************************/
+    public double getDouble(int key, double defaultValue) {
+        int index = indexOf(key);
+        return (index < 0) ? defaultValue : Double.longBitsToDouble(table.value(index));
+    } /* End of getDouble method */
+
+    /**********************************************************************
+     * Method name: containsKey
+     *
+     * Description:
+     * This method checks if a key exists in the map.
+     *
+     * Parameters:
+     * int key - the key to check
+     *
+     * Return:
+     * true if the key exists, false otherwise
+     *********************************************************************/
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    } /* End of containsKey method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a key-value pair from the map, shifting later
+     * entries of the cluster back into the gap.
+     *
+     * Parameters:
+     * int key - the key to remove
+     *********************************************************************/
+    public void remove(int key) {
+        int gap = indexOf(key);
+        if (gap < 0) {
+            return;
+        }
+        int mask = capacity - 1;
+        int index = gap;
+
+        /* Pull back every later entry whose home slot is not inside (gap, index] */
+        while (true) {
+            index = (index + 1) & mask;
+            if (!table.isUsed(index)) {
+                break;
+            }
+            int movedKey = table.key(index);
+            int home = Hashing.mix(movedKey) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                table.write(gap, movedKey, table.value(index));
+                gap = index;
+            }
+        }
+        table.clear(gap);
+        setSize(size - 1);
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: resize
+     *
+     * Description:
+     * This method doubles the table. An anonymous map rehashes into new
+     * direct buffers. A file-backed map rehashes into a sibling file, flushes
+     * it, and then moves it over the original, so a crash mid-resize leaves
+     * the old file intact.
+     *********************************************************************/
+    private void resize() {
+        if (capacity >= Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("Map cannot grow past " + Hashing.MAX_CAPACITY + " slots");
+        }
+        int newCapacity = capacity * 2;
+        try {
+            if (file == null) {
+                Table grown = Table.allocate(newCapacity);
+                rehashInto(grown, newCapacity);
+                table = grown;
+            } else {
+                Path temp = file.resolveSibling(file.getFileName() + ".resize");
+                try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    MappedByteBuffer header = tempChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+                    writeHeader(header, newCapacity);
+                    Table grown = Table.map(tempChannel, header, newCapacity);
+                    rehashInto(grown, newCapacity);
+                    grown.force();
+                }
+                channel.close();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                table = Table.map(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES),
+                        newCapacity);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow map file", e);
+        }
+        capacity = newCapacity;
+        threshold = Hashing.thresholdFor(newCapacity);
+    } /* End of resize method */
+
+    /**********************************************************************
+     * Method name: rehashInto
+     *
+     * Description:
+     * This method copies every entry of the current table into a larger
+     * empty table.
+     *
+     * Parameters:
+     * Table target - the table to fill
+     * int targetCapacity - the number of slots in the target table
+     *********************************************************************/
+    private void rehashInto(Table target, int targetCapacity) {
+        for (int i = 0; i < capacity; i++) {
+            if (table.isUsed(i)) {
+                insert(target, targetCapacity, table.key(i), table.value(i));
+            }
+        }
+        target.header.putInt(SIZE_OFFSET, size);
+    } /* End of rehashInto method */
+
+    /**********************************************************************
+     * Method name: setSize
+     *
+     * Description:
+     * This method updates the entry count in memory and in the header.
+     *
+     * Parameters:
+     * int newSize - the new number of entries
+     *********************************************************************/
+    private void setSize(int newSize) {
+        size = newSize;
+        table.header.putInt(SIZE_OFFSET, newSize);
+    } /* End of setSize method */
+
+    /**********************************************************************
+     * Method name: forEach
+     *
+     * Description:
+     * This method passes every entry to the given callback in a single
+     * scan of the table, in no particular order.
+     *
+     * Parameters:
+     * IntLongConsumer action - the callback to run for each entry
+     *********************************************************************/
+    public void forEach(IntLongConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        checkOpen();
+        for (int i = 0; i < capacity; i++) {
+            if (table.isUsed(i)) {
+                action.accept(table.key(i), table.value(i));
+            }
+        }
+    } /* End of forEach method */
+
+    /**********************************************************************
+     * Method name: size
+     *
+     * Description:
+     * This method returns the number of elements in the map.
+     *
+     * Return:
+     * an integer representing the size of the map
+     *********************************************************************/
+    public int size() {
+        return size;
+    } /* End of size method */
+
+    /**********************************************************************
+     * Method name: force
+     *
+     * Description:
+     * This method flushes a file-backed map to disk. It does nothing for
+     * an anonymous map.
+     *********************************************************************/
+    public void force() {
+        checkOpen();
+        table.force();
+    } /* End of force method */
+
+    /**********************************************************************
+     * Method name: checkOpen
+     *
+     * Description:
+     * This method rejects use of a map after close.
+     *********************************************************************/
+    private void checkOpen() {
+        if (table == null) {
+            throw new IllegalStateException("Map has been closed");
+        }
+    } /* End of checkOpen method */
+
+    /**********************************************************************
+     * Method name: close
+     *
+     * Description:
+     * This method flushes a file-backed map and releases the table. The
+     * memory itself is returned once the buffers are garbage collected.
+     *********************************************************************/
+    @Override
+    public void close() throws IOException {
+        if (table == null) {
+            return;
+        }
+        force();
+        table = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    } /* End of close method */
+} /* End of OffHeapIntLongMap class */
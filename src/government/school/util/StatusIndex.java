@@ -0,0 +1,290 @@
+/**************************************************************************
+ * File name:
+ * StatusIndex.java
+ *
+ * Description:
+ * This file contains the StatusIndex class, which keeps, for each status
+ * flag, the set of records that currently have the flag. Each set is a
+ * dense array plus an IntIntMap from ID to array position, so adding or
+ * removing a member takes constant time (the last member fills the gap)
+ * and listing a flag's members takes time proportional to their number,
+ * however many records there are in total.
+ *
+ * Owners call put when a record is registered, transition when its flags
+ * change, and remove when it is removed.
+ *
+ * Author:
+ * G. Murzaku
+ *
+ * Date: October 17, 2026
+ *
+ * Concepts:
+ * Secondary indexes
+ * Dense sets with swap-with-last removal
+ * Bit flags
+ ***************************************************************************/
+
+package government.school.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public final class StatusIndex<T> {
+
+    /* INSTANCE AND CLASS FIELD(S) */
+    private final int intFlags; // Number of flag bits
+    private final int[][] ids; // Per flag, the member IDs
+    private final Object[][] members; // Per flag, the members, parallel to ids
+    private final int[] sizes; // Per flag, the number of members
+    private final IntIntMap[] positions; // Per flag, ID to position in the arrays
+
+    /**********************************************************************
+     * Constructor: StatusIndex
+     *
+     * Description:
+     * This constructor creates an empty index for the lowest flag bits.
+     *
+     * Parameters:
+     * int flags - the number of flag bits, from 1 to 31
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException if the flag count is out of range.
+     *********************************************************************/
+    public StatusIndex(int flags) {
+        if (flags <= 0 || flags > 31) {
+            throw new IllegalArgumentException("Flag count must be between 1 and 31");
+        }
+        this.intFlags = flags;
+        this.ids = new int[flags][16];
+        this.members = new Object[flags][16];
+        this.sizes = new int[flags];
+        this.positions = new IntIntMap[flags];
+        for (int f = 0; f < flags; f++) {
+            positions[f] = new IntIntMap();
+        }
+    } /* End of StatusIndex constructor */
+
+    /**********************************************************************
+     * Method name: put
+     *
+     * Description:
+     * This method indexes a record under exactly the flags it has,
+     * replacing any record indexed under the same ID.
+     *
+     * Parameters:
+     * int id - the record's ID
+     * T member - the record
+     * int bits - the record's flags
+     *********************************************************************/
+    public synchronized void put(int id, T member, int bits) {
+        for (int f = 0; f < intFlags; f++) {
+            if ((bits & (1 << f)) != 0) {
+                add(f, id, member);
+            } else {
+                remove(f, id);
+            }
+        }
+    } /* End of put method */
+
+    /**********************************************************************
+     * Method name: transition
+     *
+     * Description:
+     * This method moves an indexed record between sets after its flags
+     * change, touching only the flags that changed.
+     *
+     * Parameters:
+     * int id - the record's ID
+     * T member - the record
+     * int oldBits - the flags before the change
+     * int newBits - the flags after the change
+     *********************************************************************/
+    public synchronized void transition(int id, T member, int oldBits, int newBits) {
+        int changed = oldBits ^ newBits;
+        for (int f = 0; f < intFlags; f++) {
+            if ((changed & (1 << f)) == 0) {
+                continue;
+            }
+            if ((newBits & (1 << f)) != 0) {
+                add(f, id, member);
+            } else {
+                remove(f, id);
+            }
+        }
+    } /* End of transition method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a record from every set.
+     *
+     * Parameters:
+     * int id - the record's ID
+     *********************************************************************/
+    public synchronized void remove(int id) {
+        for (int f = 0; f < intFlags; f++) {
+            remove(f, id);
+        }
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a record from every set it is in, leaving
+     * alone any other record that has since been indexed under the same
+     * ID.
+     *
+     * Parameters:
+     * int id - the record's ID
+     * T member - the record to remove
+     *********************************************************************/
+    public synchronized void remove(int id, T member) {
+        for (int f = 0; f < intFlags; f++) {
+            int position = positions[f].getOrDefault(id, -1);
+            if (position >= 0 && members[f][position] == member) {
+                remove(f, id);
+            }
+        }
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: clear
+     *
+     * Description:
+     * This method empties every set.
+     *********************************************************************/
+    public synchronized void clear() {
+        for (int f = 0; f < intFlags; f++) {
+            Arrays.fill(members[f], 0, sizes[f], null);
+            sizes[f] = 0;
+            positions[f] = new IntIntMap();
+        }
+    } /* End of clear method */
+
+    /**********************************************************************
+     * Method name: list
+     *
+     * Description:
+     * This method copies out the records that have a flag, in no
+     * particular order.
+     *
+     * Parameters:
+     * int flag - a single flag bit, such as 1 << 2
+     *
+     * Return:
+     * a new list of the records with the flag
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException unless exactly one known flag bit
+     * is given.
+     *********************************************************************/
+    @SuppressWarnings("unchecked")
+    public synchronized ArrayList<T> list(int flag) {
+        int f = indexOf(flag);
+        ArrayList<T> result = new ArrayList<>(sizes[f]);
+        for (int i = 0; i < sizes[f]; i++) {
+            result.add((T) members[f][i]);
+        }
+        return result;
+    } /* End of list method */
+
+    /**********************************************************************
+     * Method name: count
+     *
+     * Description:
+     * This method returns how many records have a flag.
+     *
+     * Parameters:
+     * int flag - a single flag bit
+     *
+     * Return:
+     * the number of records with the flag
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException unless exactly one known flag bit
+     * is given.
+     *********************************************************************/
+    public synchronized int count(int flag) {
+        return sizes[indexOf(flag)];
+    } /* End of count method */
+
+    /**********************************************************************
+     * Method name: add
+     *
+     * Description:
+     * This method adds a record to one flag's set, or replaces the record
+     * already there under the same ID.
+     *
+     * Parameters:
+     * int f - the flag index
+     * int id - the record's ID
+     * T member - the record
+     *********************************************************************/
+    private void add(int f, int id, T member) {
+        int position = positions[f].getOrDefault(id, -1);
+        if (position >= 0) {
+            members[f][position] = member;
+            return;
+        }
+        int size = sizes[f];
+        if (size == ids[f].length) {
+            ids[f] = Arrays.copyOf(ids[f], size * 2);
+            members[f] = Arrays.copyOf(members[f], size * 2);
+        }
+        ids[f][size] = id;
+        members[f][size] = member;
+        positions[f].put(id, size);
+        sizes[f] = size + 1;
+    } /* End of add method */
+
+    /**********************************************************************
+     * Method name: remove
+     *
+     * Description:
+     * This method removes a record from one flag's set by moving the last
+     * member into its place.
+     *
+     * Parameters:
+     * int f - the flag index
+     * int id - the record's ID
+     *********************************************************************/
+    private void remove(int f, int id) {
+        int position = positions[f].getOrDefault(id, -1);
+        if (position < 0) {
+            return;
+        }
+        int last = --sizes[f];
+        if (position != last) {
+            ids[f][position] = ids[f][last];
+            members[f][position] = members[f][last];
+            positions[f].put(ids[f][position], position);
+        }
+        members[f][last] = null;
+        positions[f].remove(id);
+    } /* End of remove method */
+
+    /**********************************************************************
+     * Method name: indexOf
+     *
+     * Description:
+     * This method turns a single flag bit into its flag index.
+     *
+     * Parameters:
+     * int flag - a single flag bit
+     *
+     * Return:
+     * the flag index
+     *
+     * Restrictions:
+     * Throws IllegalArgumentException unless exactly one known flag bit
+     * is given.
+     *********************************************************************/
+    private int indexOf(int flag) {
+        if (Integer.bitCount(flag) != 1 || flag >>> intFlags != 0) {
+            throw new IllegalArgumentException("Expected a single status flag, got " + flag);
+        }
+        return Integer.numberOfTrailingZeros(flag);
+    } /* End of indexOf method */
+} /* End of StatusIndex class */